@@ -0,0 +1,66 @@
+package main.java.com.ubo.tp.message.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Écriture atomique des fichiers du répertoire d'échange. <br/>
+ * <i>Le contenu est écrit dans un fichier temporaire du même répertoire (nom
+ * préfixé par un point et suffixé par <code>.tmp</code>, ignoré par la
+ * surveillance), puis renommé en une seule opération : un autre client ne voit
+ * jamais de fichier partiellement écrit.</i>
+ *
+ * @author S.Lucas
+ */
+public final class AtomicFileWriter {
+
+	/**
+	 * Classe utilitaire.
+	 */
+	private AtomicFileWriter() {
+	}
+
+	/**
+	 * Écriture atomique d'un fichier (le fichier existant est remplacé).
+	 *
+	 * @param content  , Contenu du fichier.
+	 * @param destFile , Fichier de destination.
+	 * @throws IOException si le fichier n'a pas pu être écrit (le fichier
+	 *                     existant est alors inchangé).
+	 */
+	public static void write(byte[] content, File destFile) throws IOException {
+		// Nom unique (plusieurs écritures concurrentes possibles) et droits par
+		// défaut, pour que les autres clients puissent lire le fichier publié
+		Path destPath = destFile.getAbsoluteFile().toPath();
+		Path tmpPath = destPath.resolveSibling("." + destFile.getName() + "."
+				+ Long.toHexString(ThreadLocalRandom.current().nextLong()) + "." + Constants.TEMPORARY_FILE_EXTENSION);
+
+		try {
+			Files.write(tmpPath, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+			try {
+				Files.move(tmpPath, destPath, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				// Système de fichiers sans renommage atomique
+				Files.move(tmpPath, destPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpPath);
+		}
+	}
+
+	/**
+	 * Indique si un fichier est un fichier temporaire ou caché (écriture en
+	 * cours, verrou), à ignorer par la surveillance du répertoire.
+	 *
+	 * @param fileName , Nom du fichier.
+	 */
+	public static boolean isHiddenOrTemporary(String fileName) {
+		return fileName.startsWith(".") || fileName.endsWith("." + Constants.TEMPORARY_FILE_EXTENSION);
+	}
+}
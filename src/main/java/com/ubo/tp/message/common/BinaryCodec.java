@@ -0,0 +1,311 @@
+package main.java.com.ubo.tp.message.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+import main.java.com.ubo.tp.message.datamodel.user.User;
+
+/**
+ * Codec binaire versionné des utilisateurs et des messages. <br/>
+ * <ul>
+ * <li>En-tête : signature sur 4 octets (<code>0x89 'U' 'S' 'R'</code> ou
+ * <code>0x89 'M' 'S' 'G'</code>) puis numéro de version sur 1 octet.</li>
+ * <li>UUID : deux <code>long</code> (poids fort puis poids faible).</li>
+ * <li>Dates et tailles : entiers de longueur variable (7 bits par octet).</li>
+ * <li>Textes : taille en octets puis contenu UTF-8.</li>
+ * <li>Abonnements : nombre d'éléments puis les tags.</li>
+ * </ul>
+ * <i>Le premier octet de la signature ne peut pas débuter un fichier de
+ * propriétés écrit par l'application : le format d'un fichier est donc
+ * détecté à sa lecture.</i>
+ *
+ * @author S.Lucas
+ */
+public final class BinaryCodec {
+
+	/**
+	 * Signature des fichiers utilisateur binaires.
+	 */
+	public static final byte[] USER_MAGIC = { (byte) 0x89, 'U', 'S', 'R' };
+
+	/**
+	 * Signature des fichiers message binaires.
+	 */
+	public static final byte[] MESSAGE_MAGIC = { (byte) 0x89, 'M', 'S', 'G' };
+
+	/**
+	 * Version courante du format.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Taille de l'en-tête (signature et version).
+	 */
+	public static final int HEADER_BYTES = 5;
+
+	/**
+	 * Classe utilitaire.
+	 */
+	private BinaryCodec() {
+	}
+
+	/**
+	 * Indique si des données débutent par la signature donnée (la position des
+	 * données n'est pas modifiée).
+	 *
+	 * @param data  , Données à tester.
+	 * @param magic , Signature attendue.
+	 */
+	public static boolean hasMagic(ByteBuffer data, byte[] magic) {
+		if (data.remaining() < HEADER_BYTES) {
+			return false;
+		}
+		for (int i = 0; i < magic.length; i++) {
+			if (data.get(data.position() + i) != magic[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Encodage d'un utilisateur (en-tête compris).
+	 *
+	 * @param user , Utilisateur à encoder.
+	 */
+	public static byte[] encodeUser(User user) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+		writeHeader(out, USER_MAGIC);
+		writeUuid(out, user.getUuid());
+		writeString(out, user.getUserTag());
+		writeString(out, DataFilesManager.encrypt(user.getUserPassword()));
+		writeString(out, user.getName());
+		writeString(out, user.getAvatarPath());
+
+		Set<String> follows = user.getFollows();
+		writeVarLong(out, follows.size());
+		for (String follow : follows) {
+			writeString(out, follow);
+		}
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Décodage d'un utilisateur (en-tête compris).
+	 *
+	 * @param data , Données de l'utilisateur.
+	 * @throws IOException si les données sont invalides ou d'une version non
+	 *                     supportée.
+	 */
+	public static User decodeUser(ByteBuffer data) throws IOException {
+		readHeader(data, USER_MAGIC);
+
+		try {
+			UUID uuid = readUuid(data);
+			String tag = readString(data);
+			String password = DataFilesManager.decrypt(readString(data));
+			String name = readString(data);
+			String avatar = readString(data);
+
+			int followsCount = (int) readVarLong(data);
+			Set<String> follows = new HashSet<>();
+			for (int i = 0; i < followsCount; i++) {
+				follows.add(readString(data));
+			}
+
+			return new User(uuid, tag, password, name, follows, avatar);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Données utilisateur tronquées ou invalides", e);
+		}
+	}
+
+	/**
+	 * Encodage d'un message (en-tête compris).
+	 *
+	 * @param message , Message à encoder.
+	 */
+	public static byte[] encodeMessage(Message message) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64 + message.getText().length());
+		writeHeader(out, MESSAGE_MAGIC);
+		writeMessageBody(out, message.getUuid(), message.getSender().getUuid(), message.getEmissionDate(),
+				message.getText());
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Décodage d'un message (en-tête compris).
+	 *
+	 * @param data    , Données du message.
+	 * @param userMap , Utilisateurs connus, par identifiant (l'émetteur inconnu
+	 *                est remplacé par l'utilisateur inconnu).
+	 * @throws IOException si les données sont invalides ou d'une version non
+	 *                     supportée.
+	 */
+	public static Message decodeMessage(ByteBuffer data, Map<UUID, User> userMap) throws IOException {
+		readHeader(data, MESSAGE_MAGIC);
+
+		try {
+			UUID uuid = readUuid(data);
+			UUID senderUuid = readUuid(data);
+			long emissionDate = readVarLong(data);
+			String text = readString(data);
+
+			User sender = userMap.get(senderUuid);
+			if (sender == null) {
+				sender = userMap.get(Constants.UNKNONWN_USER_UUID);
+			}
+
+			return new Message(uuid, sender, emissionDate, text);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Données de message tronquées ou invalides", e);
+		}
+	}
+
+	/**
+	 * Écriture du corps d'un message (sans en-tête).
+	 *
+	 * @param out          , Flux de destination.
+	 * @param uuid         , Identifiant du message.
+	 * @param senderUuid   , Identifiant de l'émetteur.
+	 * @param emissionDate , Date d'émission.
+	 * @param text         , Texte du message.
+	 */
+	public static void writeMessageBody(ByteArrayOutputStream out, UUID uuid, UUID senderUuid, long emissionDate,
+			String text) {
+		writeUuid(out, uuid);
+		writeUuid(out, senderUuid);
+		writeVarLong(out, emissionDate);
+		writeString(out, text);
+	}
+
+	/**
+	 * Écriture d'un en-tête.
+	 */
+	public static void writeHeader(ByteArrayOutputStream out, byte[] magic) {
+		out.write(magic, 0, magic.length);
+		out.write(VERSION);
+	}
+
+	/**
+	 * Lecture et vérification d'un en-tête.
+	 *
+	 * @throws IOException si la signature ne correspond pas ou si la version
+	 *                     n'est pas supportée.
+	 */
+	public static void readHeader(ByteBuffer data, byte[] magic) throws IOException {
+		if (!hasMagic(data, magic)) {
+			throw new IOException("Signature binaire invalide");
+		}
+		data.position(data.position() + magic.length);
+
+		int version = data.get() & 0xFF;
+		if (version > VERSION) {
+			throw new IOException("Version de format non supportée : " + version);
+		}
+	}
+
+	/**
+	 * Écriture d'un UUID.
+	 */
+	public static void writeUuid(ByteArrayOutputStream out, UUID uuid) {
+		writeLong(out, uuid.getMostSignificantBits());
+		writeLong(out, uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Lecture d'un UUID.
+	 */
+	public static UUID readUuid(ByteBuffer data) {
+		return new UUID(data.getLong(), data.getLong());
+	}
+
+	/**
+	 * Écriture d'un <code>long</code> (8 octets, poids fort en premier).
+	 */
+	protected static void writeLong(ByteArrayOutputStream out, long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			out.write((int) (value >>> shift));
+		}
+	}
+
+	/**
+	 * Écriture d'un entier de longueur variable (codage zigzag : les petites
+	 * valeurs, même négatives, occupent peu d'octets).
+	 */
+	public static void writeVarLong(ByteArrayOutputStream out, long value) {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			out.write((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.write((int) zigzag);
+	}
+
+	/**
+	 * Lecture d'un entier de longueur variable.
+	 *
+	 * @throws IllegalArgumentException si l'entier est trop long.
+	 */
+	public static long readVarLong(ByteBuffer data) {
+		long zigzag = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = data.get();
+			zigzag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IllegalArgumentException("Entier de longueur variable invalide");
+	}
+
+	/**
+	 * Écriture d'un texte (taille puis contenu UTF-8).
+	 */
+	public static void writeString(ByteArrayOutputStream out, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Lecture d'un texte.
+	 *
+	 * @throws IllegalArgumentException si la taille est invalide.
+	 */
+	public static String readString(ByteBuffer data) {
+		int length = readLength(data);
+		String value;
+		if (data.hasArray()) {
+			value = new String(data.array(), data.arrayOffset() + data.position(), length, StandardCharsets.UTF_8);
+		} else {
+			byte[] bytes = new byte[length];
+			data.duplicate().get(bytes);
+			value = new String(bytes, StandardCharsets.UTF_8);
+		}
+		data.position(data.position() + length);
+		return value;
+	}
+
+	/**
+	 * Lecture d'une taille de texte (vérifiée par rapport aux données restantes).
+	 *
+	 * @throws IllegalArgumentException si la taille est invalide.
+	 */
+	protected static int readLength(ByteBuffer data) {
+		long length = readVarLong(data);
+		if (length < 0 || length > data.remaining()) {
+			throw new IllegalArgumentException("Taille de texte invalide : " + length);
+		}
+		return (int) length;
+	}
+}
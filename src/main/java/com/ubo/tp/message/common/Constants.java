@@ -18,6 +18,21 @@ public class Constants {
 	 */
 	public static final String MESSAGE_FILE_EXTENSION = "msg";
 
+	/**
+	 * Extension des segments du journal des messages
+	 */
+	public static final String MESSAGE_SEGMENT_FILE_EXTENSION = "seg";
+
+	/**
+	 * Extension des fichiers temporaires (écriture en cours)
+	 */
+	public static final String TEMPORARY_FILE_EXTENSION = "tmp";
+
+	/**
+	 * Extension des index des segments du journal des messages
+	 */
+	public static final String MESSAGE_SEGMENT_INDEX_EXTENSION = "idx";
+
 	/**
 	 * Répertoire des fichiers temporaires du système.
 	 */
@@ -62,4 +77,61 @@ public class Constants {
 	 * Clé de configuration pour le mode bouchoné
 	 */
 	public static final String CONFIGURATION_KEY_MOCK_ENABLED = "MOCK_ENABLED";
+
+	/**
+	 * Clé de configuration pour le mode de surveillance du répertoire d'échange
+	 */
+	public static final String CONFIGURATION_KEY_DIRECTORY_WATCH_MODE = "DIRECTORY_WATCH_MODE";
+
+	/**
+	 * Mode de surveillance par scrutation périodique du répertoire d'échange
+	 * (pour les répertoires réseau non supportés par le WatchService).
+	 */
+	public static final String DIRECTORY_WATCH_MODE_POLLING = "POLLING";
+
+	/**
+	 * Clé de configuration pour le nombre de threads du chargement initial
+	 */
+	public static final String CONFIGURATION_KEY_INGESTION_PARALLELISM = "INGESTION_PARALLELISM";
+
+	/**
+	 * Clé de configuration pour le nombre maximal de rafraîchissements de
+	 * l'affichage par seconde
+	 */
+	public static final String CONFIGURATION_KEY_UI_MAX_REFRESH_RATE = "UI_MAX_REFRESH_RATE";
+
+	/**
+	 * Clé de configuration pour le mode de stockage des messages
+	 */
+	public static final String CONFIGURATION_KEY_MESSAGE_STORAGE_MODE = "MESSAGE_STORAGE_MODE";
+
+	/**
+	 * Mode de stockage des messages dans un journal de segments (un fichier par
+	 * message par défaut).
+	 */
+	public static final String MESSAGE_STORAGE_MODE_SEGMENT_LOG = "SEGMENT_LOG";
+
+	/**
+	 * Clé de configuration pour la migration des fichiers de messages existants
+	 * vers le journal de segments
+	 */
+	public static final String CONFIGURATION_KEY_MESSAGE_STORAGE_MIGRATION = "MESSAGE_STORAGE_MIGRATION";
+
+	/**
+	 * Clé de configuration pour le format d'écriture des fichiers utilisateur et
+	 * message (PROPERTIES ou BINARY)
+	 */
+	public static final String CONFIGURATION_KEY_DATA_FILE_FORMAT = "DATA_FILE_FORMAT";
+
+	/**
+	 * Clé de configuration pour la synchronisation sur disque (fsync) de chaque
+	 * lot d'écritures
+	 */
+	public static final String CONFIGURATION_KEY_WRITE_SYNC = "WRITE_SYNC";
+
+	/**
+	 * Clé de configuration pour l'organisation des fichiers de messages dans le
+	 * répertoire d'échange (FLAT ou PARTITIONED)
+	 */
+	public static final String CONFIGURATION_KEY_DIRECTORY_LAYOUT = "DIRECTORY_LAYOUT";
 }
@@ -0,0 +1,34 @@
+package main.java.com.ubo.tp.message.common;
+
+/**
+ * Format d'écriture des fichiers de données (utilisateurs et messages). <br/>
+ * <i>La lecture détecte le format de chaque fichier : un répertoire d'échange
+ * peut contenir les deux formats.</i>
+ *
+ * @author S.Lucas
+ */
+public enum DataFileFormat {
+
+	/**
+	 * Fichier de propriétés (format historique, lisible par toutes les versions).
+	 */
+	PROPERTIES,
+
+	/**
+	 * Format binaire versionné ({@link BinaryCodec}).
+	 */
+	BINARY;
+
+	/**
+	 * Retourne le format correspondant à une valeur de configuration
+	 * (<code>PROPERTIES</code> par défaut).
+	 *
+	 * @param value , Valeur de configuration.
+	 */
+	public static DataFileFormat fromConfiguration(String value) {
+		if (value != null && BINARY.name().equalsIgnoreCase(value.trim())) {
+			return BINARY;
+		}
+		return PROPERTIES;
+	}
+}
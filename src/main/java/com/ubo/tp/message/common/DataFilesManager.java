@@ -1,6 +1,10 @@
 package main.java.com.ubo.tp.message.common;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
 import java.util.HashSet;
 import java.util.Map;
@@ -13,7 +17,8 @@ import main.java.com.ubo.tp.message.datamodel.user.User;
 
 /**
  * Classe de gestion des conversion des objets entre le datamodel et les
- * fichiers de propriété.
+ * fichiers de données (fichiers de propriété ou format binaire, détecté à la
+ * lecture de chaque fichier).
  *
  * @author S.Lucas
  */
@@ -22,6 +27,12 @@ public class DataFilesManager {
 	public static final User UNKNOWN_USER = new User(Constants.UNKNONWN_USER_UUID, "<Inconnu>", "--", "<Inconnu>",
 			new HashSet<>(), "");
 
+	/**
+	 * Taille à partir de laquelle un fichier est projeté en mémoire
+	 * ({@link FileChannel#map}) plutôt que copié dans un tableau.
+	 */
+	public static final long MAPPED_READ_THRESHOLD = 256 * 1024;
+
 	/**
 	 * Clé du fichier de propriété pour l'attribut uuid
 	 */
@@ -78,34 +89,54 @@ public class DataFilesManager {
 	public static final String PROPERTY_KEY_MESSAGE_TEXT = "Text";
 
 	/**
-	 * Lecture du fichier de propriété pour un {@link User}
+	 * Lecture du fichier de données pour un {@link User}
 	 *
 	 */
 	public static User readUser(File userFile) {
 		User user = null;
 
 		if (userFile != null && userFile.getName().endsWith(Constants.USER_FILE_EXTENSION) && userFile.exists()) {
-			Properties properties = PropertiesManager.loadProperties(userFile.getAbsolutePath());
-
-			String uuid = properties.getProperty(PROPERTY_KEY_USER_UUID, UUID.randomUUID().toString());
-			String tag = properties.getProperty(PROPERTY_KEY_USER_TAG, "NoTag");
-			String password = decrypt(properties.getProperty(PROPERTY_KEY_USER_PASSWORD, "NoPassword"));
-			String name = properties.getProperty(PROPERTY_KEY_USER_NAME, "NoName");
-			String follows = properties.getProperty(PROPERTY_KEY_USER_FOLLOWS, "");
-			String avatar = properties.getProperty(PROPERTY_KEY_USER_AVATAR, "");
-
-			String[] followsArray = follows.split(PROPERTY_FOLLOW_SEPARATOR);
-			Set<String> followsAsSet = new HashSet<>();
-			for (String follow : followsArray) {
-				followsAsSet.add(follow);
+			ByteBuffer data = readContent(userFile);
+
+			if (data != null) {
+				if (BinaryCodec.hasMagic(data, BinaryCodec.USER_MAGIC)) {
+					try {
+						user = BinaryCodec.decodeUser(data);
+					} catch (IOException e) {
+						System.err.println(
+								"Fichier utilisateur invalide : " + userFile.getName() + " (" + e.getMessage() + ")");
+					}
+				} else {
+					user = readUser(PropertiesManager.loadProperties(toArray(data)));
+				}
 			}
-
-			user = new User(UUID.fromString(uuid), tag, password, name, followsAsSet, avatar);
 		}
 
 		return user;
 	}
 
+	/**
+	 * Lecture des propriétés d'un {@link User}
+	 *
+	 * @param properties
+	 */
+	protected static User readUser(Properties properties) {
+		String uuid = properties.getProperty(PROPERTY_KEY_USER_UUID, UUID.randomUUID().toString());
+		String tag = properties.getProperty(PROPERTY_KEY_USER_TAG, "NoTag");
+		String password = decrypt(properties.getProperty(PROPERTY_KEY_USER_PASSWORD, "NoPassword"));
+		String name = properties.getProperty(PROPERTY_KEY_USER_NAME, "NoName");
+		String follows = properties.getProperty(PROPERTY_KEY_USER_FOLLOWS, "");
+		String avatar = properties.getProperty(PROPERTY_KEY_USER_AVATAR, "");
+
+		String[] followsArray = follows.split(PROPERTY_FOLLOW_SEPARATOR);
+		Set<String> followsAsSet = new HashSet<>();
+		for (String follow : followsArray) {
+			followsAsSet.add(follow);
+		}
+
+		return new User(UUID.fromString(uuid), tag, password, name, followsAsSet, avatar);
+	}
+
 	/**
 	 * Génération d'un fichier pour un utilisateur ({@link User}).
 	 *
@@ -113,6 +144,41 @@ public class DataFilesManager {
 	 * @param destFileName , Fichier de destination.
 	 */
 	public static void writeUserFile(User user, String destFileName) {
+		writeUserFile(user, destFileName, DataFileFormat.PROPERTIES);
+	}
+
+	/**
+	 * Génération d'un fichier pour un utilisateur ({@link User}) au format
+	 * donné.
+	 *
+	 * @param user         , Utilisateur à générer.
+	 * @param destFileName , Fichier de destination.
+	 * @param format       , Format du fichier.
+	 */
+	public static void writeUserFile(User user, String destFileName, DataFileFormat format) {
+		try {
+			saveUserFile(user, destFileName, format);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.err.println("Impossible d'enregistrer le fichier " + destFileName);
+		}
+	}
+
+	/**
+	 * Génération d'un fichier pour un utilisateur ({@link User}) au format donné
+	 * (l'erreur est transmise à l'appelant).
+	 *
+	 * @param user         , Utilisateur à générer.
+	 * @param destFileName , Fichier de destination.
+	 * @param format       , Format du fichier.
+	 * @throws IOException si le fichier n'a pas pu être écrit.
+	 */
+	public static void saveUserFile(User user, String destFileName, DataFileFormat format) throws IOException {
+		if (format == DataFileFormat.BINARY) {
+			AtomicFileWriter.write(BinaryCodec.encodeUser(user), new File(destFileName));
+			return;
+		}
+
 		Properties properties = new Properties();
 
 		properties.setProperty(PROPERTY_KEY_USER_UUID, user.getUuid().toString());
@@ -127,11 +193,11 @@ public class DataFilesManager {
 		properties.setProperty(PROPERTY_KEY_USER_FOLLOWS, follows);
 		properties.setProperty(PROPERTY_KEY_USER_AVATAR, user.getAvatarPath());
 
-		PropertiesManager.writeProperties(properties, destFileName);
+		PropertiesManager.storeProperties(properties, destFileName);
 	}
 
 	/**
-	 * Lecture du fichier de propriété pour un {@link Message}
+	 * Lecture du fichier de données pour un {@link Message}
 	 *
 	 * @param messageFile
 	 * @param userMap
@@ -141,21 +207,42 @@ public class DataFilesManager {
 
 		if (messageFile != null && messageFile.getName().endsWith(Constants.MESSAGE_FILE_EXTENSION)
 				&& messageFile.exists()) {
-			Properties properties = PropertiesManager.loadProperties(messageFile.getAbsolutePath());
+			ByteBuffer data = readContent(messageFile);
+
+			if (data != null) {
+				if (BinaryCodec.hasMagic(data, BinaryCodec.MESSAGE_MAGIC)) {
+					try {
+						message = BinaryCodec.decodeMessage(data, userMap);
+					} catch (IOException e) {
+						System.err.println(
+								"Fichier message invalide : " + messageFile.getName() + " (" + e.getMessage() + ")");
+					}
+				} else {
+					message = readMessage(PropertiesManager.loadProperties(toArray(data)), userMap);
+				}
+			}
+		}
 
-			String uuid = properties.getProperty(PROPERTY_KEY_MESSAGE_UUID, UUID.randomUUID().toString());
-			String senderUuid = properties.getProperty(PROPERTY_KEY_MESSAGE_SENDER,
-					Constants.UNKNONWN_USER_UUID.toString());
-			String emissionDateStr = properties.getProperty(PROPERTY_KEY_MESSAGE_DATE, "0");
-			String text = properties.getProperty(PROPERTY_KEY_MESSAGE_TEXT, "NoText");
+		return message;
+	}
 
-			User sender = getUserFromUuid(senderUuid, userMap);
-			long emissionDate = Long.valueOf(emissionDateStr);
+	/**
+	 * Lecture des propriétés d'un {@link Message}
+	 *
+	 * @param properties
+	 * @param userMap
+	 */
+	protected static Message readMessage(Properties properties, Map<UUID, User> userMap) {
+		String uuid = properties.getProperty(PROPERTY_KEY_MESSAGE_UUID, UUID.randomUUID().toString());
+		String senderUuid = properties.getProperty(PROPERTY_KEY_MESSAGE_SENDER,
+				Constants.UNKNONWN_USER_UUID.toString());
+		String emissionDateStr = properties.getProperty(PROPERTY_KEY_MESSAGE_DATE, "0");
+		String text = properties.getProperty(PROPERTY_KEY_MESSAGE_TEXT, "NoText");
 
-			message = new Message(UUID.fromString(uuid), sender, emissionDate, text);
-		}
+		User sender = getUserFromUuid(senderUuid, userMap);
+		long emissionDate = Long.valueOf(emissionDateStr);
 
-		return message;
+		return new Message(UUID.fromString(uuid), sender, emissionDate, text);
 	}
 
 	/**
@@ -165,6 +252,41 @@ public class DataFilesManager {
 	 * @param destFileName , Fichier de destination.
 	 */
 	public static void writeMessageFile(Message message, String destFileName) {
+		writeMessageFile(message, destFileName, DataFileFormat.PROPERTIES);
+	}
+
+	/**
+	 * Génération d'un fichier pour un Message ({@link Message}) au format donné.
+	 *
+	 * @param message      , Message à générer.
+	 * @param destFileName , Fichier de destination.
+	 * @param format       , Format du fichier.
+	 */
+	public static void writeMessageFile(Message message, String destFileName, DataFileFormat format) {
+		try {
+			saveMessageFile(message, destFileName, format);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.err.println("Impossible d'enregistrer le fichier " + destFileName);
+		}
+	}
+
+	/**
+	 * Génération d'un fichier pour un Message ({@link Message}) au format donné
+	 * (l'erreur est transmise à l'appelant).
+	 *
+	 * @param message      , Message à générer.
+	 * @param destFileName , Fichier de destination.
+	 * @param format       , Format du fichier.
+	 * @throws IOException si le fichier n'a pas pu être écrit.
+	 */
+	public static void saveMessageFile(Message message, String destFileName, DataFileFormat format)
+			throws IOException {
+		if (format == DataFileFormat.BINARY) {
+			AtomicFileWriter.write(BinaryCodec.encodeMessage(message), new File(destFileName));
+			return;
+		}
+
 		Properties properties = new Properties();
 
 		properties.setProperty(PROPERTY_KEY_MESSAGE_UUID, message.getUuid().toString());
@@ -172,7 +294,62 @@ public class DataFilesManager {
 		properties.setProperty(PROPERTY_KEY_MESSAGE_DATE, String.valueOf(message.getEmissionDate()));
 		properties.setProperty(PROPERTY_KEY_MESSAGE_TEXT, message.getText());
 
-		PropertiesManager.writeProperties(properties, destFileName);
+		PropertiesManager.storeProperties(properties, destFileName);
+	}
+
+	/**
+	 * Lecture du contenu d'un fichier de données.
+	 *
+	 * @return Le contenu, <code>null</code> si le fichier est illisible.
+	 */
+	protected static ByteBuffer readContent(File dataFile) {
+		try (FileChannel channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ)) {
+			return readBuffer(channel, 0, channel.size());
+		} catch (IOException e) {
+			System.err.println("Impossible de lire le fichier " + dataFile.getName() + " : " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Lecture d'une portion de fichier. <br/>
+	 * <i>Au delà de {@link #MAPPED_READ_THRESHOLD}, la portion est projetée en
+	 * mémoire : les enregistrements sont décodés directement depuis le fichier,
+	 * sans copie intermédiaire. Les petites portions sont copiées (une projection
+	 * coûte plus cher qu'une lecture de quelques Ko).</i>
+	 *
+	 * @param channel  , Canal ouvert en lecture.
+	 * @param position , Position du début de la portion.
+	 * @param size     , Taille de la portion.
+	 */
+	public static ByteBuffer readBuffer(FileChannel channel, long position, long size) throws IOException {
+		if (size >= MAPPED_READ_THRESHOLD) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		}
+
+		ByteBuffer data = ByteBuffer.allocate((int) size);
+		while (data.hasRemaining()) {
+			if (channel.read(data, position + data.position()) < 0) {
+				break;
+			}
+		}
+		data.flip();
+		return data;
+	}
+
+	/**
+	 * Retourne le contenu d'un tampon sous forme de tableau (sans copie si le
+	 * tampon en possède un).
+	 */
+	protected static byte[] toArray(ByteBuffer data) {
+		if (data.hasArray() && data.arrayOffset() == 0 && data.position() == 0
+				&& data.remaining() == data.array().length) {
+			return data.array();
+		}
+
+		byte[] content = new byte[data.remaining()];
+		data.duplicate().get(content);
+		return content;
 	}
 
 	/**
@@ -0,0 +1,35 @@
+package main.java.com.ubo.tp.message.common;
+
+/**
+ * Organisation des fichiers de messages dans le répertoire d'échange. <br/>
+ * <i>Les fichiers utilisateur et les segments du journal restent à la racine
+ * du répertoire quelle que soit l'organisation.</i>
+ *
+ * @author S.Lucas
+ */
+public enum DirectoryLayout {
+
+	/**
+	 * Tous les fichiers à la racine (organisation historique).
+	 */
+	FLAT,
+
+	/**
+	 * Messages répartis par jour d'émission puis par préfixe d'identifiant
+	 * (<code>aaaa/MM/jj/x/&lt;uuid&gt;.msg</code>).
+	 */
+	PARTITIONED;
+
+	/**
+	 * Retourne l'organisation correspondant à une valeur de configuration
+	 * (<code>FLAT</code> par défaut).
+	 *
+	 * @param value , Valeur de configuration.
+	 */
+	public static DirectoryLayout fromConfiguration(String value) {
+		if (value != null && PARTITIONED.name().equalsIgnoreCase(value.trim())) {
+			return PARTITIONED;
+		}
+		return FLAT;
+	}
+}
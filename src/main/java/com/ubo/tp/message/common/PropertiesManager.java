@@ -1,8 +1,10 @@
 package main.java.com.ubo.tp.message.common;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.Properties;
 
 /**
@@ -32,6 +34,24 @@ public class PropertiesManager {
 		return properties;
 	}
 
+	/**
+	 * Chargement de propriétés depuis le contenu d'un fichier déjà lu.
+	 *
+	 * @param content Contenu du fichier de propriétés.
+	 */
+	public static Properties loadProperties(byte[] content) {
+		Properties properties = new Properties();
+
+		try {
+			properties.load(new ByteArrayInputStream(content));
+		} catch (Throwable t) {
+			t.printStackTrace();
+			System.out.println("Impossible de charger le fichier de propriétés");
+		}
+
+		return properties;
+	}
+
 	/**
 	 * Ecriture du fichier de propriétés.
 	 *
@@ -40,12 +60,27 @@ public class PropertiesManager {
 	 */
 	public static void writeProperties(Properties properties, String propertiesFilePath) {
 		if (properties != null) {
-			try (FileOutputStream out = new FileOutputStream(propertiesFilePath)) {
-				properties.store(out, "");
+			try {
+				storeProperties(properties, propertiesFilePath);
 			} catch (Throwable t) {
 				t.printStackTrace();
 				System.err.println("Impossible d'enregistrer les propriétés");
 			}
 		}
 	}
+
+	/**
+	 * Ecriture atomique du fichier de propriétés (l'erreur est transmise à
+	 * l'appelant).
+	 *
+	 * @param properties         propriétés à enregistrer
+	 * @param propertiesFilePath Chemin du fichier de propriété à écrire.
+	 * @throws IOException si le fichier n'a pas pu être écrit.
+	 */
+	public static void storeProperties(Properties properties, String propertiesFilePath) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		properties.store(out, "");
+
+		AtomicFileWriter.write(out.toByteArray(), new File(propertiesFilePath));
+	}
 }
@@ -1,16 +1,36 @@
 package main.java.com.ubo.tp.message.core;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import main.java.com.ubo.tp.message.common.Constants;
+import main.java.com.ubo.tp.message.common.DataFileFormat;
 import main.java.com.ubo.tp.message.common.DataFilesManager;
+import main.java.com.ubo.tp.message.common.DirectoryLayout;
 import main.java.com.ubo.tp.message.core.database.IDatabase;
 import main.java.com.ubo.tp.message.core.directory.IWatchableDirectoryObserver;
+import main.java.com.ubo.tp.message.core.storage.DirectoryCheckpoint;
+import main.java.com.ubo.tp.message.core.storage.FileMessageStorage;
+import main.java.com.ubo.tp.message.core.storage.FileStamp;
+import main.java.com.ubo.tp.message.core.storage.IMessageStorage;
+import main.java.com.ubo.tp.message.core.storage.MessageRecord;
+import main.java.com.ubo.tp.message.core.storage.SegmentLogReader;
+import main.java.com.ubo.tp.message.core.storage.WriteBehindQueue;
+import main.java.com.ubo.tp.message.core.storage.WriteRegistry;
 import main.java.com.ubo.tp.message.datamodel.message.IMessage;
 import main.java.com.ubo.tp.message.datamodel.message.Message;
 import main.java.com.ubo.tp.message.datamodel.user.IUser;
@@ -24,6 +44,11 @@ import main.java.com.ubo.tp.message.datamodel.user.User;
  */
 public class EntityManager implements IWatchableDirectoryObserver {
 
+	/**
+	 * Nombre de fichiers traités par chaque tâche lors du chargement initial.
+	 */
+	protected static final int INGESTION_CHUNK_SIZE = 256;
+
 	protected final IMessage mMessageList;
 
 	protected final IUser mUserList;
@@ -48,6 +73,65 @@ public class EntityManager implements IWatchableDirectoryObserver {
 	 */
 	protected final Map<String, User> mUserFileMap;
 
+	/**
+	 * Map reliant les UUID aux messages lus dans le journal de segments.
+	 */
+	protected final Map<UUID, Message> mSegmentMessageMap;
+
+	/**
+	 * Lecture incrémentale des segments du journal des messages (quel que soit
+	 * le mode de stockage de cette instance, d'autres instances pouvant écrire
+	 * dans le journal).
+	 */
+	protected final SegmentLogReader mSegmentReader;
+
+	/**
+	 * Stockage utilisé pour l'écriture des messages.
+	 */
+	protected IMessageStorage mMessageStorage;
+
+	/**
+	 * Format d'écriture des fichiers utilisateur et message.
+	 */
+	protected DataFileFormat mDataFileFormat;
+
+	/**
+	 * Organisation des fichiers de messages dans le répertoire d'échange.
+	 */
+	protected DirectoryLayout mDirectoryLayout;
+
+	/**
+	 * File d'écriture différée des fichiers utilisateur et message.
+	 */
+	protected final WriteBehindQueue mWriteQueue;
+
+	/**
+	 * Empreinte des fichiers utilisateur et message lors de leur lecture, par nom
+	 * de fichier.
+	 */
+	protected final Map<String, FileStamp> mFileStamps;
+
+	/**
+	 * Point de reprise du répertoire d'échange.
+	 */
+	protected DirectoryCheckpoint mCheckpoint;
+
+	/**
+	 * Fichiers utilisateur écrits par l'application.
+	 */
+	protected final WriteRegistry<User> mUserWrites;
+
+	/**
+	 * Fichiers message écrits par l'application.
+	 */
+	protected final WriteRegistry<Message> mMessageWrites;
+
+	/**
+	 * Nombre de threads utilisés pour l'extraction des fichiers lors du
+	 * chargement initial.
+	 */
+	protected int mIngestionParallelism;
+
 	/**
 	 * Constructeur.
 	 */
@@ -57,7 +141,15 @@ public class EntityManager implements IWatchableDirectoryObserver {
 		this.mUserMap = new HashMap<>();
 		this.mMessageFileMap = new HashMap<>();
 		this.mUserFileMap = new HashMap<>();
-
+		this.mSegmentMessageMap = new HashMap<>();
+		this.mSegmentReader = new SegmentLogReader();
+		this.mIngestionParallelism = Runtime.getRuntime().availableProcessors();
+		this.mDataFileFormat = DataFileFormat.PROPERTIES;
+		this.mDirectoryLayout = DirectoryLayout.FLAT;
+		this.mWriteQueue = new WriteBehindQueue();
+		this.mFileStamps = new ConcurrentHashMap<>();
+		this.mUserWrites = new WriteRegistry<>();
+		this.mMessageWrites = new WriteRegistry<>();
 
 		// Ajout de l'utilisateur inconnu
 		User unknowUser = DataFilesManager.UNKNOWN_USER;
@@ -69,8 +161,122 @@ public class EntityManager implements IWatchableDirectoryObserver {
 	 */
 	@Override
 	public void notifyPresentFiles(Set<File> presentFiles) {
-		// L'initialisation est une phase d'ajout massive
-		this.notifyNewFiles(presentFiles);
+		// L'initialisation est une phase d'ajout massive : seuls les fichiers
+		// nouveaux ou modifiés depuis le point de reprise sont extraits, en
+		// parallèle (utilisateurs d'abord, nécessaires aux messages)
+		long startTime = System.currentTimeMillis();
+		ForkJoinPool ingestionPool = new ForkJoinPool(mIngestionParallelism);
+		Map<String, DirectoryCheckpoint.Entry> checkpoint = mCheckpoint != null ? mCheckpoint.load()
+				: new HashMap<>();
+
+		try {
+			Set<File> userFiles = this.getUserFiles(presentFiles);
+			Map<File, User> newUsers = new HashMap<>();
+			Set<File> changedUserFiles = new HashSet<>();
+			for (File userFile : userFiles) {
+				User user = this.restoreUser(checkpoint.get(userFile.getName()), userFile);
+				if (user != null) {
+					newUsers.put(userFile, user);
+				} else {
+					changedUserFiles.add(userFile);
+				}
+			}
+			newUsers.putAll(this.extractInParallel(ingestionPool, changedUserFiles, this::extractUser));
+			this.publishUsers(newUsers);
+			long usersTime = System.currentTimeMillis() - startTime;
+
+			Set<File> messageFiles = this.getMessageFiles(presentFiles);
+			Map<File, Message> newMessages = new HashMap<>();
+			Set<File> changedMessageFiles = new HashSet<>();
+			for (File messageFile : messageFiles) {
+				Message message = this.restoreMessage(checkpoint.get(messageFile.getName()), messageFile);
+				if (message != null) {
+					newMessages.put(messageFile, message);
+				} else {
+					changedMessageFiles.add(messageFile);
+				}
+			}
+			newMessages.putAll(this.extractInParallel(ingestionPool, changedMessageFiles, this::extractMessage));
+			this.publishMessages(newMessages);
+			int segmentMessagesCount = this.publishSegmentMessages(this.getSegmentFiles(presentFiles));
+			long totalTime = System.currentTimeMillis() - startTime;
+
+			int parsedFilesCount = changedUserFiles.size() + changedMessageFiles.size();
+			System.out.println("Chargement initial : " + newUsers.size() + " utilisateurs et "
+					+ (newMessages.size() + segmentMessagesCount) + " messages en " + totalTime + " ms (utilisateurs : "
+					+ usersTime + " ms, messages : " + (totalTime - usersTime) + " ms, parallélisme : "
+					+ mIngestionParallelism + ", fichiers analysés : " + parsedFilesCount + "/"
+					+ (userFiles.size() + messageFiles.size()) + ")");
+
+			// Point de reprise mis à jour si le répertoire a changé depuis le précédent
+			if (parsedFilesCount > 0 || checkpoint.size() != mFileStamps.size()) {
+				this.saveCheckpoint();
+			}
+		} finally {
+			ingestionPool.shutdown();
+		}
+	}
+
+	/**
+	 * Restauration d'un utilisateur depuis le point de reprise.
+	 *
+	 * @param entry    , Entrée du point de reprise (peut être <code>null</code>).
+	 * @param userFile , Fichier de l'utilisateur.
+	 * @return L'utilisateur, <code>null</code> si le fichier doit être extrait
+	 *         (nouveau, modifié ou entrée invalide).
+	 */
+	protected User restoreUser(DirectoryCheckpoint.Entry entry, File userFile) {
+		if (entry == null || !entry.getStamp().matches(userFile)) {
+			return null;
+		}
+
+		try {
+			User user = entry.decodeUser();
+			mFileStamps.put(userFile.getName(), entry.getStamp());
+			return user;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Restauration d'un message depuis le point de reprise (les utilisateurs
+	 * doivent être publiés).
+	 *
+	 * @param entry       , Entrée du point de reprise (peut être
+	 *                    <code>null</code>).
+	 * @param messageFile , Fichier du message.
+	 * @return Le message, <code>null</code> si le fichier doit être extrait
+	 *         (nouveau, modifié ou entrée invalide).
+	 */
+	protected Message restoreMessage(DirectoryCheckpoint.Entry entry, File messageFile) {
+		if (entry == null || !entry.getStamp().matches(messageFile)) {
+			return null;
+		}
+
+		try {
+			Message message = entry.decodeMessage(mUserMap);
+			mFileStamps.put(messageFile.getName(), entry.getStamp());
+			return message;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Enregistrement du point de reprise (utilisateurs et messages lus, avec
+	 * l'empreinte de leur fichier).
+	 */
+	protected void saveCheckpoint() {
+		if (mCheckpoint == null) {
+			return;
+		}
+
+		try {
+			mCheckpoint.save(new HashMap<>(mUserFileMap), new HashMap<>(mMessageFileMap), mFileStamps);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Impossible d'enregistrer le point de reprise : " + e.getMessage());
+		}
 	}
 
 	/**
@@ -81,42 +287,160 @@ public class EntityManager implements IWatchableDirectoryObserver {
 		//
 		// Récupération des fichiers utilisateurs en premier
 		// (nécessaires pour gérer les messages)
-		Set<File> userFiles = this.getUserFiles(newFiles);
-
-		// Parcours de la liste des fichiers utilisateurs
-		for (File userFile : userFiles) {
-
-			// Extraction du nouvel utilisateur
-			User newUser = this.extractUser(userFile);
-
+		Map<File, User> newUsers = new HashMap<>();
+		for (File userFile : this.getUserFiles(newFiles)) {
+			// Extraction du nouvel utilisateur (sans relecture s'il a été écrit ici)
+			User newUser = this.matchUserWrite(userFile);
+			if (newUser == null) {
+				newUser = this.extractUser(userFile);
+			}
 			if (newUser != null) {
-				// Ajout de l'utilisateur
-				this.mUserList.addUser(newUser);
-
-				// Stockage dans les maps
-				mUserMap.put(newUser.getUuid(), newUser);
-				mUserFileMap.put(userFile.getName(), newUser);
+				newUsers.put(userFile, newUser);
 			}
 		}
+		this.publishUsers(newUsers);
 
 		//
 		// Récupération des fichiers de Messages.
-		Set<File> messageFiles = this.getMessageFiles(newFiles);
+		Map<File, Message> newMessages = new HashMap<>();
+		for (File messageFile : this.getMessageFiles(newFiles)) {
+			// Extraction du nouveau message (sans relecture s'il a été écrit ici)
+			Message newMessage = this.matchMessageWrite(messageFile);
+			if (newMessage == null) {
+				newMessage = this.extractMessage(messageFile);
+			}
+			if (newMessage != null) {
+				newMessages.put(messageFile, newMessage);
+			}
+		}
+		this.publishMessages(newMessages);
 
-		// Parcours de la liste des nouveaux messages
-		for (File messageFile : messageFiles) {
+		//
+		// Récupération des messages du journal de segments.
+		this.publishSegmentMessages(this.getSegmentFiles(newFiles));
+	}
 
-			// Extraction du nouveau message
-			Message newMessage = this.extractMessage(messageFile);
+	/**
+	 * Publication des utilisateurs extraits (ajout en lot à la liste et stockage
+	 * dans les maps).
+	 *
+	 * @param newUsers , Utilisateurs extraits, associés à leur fichier.
+	 */
+	protected void publishUsers(Map<File, User> newUsers) {
+		for (Map.Entry<File, User> entry : newUsers.entrySet()) {
+			User newUser = entry.getValue();
 
-			if (newMessage != null) {
-				// Ajout du message
-				this.mMessageList.addMessage(newMessage);
+			// Stockage dans les maps
+			mUserMap.put(newUser.getUuid(), newUser);
+			mUserFileMap.put(entry.getKey().getName(), newUser);
+		}
 
-				// MAJ de la map
-				this.mMessageFileMap.put(messageFile.getName(), newMessage);
+		// Ajout des utilisateurs (une seule notification)
+		if (!newUsers.isEmpty()) {
+			this.mUserList.addUsers(newUsers.values());
+		}
+	}
+
+	/**
+	 * Publication des messages extraits (ajout en lot à la liste et stockage dans
+	 * la map).
+	 *
+	 * @param newMessages , Messages extraits, associés à leur fichier.
+	 */
+	protected void publishMessages(Map<File, Message> newMessages) {
+		for (Map.Entry<File, Message> entry : newMessages.entrySet()) {
+			// MAJ de la map
+			this.mMessageFileMap.put(entry.getKey().getName(), entry.getValue());
+		}
+
+		// Ajout des messages (une seule notification)
+		if (!newMessages.isEmpty()) {
+			this.mMessageList.addMessages(newMessages.values());
+		}
+	}
+
+	/**
+	 * Lecture et publication des messages ajoutés aux segments donnés. <br/>
+	 * <i>Un message déjà connu (segment compacté, migration) n'est publié que
+	 * s'il a été modifié.</i>
+	 *
+	 * @param segmentFiles , Segments du journal des messages.
+	 * @return Le nombre de nouveaux messages.
+	 */
+	protected int publishSegmentMessages(Set<File> segmentFiles) {
+		List<Message> newMessages = new ArrayList<>();
+
+		for (File segmentFile : segmentFiles) {
+			for (MessageRecord record : mSegmentReader.readNewRecords(segmentFile)) {
+				Message message = record.toMessage(mUserMap);
+				Message knownMessage = mSegmentMessageMap.put(message.getUuid(), message);
+
+				if (knownMessage == null) {
+					newMessages.add(message);
+				} else if (knownMessage.getEmissionDate() != message.getEmissionDate()
+						|| !knownMessage.getText().equals(message.getText())) {
+					this.mMessageList.modifiyMessage(message);
+				}
+			}
+		}
+
+		// Ajout des messages (une seule notification)
+		if (!newMessages.isEmpty()) {
+			this.mMessageList.addMessages(newMessages);
+		}
+
+		return newMessages.size();
+	}
+
+	/**
+	 * Extraction parallèle d'une liste de fichiers. <br/>
+	 * <i>Les fichiers sont répartis en paquets traités par le pool donné ; les
+	 * fichiers invalides sont ignorés.</i>
+	 *
+	 * @param pool      , Pool d'exécution des extractions.
+	 * @param files     , Liste des fichiers à extraire.
+	 * @param extractor , Fonction d'extraction d'un fichier.
+	 */
+	protected <T> Map<File, T> extractInParallel(ForkJoinPool pool, Set<File> files, Function<File, T> extractor) {
+		final Map<File, T> extracted = new ConcurrentHashMap<>();
+
+		// Découpage en paquets
+		List<File> allFiles = new ArrayList<>(files);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int start = 0; start < allFiles.size(); start += INGESTION_CHUNK_SIZE) {
+			final List<File> chunk = allFiles.subList(start, Math.min(start + INGESTION_CHUNK_SIZE, allFiles.size()));
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (File file : chunk) {
+						try {
+							T entity = extractor.apply(file);
+							if (entity != null) {
+								extracted.put(file, entity);
+							}
+						} catch (RuntimeException e) {
+							System.err.println("Fichier invalide ignoré : " + file.getName() + " (" + e + ")");
+						}
+					}
+					return null;
+				}
+			});
+		}
+
+		// Exécution et attente de la fin de toutes les extractions
+		try {
+			for (Future<Void> result : pool.invokeAll(tasks)) {
+				result.get();
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.err.println("Chargement des fichiers interrompu.");
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			System.err.println("Erreur lors du chargement des fichiers.");
 		}
+
+		return extracted;
 	}
 
 	/**
@@ -127,41 +451,59 @@ public class EntityManager implements IWatchableDirectoryObserver {
 		//
 		// Récupération des fichiers d'utilisateurs
 		Set<File> userFiles = this.getUserFiles(deletedFiles);
+		List<User> deletedUsers = new ArrayList<>();
 
 		// Parcours de la liste des fichiers utilisateurs supprimés
 		for (File deletedUserFile : userFiles) {
 
 			// Récupération de l'utilisateur correspondant
-			User deletedUser = this.mUserFileMap.get(deletedUserFile.getName());
+			User deletedUser = this.mUserFileMap.remove(deletedUserFile.getName());
+			mFileStamps.remove(deletedUserFile.getName());
+			mUserWrites.forget(deletedUserFile);
 
 			if (deletedUser != null) {
-				// Suppression de l'utilisateur
-				this.mUserList.removeUser(deletedUser);
+				deletedUsers.add(deletedUser);
 
-				// MAJ des maps
+				// MAJ de la map
 				mUserMap.remove(deletedUser.getUuid());
-				mUserFileMap.remove(deletedUserFile.getName());
 			}
 		}
 
+		// Suppression des utilisateurs (une seule notification)
+		if (!deletedUsers.isEmpty()) {
+			this.mUserList.removeUsers(deletedUsers);
+		}
+
 		//
 		// Récupération des fichiers message supprimés
 		Set<File> deletedMessageFiles = this.getMessageFiles(deletedFiles);
+		List<Message> deletedMessages = new ArrayList<>();
 
 		// Parcours de la liste des fichiers message supprimés
 		for (File deletedMessageFile : deletedMessageFiles) {
 
-			// Récupération du message correspondant
-			Message deletedMessage = this.mMessageFileMap.get(deletedMessageFile.getName());
-
-			if (deletedMessage != null) {
-				// Suppression du message
-				this.mMessageList.removeMessage(deletedMessage);
+			// Récupération du message correspondant (et MAJ de la map)
+			Message deletedMessage = this.mMessageFileMap.remove(deletedMessageFile.getName());
+			mFileStamps.remove(deletedMessageFile.getName());
+			mMessageWrites.forget(deletedMessageFile);
 
-				// MAJ de la map
-				mMessageFileMap.remove(deletedMessageFile.getName());
+			// Un message migré vers le journal de segments n'est pas supprimé
+			if (deletedMessage != null && !mSegmentMessageMap.containsKey(deletedMessage.getUuid())) {
+				deletedMessages.add(deletedMessage);
 			}
 		}
+
+		// Suppression des messages (une seule notification)
+		if (!deletedMessages.isEmpty()) {
+			this.mMessageList.removeMessages(deletedMessages);
+		}
+
+		//
+		// Segments supprimés (compaction) : leurs messages sont conservés dans le
+		// segment compacté
+		for (File deletedSegmentFile : this.getSegmentFiles(deletedFiles)) {
+			mSegmentReader.forget(deletedSegmentFile);
+		}
 	}
 
 	/**
@@ -176,12 +518,24 @@ public class EntityManager implements IWatchableDirectoryObserver {
 		Set<File> userFiles = this.getUserFiles(modifiedFiles);
 
 		// Récupération et parcours de la liste des utilisateurs modifiés
-		for (User modifiedUser : this.extractAllUsers(userFiles)) {
-			// Modification de l'utilisateur
-			this.mUserList.modifiyUser(modifiedUser);
+		for (File userFile : userFiles) {
+			// Fichier écrit par l'application : le modèle est déjà à jour
+			User writtenUser = this.matchUserWrite(userFile);
+			if (writtenUser != null) {
+				mUserMap.put(writtenUser.getUuid(), writtenUser);
+				mUserFileMap.put(userFile.getName(), writtenUser);
+				continue;
+			}
+
+			User modifiedUser = this.extractUser(userFile);
+			if (modifiedUser != null) {
+				// Modification de l'utilisateur
+				this.mUserList.modifiyUser(modifiedUser);
 
-			// Stockage dans la map
-			mUserMap.put(modifiedUser.getUuid(), modifiedUser);
+				// Stockage dans les maps (le point de reprise contient la dernière version)
+				mUserMap.put(modifiedUser.getUuid(), modifiedUser);
+				mUserFileMap.put(userFile.getName(), modifiedUser);
+			}
 		}
 
 		//
@@ -189,33 +543,59 @@ public class EntityManager implements IWatchableDirectoryObserver {
 		Set<File> messageFiles = this.getMessageFiles(modifiedFiles);
 
 		// Récupération et parcours de la liste des messages modifiés
-		for (Message modifiedMessage : this.extractAllMessages(messageFiles)) {
-			// Ajout du message
-			this.mMessageList.modifiyMessage(modifiedMessage);
+		for (File messageFile : messageFiles) {
+			// Fichier écrit par l'application : le modèle est déjà à jour
+			Message writtenMessage = this.matchMessageWrite(messageFile);
+			if (writtenMessage != null) {
+				mMessageFileMap.put(messageFile.getName(), writtenMessage);
+				continue;
+			}
+
+			Message modifiedMessage = this.extractMessage(messageFile);
+			if (modifiedMessage != null) {
+				// Modification du message
+				this.mMessageList.modifiyMessage(modifiedMessage);
+				mMessageFileMap.put(messageFile.getName(), modifiedMessage);
+			}
 		}
+
+		//
+		// Récupération des messages ajoutés au journal de segments.
+		this.publishSegmentMessages(this.getSegmentFiles(modifiedFiles));
 	}
 
 	/**
-	 * Extraction de tous les message d'une liste de fichier.
+	 * Recherche de l'écriture par l'application de l'état courant d'un fichier
+	 * utilisateur.
 	 *
-	 * @param allMessageFiles , Liste des fichiers de message.
+	 * @param userFile , Fichier notifié.
+	 * @return L'utilisateur écrit, <code>null</code> si le fichier doit être lu.
 	 */
-	protected Set<Message> extractAllMessages(Set<File> allMessageFiles) {
-		Set<Message> allMessages = new HashSet<>();
+	protected User matchUserWrite(File userFile) {
+		WriteRegistry.Registration<User> registration = mUserWrites.match(userFile);
+		if (registration == null) {
+			return null;
+		}
 
-		// Parcours de tous les fichiers de message
-		for (File messageFile : allMessageFiles) {
-			// Extraction du message pour le fichier courant
-			Message message = this.extractMessage(messageFile);
+		mFileStamps.put(userFile.getName(), registration.getStamp());
+		return registration.getEntity();
+	}
 
-			// Si le message a bien été récupéré
-			if (message != null) {
-				// Sauvegarde de l'objet
-				allMessages.add(message);
-			}
+	/**
+	 * Recherche de l'écriture par l'application de l'état courant d'un fichier
+	 * message.
+	 *
+	 * @param messageFile , Fichier notifié.
+	 * @return Le message écrit, <code>null</code> si le fichier doit être lu.
+	 */
+	protected Message matchMessageWrite(File messageFile) {
+		WriteRegistry.Registration<Message> registration = mMessageWrites.match(messageFile);
+		if (registration == null) {
+			return null;
 		}
 
-		return allMessages;
+		mFileStamps.put(messageFile.getName(), registration.getStamp());
+		return registration.getEntity();
 	}
 
 	/**
@@ -225,30 +605,14 @@ public class EntityManager implements IWatchableDirectoryObserver {
 	 * @param messageFile , Fichier properties du message à ectraire.
 	 */
 	protected Message extractMessage(File messageFile) {
-		return DataFilesManager.readMessage(messageFile, this.mUserMap);
-	}
-
-	/**
-	 * Extraction de tous les utilisateur d'une liste de fichier.
-	 *
-	 * @param allUserFiles , Liste des fichiers d'utilisateur.
-	 */
-	protected Set<User> extractAllUsers(Set<File> allUserFiles) {
-		Set<User> allUsers = new HashSet<>();
-
-		// Parcours de tous les fichiers de l'utilsiateur
-		for (File userFile : allUserFiles) {
-			// Extraction de l'utilisateur pour le fichier courant
-			User user = this.extractUser(userFile);
-
-			// Si l'utilisateur a bien été récupéré
-			if (user != null) {
-				// Sauvegarde de l'objet
-				allUsers.add(user);
-			}
+		// Empreinte relevée avant la lecture : une modification concurrente sera
+		// détectée au prochain démarrage
+		FileStamp stamp = FileStamp.of(messageFile);
+		Message message = DataFilesManager.readMessage(messageFile, this.mUserMap);
+		if (message != null && stamp != null) {
+			mFileStamps.put(messageFile.getName(), stamp);
 		}
-
-		return allUsers;
+		return message;
 	}
 
 	/**
@@ -258,7 +622,14 @@ public class EntityManager implements IWatchableDirectoryObserver {
 	 * @param userFile , Fichier properties de l'utilisateur à ectraire.
 	 */
 	protected User extractUser(File userFile) {
-		return DataFilesManager.readUser(userFile);
+		// Empreinte relevée avant la lecture : une modification concurrente sera
+		// détectée au prochain démarrage
+		FileStamp stamp = FileStamp.of(userFile);
+		User user = DataFilesManager.readUser(userFile);
+		if (user != null && stamp != null) {
+			mFileStamps.put(userFile.getName(), stamp);
+		}
+		return user;
 	}
 
 	/**
@@ -281,6 +652,16 @@ public class EntityManager implements IWatchableDirectoryObserver {
 		return this.getSpecificFiles(allFiles, Constants.MESSAGE_FILE_EXTENSION);
 	}
 
+	/**
+	 * Retourne la liste des segments du journal des messages parmis la liste des
+	 * fichiers donnés.
+	 *
+	 * @param allFiles , Liste complète des fichiers.
+	 */
+	protected Set<File> getSegmentFiles(Set<File> allFiles) {
+		return this.getSpecificFiles(allFiles, Constants.MESSAGE_SEGMENT_FILE_EXTENSION);
+	}
+
 	/**
 	 * Retourne la liste des fichiers ayant une extension particulière parmis la
 	 * liste des fichiers donnés.
@@ -308,38 +689,157 @@ public class EntityManager implements IWatchableDirectoryObserver {
 	 * @param directoryPath
 	 */
 	public void setExchangeDirectory(String directoryPath) {
+		// Point de reprise du répertoire précédent
+		this.saveCheckpoint();
+
 		this.mDirectoryPath = directoryPath;
+		this.mCheckpoint = new DirectoryCheckpoint(directoryPath);
+
+		// Les segments du nouveau répertoire sont lus depuis le début
+		this.mSegmentReader.reset();
+
+		// Stockage par défaut : un fichier par message
+		this.setMessageStorage(new FileMessageStorage(directoryPath, mDataFileFormat, mDirectoryLayout));
 	}
 
 	/**
-	 * Génération du fichier correspondant au message.
+	 * Configure le format d'écriture des fichiers utilisateur et message (la
+	 * lecture accepte les deux formats).
+	 *
+	 * @param dataFileFormat
+	 */
+	public void setDataFileFormat(DataFileFormat dataFileFormat) {
+		this.mDataFileFormat = dataFileFormat;
+
+		// Le stockage par fichier utilise le nouveau format
+		if (mDirectoryPath != null && mMessageStorage instanceof FileMessageStorage) {
+			this.setMessageStorage(new FileMessageStorage(mDirectoryPath, dataFileFormat, mDirectoryLayout));
+		}
+	}
+
+	/**
+	 * Configure l'organisation des fichiers de messages écrits (la lecture
+	 * accepte les deux organisations).
+	 *
+	 * @param directoryLayout
+	 */
+	public void setDirectoryLayout(DirectoryLayout directoryLayout) {
+		this.mDirectoryLayout = directoryLayout;
+
+		// Le stockage par fichier utilise la nouvelle organisation
+		if (mDirectoryPath != null && mMessageStorage instanceof FileMessageStorage) {
+			this.setMessageStorage(new FileMessageStorage(mDirectoryPath, mDataFileFormat, directoryLayout));
+		}
+	}
+
+	/**
+	 * Configure le stockage utilisé pour l'écriture des messages (le stockage
+	 * précédent est fermé).
+	 *
+	 * @param messageStorage
+	 */
+	public void setMessageStorage(IMessageStorage messageStorage) {
+		if (this.mMessageStorage != null) {
+			// Les écritures en attente sont terminées avant la fermeture
+			this.mWriteQueue.flush();
+			this.mMessageStorage.close();
+		}
+		this.mMessageStorage = messageStorage;
+	}
+
+	/**
+	 * Configure la synchronisation sur disque de chaque lot d'écritures.
+	 *
+	 * @param sync
+	 */
+	public void setWriteSync(boolean sync) {
+		this.mWriteQueue.setSync(sync);
+	}
+
+	/**
+	 * Attente de l'écriture des fichiers en attente.
+	 */
+	public void flush() {
+		this.mWriteQueue.flush();
+	}
+
+	/**
+	 * Libération des ressources (écriture des fichiers en attente, fermeture du
+	 * stockage des messages et enregistrement du point de reprise).
+	 */
+	public void close() {
+		this.mWriteQueue.close();
+		if (this.mMessageStorage != null) {
+			this.mMessageStorage.close();
+		}
+		this.saveCheckpoint();
+	}
+
+	/**
+	 * Configure le nombre de threads utilisés pour le chargement initial des
+	 * fichiers.
+	 *
+	 * @param parallelism , nombre de threads (au moins 1).
+	 */
+	public void setIngestionParallelism(int parallelism) {
+		this.mIngestionParallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Enregistrement différé du message (fichier dédié ou journal de segments
+	 * selon le stockage configuré).
 	 *
 	 * @param message
+	 * @return Le résultat de l'écriture (complété par la tâche d'écriture, hors
+	 *         EDT).
 	 */
-	public void writeMessageFile(Message message) {
+	public CompletableFuture<Void> writeMessageFile(Message message) {
 		if (mDirectoryPath != null) {
-			// Récupération du chemin pour le fichier à générer
-			String messageFileName = this.getFileName(message.getUuid(), Constants.MESSAGE_FILE_EXTENSION);
-
-			// Génération du fichier de propriété
-			DataFilesManager.writeMessageFile(message, messageFileName);
+			// Enregistrement selon le mode de stockage configuré
+			IMessageStorage messageStorage = this.mMessageStorage;
+			return mWriteQueue.submit(Constants.MESSAGE_FILE_EXTENSION + ":" + message.getUuid(), () -> {
+				File messageFile = messageStorage.writeMessage(message);
+
+				// Fichier dédié : sa notification ne sera pas relue (un segment est
+				// partagé par plusieurs messages et relu de façon incrémentale)
+				if (messageFile != null && messageFile.getName().endsWith("." + Constants.MESSAGE_FILE_EXTENSION)) {
+					mMessageWrites.register(messageFile, message);
+				}
+				return messageFile;
+			});
 		} else {
 			throw new RuntimeException("Le répertoire d'échange n'est pas configuré !");
 		}
 	}
 
 	/**
-	 * Génération du fichier correspondant à l'utilisateur.
+	 * Génération différée du fichier correspondant à l'utilisateur. <br/>
+	 * <i>Les écritures en attente d'un même utilisateur sont fusionnées.</i>
 	 *
 	 * @param user
+	 * @return Le résultat de l'écriture (complété par la tâche d'écriture, hors
+	 *         EDT).
 	 */
-	public void writeUserFile(User user) {
+	public CompletableFuture<Void> writeUserFile(User user) {
 		if (mDirectoryPath != null) {
 			// Récupération du chemin pour le fichier à générer
 			String userFileName = this.getFileName(user.getUuid(), Constants.USER_FILE_EXTENSION);
-
-			// Génération du fichier de propriété
-			DataFilesManager.writeUserFile(user, userFileName);
+			DataFileFormat dataFileFormat = this.mDataFileFormat;
+
+			// Copie de l'état courant (l'utilisateur peut être modifié avant l'écriture)
+			User snapshot = new User(user.getUuid(), user.getUserTag(), user.getUserPassword(), user.getName(),
+					user.getFollows(), user.getAvatarPath());
+
+			// Génération du fichier dans le format configuré
+			return mWriteQueue.submit(userFileName, () -> {
+				DataFilesManager.saveUserFile(snapshot, userFileName, dataFileFormat);
+
+				// Sa notification ne sera pas relue : la copie écrite (identique au
+				// contenu du fichier) est reprise
+				File userFile = new File(userFileName);
+				mUserWrites.register(userFile, snapshot);
+				return userFile;
+			});
 		} else {
 			throw new RuntimeException("Le répertoire d'échange n'est pas configuré !");
 		}
@@ -1,10 +1,14 @@
 package main.java.com.ubo.tp.message.core.database;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import main.java.com.ubo.tp.message.common.Constants;
 import main.java.com.ubo.tp.message.datamodel.message.Message;
+import main.java.com.ubo.tp.message.datamodel.user.FollowerIndex;
 import main.java.com.ubo.tp.message.datamodel.user.User;
 
 /**
@@ -18,6 +22,16 @@ public class Database implements IDatabase {
 	 */
 	protected final Set<User> mUsers;
 
+	/**
+	 * Map reliant les UUID aux utilisateurs enregistrés.
+	 */
+	protected final Map<UUID, User> mUsersById;
+
+	/**
+	 * Index inverse des abonnements (tag suivi -> abonnés).
+	 */
+	protected final FollowerIndex mFollowerIndex;
+
 	/**
 	 * Liste des Message enregistrés.
 	 */
@@ -33,6 +47,8 @@ public class Database implements IDatabase {
 	 */
 	public Database() {
 		mUsers = new HashSet<>();
+		mUsersById = new HashMap<>();
+		mFollowerIndex = new FollowerIndex();
 		mMessages = new HashSet<>();
 		mObservers = new HashSet<>();
 	}
@@ -86,6 +102,8 @@ public class Database implements IDatabase {
 	public void addUser(User userToAdd) {
 		// Ajout de l'utilisateur
 		this.mUsers.add(userToAdd);
+		this.mUsersById.put(userToAdd.getUuid(), userToAdd);
+		this.mFollowerIndex.index(userToAdd);
 
 		// Notification des observateurs
 		for (IDatabaseObserver observer : mObservers) {
@@ -97,6 +115,8 @@ public class Database implements IDatabase {
 	public void removeUser(User userToRemove) {
 		// Suppression de l'utilisateur
 		this.mUsers.remove(userToRemove);
+		this.mUsersById.remove(userToRemove.getUuid());
+		this.mFollowerIndex.unindex(userToRemove);
 
 		// Notification des observateurs
 		for (IDatabaseObserver observer : mObservers) {
@@ -106,8 +126,11 @@ public class Database implements IDatabase {
 
 	@Override
 	public void modifiyUser(User userToModify) {
-		// Le ré-ajout va écraser l'ancienne copie.
+		// Remplacement de l'ancienne copie (et ré-indexation de ses abonnements)
+		this.mUsers.remove(userToModify);
 		this.mUsers.add(userToModify);
+		this.mUsersById.put(userToModify.getUuid(), userToModify);
+		this.mFollowerIndex.index(userToModify);
 
 		// Notification des observateurs
 		for (IDatabaseObserver observer : mObservers) {
@@ -128,7 +151,7 @@ public class Database implements IDatabase {
 	@Override
 	public void clearUsers() {
 		// Parcours de la liste clonnée des utilisateurs
-		Set<User> clonedUsers = this.mUsers;
+		Set<User> clonedUsers = this.getUsers();
 		for (User user : clonedUsers) {
 			// Suppression de chacun des utlisateurs
 			this.removeUser(user);
@@ -190,11 +213,11 @@ public class Database implements IDatabase {
 	public Set<User> getFollowers(User user) {
 		Set<User> followers = new HashSet<>();
 
-		// Parcours de tous les utilisateurs de la base
-		for (User otherUser : this.getUsers()) {
-			// Si le l'utilisateur courant suit l'utilisateur donné
-			if (otherUser.isFollowing(user)) {
-				followers.add(otherUser);
+		// Résolution des abonnés référencés par l'index inverse
+		for (UUID followerUuid : this.mFollowerIndex.getFollowerUuids(user)) {
+			User follower = this.mUsersById.get(followerUuid);
+			if (follower != null) {
+				followers.add(follower);
 			}
 		}
 
@@ -217,7 +240,7 @@ public class Database implements IDatabase {
 
 	@Override
 	public int getFollowersCount(User user) {
-		return this.getFollowers(user).size();
+		return this.mFollowerIndex.getFollowersCount(user);
 	}
 
 	@Override
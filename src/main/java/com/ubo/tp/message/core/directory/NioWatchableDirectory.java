@@ -0,0 +1,242 @@
+package main.java.com.ubo.tp.message.core.directory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surveillance d'un répertoire basée sur le {@link WatchService} du système.
+ * <br/>
+ * <i>Contrairement à {@link WatchableDirectory}, le répertoire n'est pas
+ * parcouru à intervalle régulier : seuls les fichiers signalés par le noyau
+ * sont examinés. Un parcours complet n'est effectué qu'en cas de perte
+ * d'évènements ({@link StandardWatchEventKinds#OVERFLOW}).</i>
+ *
+ * @author S.Lucas
+ */
+public class NioWatchableDirectory extends WatchableDirectory {
+
+	/**
+	 * Délai (en ms) pendant lequel les évènements successifs sont regroupés dans
+	 * une même notification.
+	 */
+	protected static final int EVENT_BATCH_DELAY = 50;
+
+	/**
+	 * Service de surveillance du système.
+	 */
+	protected WatchService mWatchService;
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param directoryPath , Chemin d'accès au repertoire à surveiller.
+	 */
+	public NioWatchableDirectory(String directoryPath) {
+		super(directoryPath);
+	}
+
+	@Override
+	public void initWatching() {
+		// Chargement du répertoire
+		mDirectory = new File(mDirectoryPath);
+
+		// Si le répertoire est valide
+		if (mDirectory.exists() && mDirectory.isDirectory()) {
+			// Enregistrement avant le listing initial pour ne perdre aucun évènement
+			boolean isRegistered = this.registerWatchService();
+
+			// Initialisation des fichiers présents
+			this.initPresentFiles();
+
+			// Démarrage de la surveillance
+			if (isRegistered) {
+				this.startEventLoop();
+			} else {
+				// Repli sur la scrutation périodique
+				this.startPolling();
+			}
+		} else {
+			System.err.println(
+					"Erreur lors du démarrage de la surveillance du répertoire : " + mDirectory.getAbsolutePath());
+			mDirectory = null;
+		}
+	}
+
+	/**
+	 * Enregistrement du répertoire auprès du service de surveillance du système.
+	 *
+	 * @return <code>true</code> si l'enregistrement a réussi.
+	 */
+	protected boolean registerWatchService() {
+		boolean isRegistered = false;
+
+		try {
+			mWatchService = FileSystems.getDefault().newWatchService();
+			mDirectory.toPath().register(mWatchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+			isRegistered = true;
+		} catch (IOException | UnsupportedOperationException e) {
+			System.err.println("WatchService indisponible, surveillance par scrutation : " + e.getMessage());
+			this.closeWatchService();
+		}
+
+		return isRegistered;
+	}
+
+	/**
+	 * Démarrage du thread de réception des évènements.
+	 */
+	protected void startEventLoop() {
+		mWatchingThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				processEvents();
+			}
+		}, "NioWatchableDirectory");
+		mWatchingThread.setDaemon(true);
+		mWatchingThread.start();
+	}
+
+	/**
+	 * Boucle de réception des évènements du système.
+	 */
+	protected void processEvents() {
+		// Référence locale : le champ est remis à null à l'arrêt
+		WatchService watchService = this.mWatchService;
+
+		try {
+			while (true) {
+				// Attente bloquante du premier évènement
+				WatchKey key = watchService.take();
+
+				Set<String> changedFileNames = new HashSet<>();
+				boolean isOverflow = false;
+				boolean isValid = true;
+
+				// Regroupement des évènements arrivés dans la foulée
+				while (key != null) {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							isOverflow = true;
+						} else {
+							changedFileNames.add(((Path) event.context()).toString());
+						}
+					}
+					isValid &= key.reset();
+					key = watchService.poll(EVENT_BATCH_DELAY, TimeUnit.MILLISECONDS);
+				}
+
+				if (isOverflow) {
+					// Des évènements ont été perdus : parcours complet
+					this.watchDirectory();
+				} else {
+					this.processChangedFiles(changedFileNames);
+				}
+
+				if (!isValid) {
+					System.err.println("Le répertoire surveillé n'est plus accessible : " + mDirectory);
+					break;
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			System.err.println("Surveillance du répertoire interrompue.");
+		}
+	}
+
+	/**
+	 * Traitement des fichiers signalés par le système (avec notification des
+	 * changements aux observeurs).
+	 *
+	 * @param changedFileNames , Noms des fichiers concernés par un évènement.
+	 */
+	protected void processChangedFiles(Set<String> changedFileNames) {
+		if (mDirectory != null) {
+			Set<File> newFiles = new HashSet<>();
+			Set<File> deletedFiles = new HashSet<>();
+			Set<File> modifiedFiles = new HashSet<>();
+
+			// Comparaison de l'état actuel de chaque fichier avec l'état connu
+			for (String fileName : changedFileNames) {
+				// Écriture en cours : seul le renommage final est pris en compte
+				if (this.isIgnored(fileName)) {
+					continue;
+				}
+
+				File file = new File(mDirectory, fileName);
+				boolean wasPresent = this.mPresentFiles.contains(file);
+
+				if (file.exists()) {
+					if (!wasPresent) {
+						newFiles.add(file);
+					} else {
+						Long savedLastModification = mFileModificationMap.get(fileName);
+						if (savedLastModification == null || savedLastModification != file.lastModified()) {
+							modifiedFiles.add(file);
+						}
+					}
+				} else if (wasPresent) {
+					deletedFiles.add(file);
+				}
+			}
+
+			// Mise à jour de la liste des fichiers présents
+			for (File deletedFile : deletedFiles) {
+				this.mPresentFiles.remove(deletedFile);
+				this.mFileModificationMap.remove(deletedFile.getName());
+			}
+			for (File newFile : newFiles) {
+				this.addPresentFile(newFile);
+			}
+			for (File modifiedFile : modifiedFiles) {
+				this.addPresentFile(modifiedFile);
+			}
+
+			// Notification des fichiers supprimés
+			if (!deletedFiles.isEmpty()) {
+				this.notifyDeletedFiles(deletedFiles);
+			}
+
+			// Notification des fichiers ajoutés
+			if (!newFiles.isEmpty()) {
+				this.notifyNewFiles(newFiles);
+			}
+
+			// Notification des fichiers modifiés
+			if (!modifiedFiles.isEmpty()) {
+				this.notifyModifiedFiles(modifiedFiles);
+			}
+		}
+	}
+
+	@Override
+	public void stopWatching() {
+		// La fermeture du service débloque le thread en attente
+		this.closeWatchService();
+
+		super.stopWatching();
+	}
+
+	/**
+	 * Fermeture du service de surveillance du système.
+	 */
+	protected void closeWatchService() {
+		if (this.mWatchService != null) {
+			try {
+				this.mWatchService.close();
+			} catch (IOException e) {
+				System.err.println("Erreur lors de la fermeture du WatchService : " + e.getMessage());
+			}
+			this.mWatchService = null;
+		}
+	}
+}
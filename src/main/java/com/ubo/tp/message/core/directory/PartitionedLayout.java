@@ -0,0 +1,64 @@
+package main.java.com.ubo.tp.message.core.directory;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Chemins de l'organisation partitionnée du répertoire d'échange. <br/>
+ * <ul>
+ * <li>Partition : jour d'émission du message, en UTC
+ * (<code>aaaa/MM/jj</code>).</li>
+ * <li>Sous-répertoire : premier caractère hexadécimal de l'identifiant du
+ * message (16 sous-répertoires au plus par jour).</li>
+ * </ul>
+ *
+ * @author S.Lucas
+ */
+public final class PartitionedLayout {
+
+	/**
+	 * Profondeur des fichiers de messages sous la racine (année, mois, jour puis
+	 * préfixe).
+	 */
+	public static final int MESSAGE_DEPTH = 4;
+
+	/**
+	 * Classe utilitaire.
+	 */
+	private PartitionedLayout() {
+	}
+
+	/**
+	 * Retourne la partition d'un jour.
+	 *
+	 * @param root , Racine du répertoire d'échange.
+	 * @param day  , Jour (UTC).
+	 */
+	public static File getPartitionDirectory(File root, LocalDate day) {
+		File year = new File(root, String.format("%04d", day.getYear()));
+		File month = new File(year, String.format("%02d", day.getMonthValue()));
+		return new File(month, String.format("%02d", day.getDayOfMonth()));
+	}
+
+	/**
+	 * Retourne le répertoire d'un fichier de message.
+	 *
+	 * @param root         , Racine du répertoire d'échange.
+	 * @param emissionDate , Date d'émission du message.
+	 * @param uuid         , Identifiant du message.
+	 */
+	public static File getMessageDirectory(File root, long emissionDate, UUID uuid) {
+		LocalDate day = Instant.ofEpochMilli(emissionDate).atZone(ZoneOffset.UTC).toLocalDate();
+		return new File(getPartitionDirectory(root, day), uuid.toString().substring(0, 1));
+	}
+
+	/**
+	 * Retourne le jour courant (UTC).
+	 */
+	public static LocalDate today() {
+		return LocalDate.now(ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,180 @@
+package main.java.com.ubo.tp.message.core.directory;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Surveillance (par scrutation) d'un répertoire d'échange organisé en
+ * partitions ({@link PartitionedLayout}). <br/>
+ * <ul>
+ * <li>Chaque vérification parcourt la racine et les partitions récentes (veille,
+ * jour courant et lendemain, en UTC) : son coût ne dépend pas de l'historique
+ * des messages.</li>
+ * <li>Les partitions plus anciennes sont parcourues à tour de rôle, quelques-unes
+ * par vérification.</li>
+ * <li>Le répertoire complet n'est parcouru qu'au démarrage et à la demande
+ * ({@link #requestFullScan()}).</li>
+ * </ul>
+ *
+ * @author S.Lucas
+ */
+public class PartitionedWatchableDirectory extends WatchableDirectory {
+
+	/**
+	 * Nombre de partitions anciennes parcourues par vérification.
+	 */
+	protected static final int OLD_PARTITIONS_PER_SCAN = 4;
+
+	/**
+	 * Partitions anciennes restant à parcourir dans le tour en cours.
+	 */
+	protected final Deque<File> mOldPartitions;
+
+	/**
+	 * Indique si un parcours complet a été demandé.
+	 */
+	protected volatile boolean mFullScanRequested;
+
+	/**
+	 * Partitions parcourues par la dernière vérification (<code>null</code> si
+	 * elle a parcouru tout le répertoire).
+	 */
+	protected List<File> mListedPartitions;
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param directoryPath , Chemin d'accès au repertoire à surveiller.
+	 */
+	public PartitionedWatchableDirectory(String directoryPath) {
+		super(directoryPath);
+		this.mOldPartitions = new ArrayDeque<>();
+		this.mFullScanRequested = true;
+	}
+
+	/**
+	 * Demande un parcours complet du répertoire lors de la prochaine vérification
+	 * (messages déposés dans une partition ancienne, par exemple).
+	 */
+	public void requestFullScan() {
+		this.mFullScanRequested = true;
+	}
+
+	@Override
+	public void changeDirectory(String directoryPath) {
+		super.changeDirectory(directoryPath);
+
+		// Chargement complet du nouveau répertoire
+		this.mFullScanRequested = true;
+	}
+
+	@Override
+	protected Set<File> listFiles() {
+		Set<File> files = new HashSet<>();
+
+		if (mFullScanRequested) {
+			mFullScanRequested = false;
+			mListedPartitions = null;
+			mOldPartitions.clear();
+
+			this.collectFiles(mDirectory, 0, files);
+		} else {
+			// Fichiers de la racine (utilisateurs, segments, messages historiques)
+			this.collectFiles(mDirectory, PartitionedLayout.MESSAGE_DEPTH, files);
+
+			// Partitions récentes
+			LocalDate today = PartitionedLayout.today();
+			mListedPartitions = new ArrayList<>();
+			for (LocalDate day = today.minusDays(1); !day.isAfter(today.plusDays(1)); day = day.plusDays(1)) {
+				File partition = PartitionedLayout.getPartitionDirectory(mDirectory, day);
+				mListedPartitions.add(partition);
+				this.collectFiles(partition, PartitionedLayout.MESSAGE_DEPTH - 1, files);
+			}
+
+			// Quelques partitions anciennes (nouveau tour une fois toutes parcourues)
+			if (mOldPartitions.isEmpty()) {
+				this.collectPartitions(mDirectory, 0, mOldPartitions);
+				mOldPartitions.removeAll(mListedPartitions);
+			}
+			for (int i = 0; i < OLD_PARTITIONS_PER_SCAN && !mOldPartitions.isEmpty(); i++) {
+				File partition = mOldPartitions.poll();
+				mListedPartitions.add(partition);
+				this.collectFiles(partition, PartitionedLayout.MESSAGE_DEPTH - 1, files);
+			}
+		}
+
+		return files;
+	}
+
+	@Override
+	protected boolean isListed(File file) {
+		if (mListedPartitions == null || mDirectory.equals(file.getParentFile())) {
+			return true;
+		}
+
+		for (File partition : mListedPartitions) {
+			if (file.getPath().startsWith(partition.getPath() + File.separator)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Ajout des partitions (répertoires des jours) présentes sous un répertoire.
+	 *
+	 * @param directory  , Répertoire à parcourir.
+	 * @param depth      , Profondeur du répertoire sous la racine.
+	 * @param partitions , Partitions trouvées.
+	 */
+	protected void collectPartitions(File directory, int depth, Collection<File> partitions) {
+		File[] subDirectories = directory.listFiles(file -> file.isDirectory() && !this.isIgnored(file.getName()));
+		if (subDirectories == null) {
+			return;
+		}
+
+		for (File subDirectory : subDirectories) {
+			if (depth + 1 == PartitionedLayout.MESSAGE_DEPTH - 1) {
+				partitions.add(subDirectory);
+			} else {
+				this.collectPartitions(subDirectory, depth + 1, partitions);
+			}
+		}
+	}
+
+	/**
+	 * Ajout des fichiers d'un répertoire et de ses sous-répertoires (jusqu'à la
+	 * profondeur des fichiers de messages).
+	 *
+	 * @param directory , Répertoire à parcourir.
+	 * @param depth     , Profondeur du répertoire sous la racine.
+	 * @param files     , Fichiers trouvés.
+	 */
+	protected void collectFiles(File directory, int depth, Set<File> files) {
+		File[] directoryFiles = directory.listFiles();
+		if (directoryFiles == null) {
+			return;
+		}
+
+		for (File file : directoryFiles) {
+			if (this.isIgnored(file.getName())) {
+				continue;
+			}
+
+			if (file.isDirectory()) {
+				if (depth < PartitionedLayout.MESSAGE_DEPTH) {
+					this.collectFiles(file, depth + 1, files);
+				}
+			} else {
+				files.add(file);
+			}
+		}
+	}
+}
@@ -5,6 +5,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import main.java.com.ubo.tp.message.common.AtomicFileWriter;
 
 /**
  * Classe responsable de la surveillance d'un répertoire (avec notification des
@@ -19,6 +26,18 @@ public class WatchableDirectory implements IWatchableDirectory {
 	 */
 	protected static final int POLLING_TIME = 1000;
 
+	/**
+	 * Temps maximal (en ms) entre deux vérification lorsque le répertoire reste
+	 * inactif.
+	 */
+	protected static final int MAX_POLLING_TIME = 8000;
+
+	/**
+	 * Temps maximal (en ms) d'attente de la fin d'une vérification en cours lors
+	 * de l'arrêt de la surveillance.
+	 */
+	protected static final int STOP_TIMEOUT = 1000;
+
 	/**
 	 * Chemin d'accès au repertoire à surveiller.
 	 */
@@ -44,6 +63,17 @@ public class WatchableDirectory implements IWatchableDirectory {
 	 */
 	protected Thread mWatchingThread;
 
+	/**
+	 * Ordonnanceur (mono-thread) des vérifications périodiques du répertoire.
+	 */
+	protected ScheduledExecutorService mPollingScheduler;
+
+	/**
+	 * Temps (en ms) avant la prochaine vérification, augmenté tant que le
+	 * répertoire reste inactif.
+	 */
+	protected long mCurrentPollingTime = POLLING_TIME;
+
 	/**
 	 * Liste des observeurs sur le contenu du répertoire.
 	 */
@@ -109,6 +139,47 @@ public class WatchableDirectory implements IWatchableDirectory {
 		this.mFileModificationMap.put(fileToAdd.getName(), fileToAdd.lastModified());
 	}
 
+	/**
+	 * Liste des fichiers à surveiller (hors écritures en cours). <br/>
+	 * <i>Une sous-classe peut restreindre la liste à une partie du répertoire :
+	 * voir {@link #isListed(File)}.</i>
+	 */
+	protected Set<File> listFiles() {
+		Set<File> files = new HashSet<>();
+
+		File[] directoryFiles = mDirectory.listFiles();
+		if (directoryFiles != null) {
+			for (File file : directoryFiles) {
+				if (!this.isIgnored(file.getName())) {
+					files.add(file);
+				}
+			}
+		}
+
+		return files;
+	}
+
+	/**
+	 * Indique si un fichier connu fait partie de la zone parcourue par le dernier
+	 * appel à {@link #listFiles()} (un fichier hors de cette zone n'est pas
+	 * considéré comme supprimé).
+	 *
+	 * @param file , Fichier connu.
+	 */
+	protected boolean isListed(File file) {
+		return true;
+	}
+
+	/**
+	 * Indique si un fichier est ignoré par la surveillance : fichier temporaire
+	 * d'une écriture en cours (publié par renommage) ou fichier caché.
+	 *
+	 * @param fileName , Nom du fichier.
+	 */
+	protected boolean isIgnored(String fileName) {
+		return AtomicFileWriter.isHiddenOrTemporary(fileName);
+	}
+
 	/**
 	 * Initialisation de la liste des fichiers présents (et notification aux
 	 * intéressés)
@@ -116,7 +187,7 @@ public class WatchableDirectory implements IWatchableDirectory {
 	protected void initPresentFiles() {
 		if (mDirectory != null) {
 			// Parcours de la liste des fichiers présent
-			for (File presentFile : mDirectory.listFiles()) {
+			for (File presentFile : this.listFiles()) {
 				// Ajout du fichier courant
 				this.addPresentFile(presentFile);
 			}
@@ -129,45 +200,85 @@ public class WatchableDirectory implements IWatchableDirectory {
 	}
 
 	/**
-	 * Démarrage de la surveillance du répertoire
+	 * Démarrage de la surveillance du répertoire. <br/>
+	 * <i>Toutes les vérifications sont exécutées par un unique thread, chacune
+	 * étant planifiée après la fin de la précédente.</i>
 	 */
 	protected void startPolling() {
-		mWatchingThread = new Thread(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					// Attente avant la prochaine vérification
-					Thread.sleep(POLLING_TIME);
-
-					// Vérification des changements
-					watchDirectory();
-
-					// Relancement automatique
-					startPolling();
-				} catch (InterruptedException e) {
-					System.err.println("Surveillance du répertoire interrompue.");
+		if (mPollingScheduler == null || mPollingScheduler.isShutdown()) {
+			mPollingScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "WatchableDirectory");
+					thread.setDaemon(true);
+					return thread;
 				}
-			}
-		});
+			});
+		}
+
+		mCurrentPollingTime = POLLING_TIME;
+		this.scheduleNextPolling(mPollingScheduler);
+	}
 
-		mWatchingThread.start();
+	/**
+	 * Planification de la prochaine vérification du répertoire.
+	 *
+	 * @param scheduler , Ordonnanceur de la surveillance en cours.
+	 */
+	protected void scheduleNextPolling(final ScheduledExecutorService scheduler) {
+		try {
+			scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						// Vérification des changements
+						boolean hasChanged = watchDirectory();
+
+						// Ralentissement progressif tant que le répertoire est inactif
+						if (hasChanged) {
+							mCurrentPollingTime = POLLING_TIME;
+						} else {
+							mCurrentPollingTime = Math.min(mCurrentPollingTime * 2, MAX_POLLING_TIME);
+						}
+					} catch (Throwable t) {
+						t.printStackTrace();
+						System.err.println("Erreur lors de la surveillance du répertoire.");
+					}
+
+					// Relancement automatique (sauf si la surveillance a été arrêtée)
+					if (!scheduler.isShutdown()) {
+						scheduleNextPolling(scheduler);
+					}
+				}
+			}, mCurrentPollingTime, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// Surveillance arrêtée entre temps
+		}
 	}
 
 	/**
 	 * Lancement d'une étape de surveillance (avec notification des changements aux
 	 * observeurs).
+	 *
+	 * @return <code>true</code> si des changements ont été détectés.
 	 */
-	protected void watchDirectory() {
+	protected boolean watchDirectory() {
+		boolean hasChanged = false;
+
 		if (mDirectory != null) {
-			Set<File> presentFiles = new HashSet<>();
 			Set<File> newFiles = new HashSet<>();
 			Set<File> deletedFiles = new HashSet<>();
 			Set<File> modifiedFiles = new HashSet<>();
-			Set<File> oldFiles = new HashSet<>(this.mPresentFiles);
 
 			// Récupération de fichiers actuellement présent
-			for (File file : mDirectory.listFiles()) {
-				presentFiles.add(file);
+			Set<File> presentFiles = this.listFiles();
+
+			// Fichiers connus de la zone parcourue
+			Set<File> oldFiles = new HashSet<>();
+			for (File file : this.mPresentFiles) {
+				if (this.isListed(file)) {
+					oldFiles.add(file);
+				}
 			}
 
 			// Récupération des nouveaux fichiers
@@ -221,19 +332,39 @@ public class WatchableDirectory implements IWatchableDirectory {
 				this.notifyModifiedFiles(modifiedFiles);
 			}
 
-			// Mise à jour de la liste des fichiers présents
-			this.mPresentFiles.clear();
-			this.mFileModificationMap.clear();
+			// Mise à jour de la liste des fichiers présents (zone parcourue)
+			for (File oldFile : oldFiles) {
+				this.mPresentFiles.remove(oldFile);
+				this.mFileModificationMap.remove(oldFile.getName());
+			}
 			for (File file : presentFiles) {
 				this.addPresentFile(file);
 			}
+
+			hasChanged = !deletedFiles.isEmpty() || !newFiles.isEmpty() || !modifiedFiles.isEmpty();
 		}
+
+		return hasChanged;
 	}
 
 	@Override
 	public void stopWatching() {
+		if (this.mPollingScheduler != null) {
+			this.mPollingScheduler.shutdownNow();
+
+			// Attente de la fin d'une éventuelle vérification en cours
+			try {
+				if (!this.mPollingScheduler.awaitTermination(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+					System.err.println("La surveillance du répertoire ne s'est pas arrêtée à temps.");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.mPollingScheduler = null;
+		}
 		if (this.mWatchingThread != null) {
 			this.mWatchingThread.interrupt();
+			this.mWatchingThread = null;
 		}
 		this.mPresentFiles.clear();
 	}
@@ -0,0 +1,332 @@
+package main.java.com.ubo.tp.message.core.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import main.java.com.ubo.tp.message.datamodel.message.IMessage;
+import main.java.com.ubo.tp.message.datamodel.message.IMessageListObserver;
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+import main.java.com.ubo.tp.message.datamodel.user.IUser;
+import main.java.com.ubo.tp.message.datamodel.user.IUserListObserver;
+import main.java.com.ubo.tp.message.datamodel.user.User;
+
+/**
+ * Fil d'actualité matérialisé de l'utilisateur connecté (ses messages et ceux
+ * des utilisateurs qu'il suit), trié par ordre chronologique. <br/>
+ * <i>Le fil est construit à la première lecture après une connexion, puis
+ * maintenu au fil des évènements : un nouveau message pertinent est inséré à
+ * sa place, un abonnement (ou désabonnement) fusionne (ou retire) les messages
+ * de l'utilisateur concerné. La déconnexion libère le fil.</i>
+ *
+ * @author S.Lucas
+ */
+public class SessionTimeline implements ISessionObserver, IMessageListObserver, IUserListObserver {
+
+	/**
+	 * Session de l'application.
+	 */
+	protected final ISession mSession;
+
+	/**
+	 * Liste des messages.
+	 */
+	protected final IMessage mMessageList;
+
+	/**
+	 * Liste des utilisateurs.
+	 */
+	protected final IUser mUserList;
+
+	/**
+	 * Messages du fil, par ordre chronologique.
+	 */
+	protected final NavigableSet<Message> mTimeline;
+
+	/**
+	 * Messages du fil, par identifiant.
+	 */
+	protected final Map<UUID, Message> mTimelineById;
+
+	/**
+	 * Utilisateur pour lequel le fil est matérialisé (<code>null</code> si le fil
+	 * n'est pas construit).
+	 */
+	protected User mOwner;
+
+	/**
+	 * Tags suivis par l'utilisateur lors de la dernière mise à jour du fil.
+	 */
+	protected Set<String> mFollowedTags;
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param session     , Session de l'application.
+	 * @param messageList , Liste des messages.
+	 * @param userList    , Liste des utilisateurs.
+	 */
+	public SessionTimeline(ISession session, IMessage messageList, IUser userList) {
+		this.mSession = session;
+		this.mMessageList = messageList;
+		this.mUserList = userList;
+		this.mTimeline = new ConcurrentSkipListSet<>(Message.EMISSION_DATE_COMPARATOR);
+		this.mTimelineById = new ConcurrentHashMap<>();
+		this.mFollowedTags = new HashSet<>();
+
+		this.mSession.addObserver(this);
+		this.mMessageList.addObserver(this);
+		this.mUserList.addObserver(this);
+	}
+
+	/**
+	 * Retourne tous les messages du fil, par ordre chronologique.
+	 */
+	public List<Message> getMessages() {
+		this.ensureMaterialized();
+		return new ArrayList<>(this.mTimeline);
+	}
+
+	/**
+	 * Retourne les derniers messages du fil, par ordre chronologique.
+	 *
+	 * @param count , Nombre maximal de messages.
+	 */
+	public List<Message> getLatest(int count) {
+		return this.getPageBefore(null, count);
+	}
+
+	/**
+	 * Retourne la page de messages du fil précédant le curseur, par ordre
+	 * chronologique.
+	 *
+	 * @param cursor   , Message de référence (<code>null</code> pour partir des
+	 *                 plus récents).
+	 * @param pageSize , Nombre maximal de messages.
+	 */
+	public List<Message> getPageBefore(Message cursor, int pageSize) {
+		this.ensureMaterialized();
+
+		NavigableSet<Message> olderMessages = cursor == null ? this.mTimeline : this.mTimeline.headSet(cursor, false);
+		List<Message> page = new ArrayList<>();
+		Iterator<Message> iterator = olderMessages.descendingIterator();
+		while (page.size() < pageSize && iterator.hasNext()) {
+			page.add(iterator.next());
+		}
+		Collections.reverse(page);
+
+		return page;
+	}
+
+	/**
+	 * Indique si le message fait partie du fil.
+	 *
+	 * @param message , message à vérifier.
+	 */
+	public boolean contains(Message message) {
+		this.ensureMaterialized();
+		return message != null && this.mTimelineById.containsKey(message.getUuid());
+	}
+
+	/**
+	 * Construit le fil si l'utilisateur connecté a changé depuis la dernière
+	 * construction.
+	 */
+	protected synchronized void ensureMaterialized() {
+		User connectedUser = this.mSession.getConnectedUser();
+
+		if (connectedUser == null) {
+			this.drop();
+		} else if (!connectedUser.equals(this.mOwner)) {
+			this.drop();
+			this.mOwner = connectedUser;
+			this.mFollowedTags = this.getFollowedTags(connectedUser);
+
+			// Messages de l'utilisateur et des utilisateurs suivis
+			this.insertAll(this.mMessageList.getUserMessages(connectedUser));
+			for (User followedUser : this.getUsersWithTags(this.mFollowedTags)) {
+				this.insertAll(this.mMessageList.getUserMessages(followedUser));
+			}
+		}
+	}
+
+	/**
+	 * Libère le fil.
+	 */
+	protected synchronized void drop() {
+		this.mOwner = null;
+		this.mFollowedTags = new HashSet<>();
+		this.mTimeline.clear();
+		this.mTimelineById.clear();
+	}
+
+	/**
+	 * Indique si le message concerne le fil matérialisé.
+	 */
+	protected boolean isRelevant(Message message) {
+		User sender = message.getSender();
+		return this.mOwner != null && sender != null
+				&& (sender.equals(this.mOwner) || this.mFollowedTags.contains(sender.getUserTag()));
+	}
+
+	/**
+	 * Insère un message dans le fil (en remplaçant une éventuelle ancienne copie).
+	 */
+	protected void insert(Message message) {
+		this.remove(message);
+		this.mTimelineById.put(message.getUuid(), message);
+		this.mTimeline.add(message);
+	}
+
+	/**
+	 * Insère une liste de messages dans le fil.
+	 */
+	protected void insertAll(Collection<Message> messages) {
+		for (Message message : messages) {
+			this.insert(message);
+		}
+	}
+
+	/**
+	 * Retire un message (identifié par son UUID) du fil.
+	 */
+	protected void remove(Message message) {
+		Message storedMessage = this.mTimelineById.remove(message.getUuid());
+		if (storedMessage != null) {
+			this.mTimeline.remove(storedMessage);
+		}
+	}
+
+	/**
+	 * Retourne la liste des tags suivis par l'utilisateur (sans le tag vide).
+	 */
+	protected Set<String> getFollowedTags(User user) {
+		Set<String> followedTags = user.getFollows();
+		followedTags.remove("");
+		return followedTags;
+	}
+
+	/**
+	 * Retourne les utilisateurs correspondant aux tags donnés.
+	 */
+	protected List<User> getUsersWithTags(Set<String> tags) {
+		List<User> users = new ArrayList<>();
+		if (!tags.isEmpty()) {
+			for (User user : this.mUserList.getUsers()) {
+				if (tags.contains(user.getUserTag())) {
+					users.add(user);
+				}
+			}
+		}
+		return users;
+	}
+
+	@Override
+	public synchronized void notifyMessageAdded(Message addedMessage) {
+		if (this.isRelevant(addedMessage)) {
+			this.insert(addedMessage);
+		}
+	}
+
+	@Override
+	public synchronized void notifyMessagesAdded(Collection<Message> addedMessages) {
+		for (Message addedMessage : addedMessages) {
+			this.notifyMessageAdded(addedMessage);
+		}
+	}
+
+	@Override
+	public synchronized void notifyMessageDeleted(Message deletedMessage) {
+		this.remove(deletedMessage);
+	}
+
+	@Override
+	public synchronized void notifyMessagesDeleted(Collection<Message> deletedMessages) {
+		for (Message deletedMessage : deletedMessages) {
+			this.remove(deletedMessage);
+		}
+	}
+
+	@Override
+	public synchronized void notifyMessageModified(Message modifiedMessage) {
+		this.remove(modifiedMessage);
+		if (this.isRelevant(modifiedMessage)) {
+			this.insert(modifiedMessage);
+		}
+	}
+
+	@Override
+	public void notifyRefreshMessage() {
+		// Le fil est maintenu en continu
+	}
+
+	@Override
+	public synchronized void notifyUserModified(User modifiedUser) {
+		if (modifiedUser.equals(this.mOwner)) {
+			Set<String> oldFollowedTags = this.mFollowedTags;
+			Set<String> newFollowedTags = this.getFollowedTags(modifiedUser);
+			this.mOwner = modifiedUser;
+			this.mFollowedTags = newFollowedTags;
+
+			// Fusion des messages des nouveaux abonnements
+			Set<String> addedTags = new HashSet<>(newFollowedTags);
+			addedTags.removeAll(oldFollowedTags);
+			for (User followedUser : this.getUsersWithTags(addedTags)) {
+				this.insertAll(this.mMessageList.getUserMessages(followedUser));
+			}
+
+			// Retrait des messages des abonnements supprimés
+			Set<String> removedTags = new HashSet<>(oldFollowedTags);
+			removedTags.removeAll(newFollowedTags);
+			for (User unfollowedUser : this.getUsersWithTags(removedTags)) {
+				for (Message message : this.mMessageList.getUserMessages(unfollowedUser)) {
+					this.remove(message);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void notifyUserAdded(User addedUser) {
+		// Les messages de l'utilisateur sont ajoutés au fil à leur arrivée
+	}
+
+	@Override
+	public void notifyUsersAdded(Collection<User> addedUsers) {
+		// Les messages des utilisateurs sont ajoutés au fil à leur arrivée
+	}
+
+	@Override
+	public void notifyUserDeleted(User deletedUser) {
+		// Les messages de l'utilisateur sont retirés du fil à leur suppression
+	}
+
+	@Override
+	public void notifyUsersDeleted(Collection<User> deletedUsers) {
+		// Les messages des utilisateurs sont retirés du fil à leur suppression
+	}
+
+	@Override
+	public void notifyRefreshUser() {
+		// Le fil est maintenu en continu
+	}
+
+	@Override
+	public void notifyLogin(User connectedUser) {
+		// Construction différée à la première lecture
+	}
+
+	@Override
+	public void notifyLogout() {
+		this.drop();
+	}
+}
@@ -0,0 +1,222 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import main.java.com.ubo.tp.message.common.BinaryCodec;
+import main.java.com.ubo.tp.message.common.Constants;
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+import main.java.com.ubo.tp.message.datamodel.user.User;
+
+/**
+ * Point de reprise local du répertoire d'échange. <br/>
+ * Pour chaque fichier utilisateur et message lu, il conserve le nom,
+ * l'empreinte ({@link FileStamp}) et l'entité encodée par le
+ * {@link BinaryCodec}. Au démarrage, seuls les fichiers nouveaux ou modifiés
+ * depuis l'enregistrement du point de reprise sont analysés. <br/>
+ * <ul>
+ * <li>En-tête : signature <code>0x89 'C' 'K' 'P'</code> et version, puis
+ * chemin du répertoire d'échange.</li>
+ * <li>Entrées (utilisateurs d'abord) : nom du fichier, taille, date de
+ * modification, taille de l'entité puis l'entité.</li>
+ * </ul>
+ *
+ * @author S.Lucas
+ */
+public class DirectoryCheckpoint {
+
+	/**
+	 * Signature des points de reprise.
+	 */
+	protected static final byte[] CHECKPOINT_MAGIC = { (byte) 0x89, 'C', 'K', 'P' };
+
+	/**
+	 * Entrée du point de reprise (entité décodée à la demande).
+	 */
+	public static class Entry {
+
+		/**
+		 * Empreinte du fichier lors de sa lecture.
+		 */
+		protected final FileStamp mStamp;
+
+		/**
+		 * Entité encodée.
+		 */
+		protected final ByteBuffer mData;
+
+		/**
+		 * Constructeur.
+		 *
+		 * @param stamp , Empreinte du fichier lors de sa lecture.
+		 * @param data  , Entité encodée.
+		 */
+		public Entry(FileStamp stamp, ByteBuffer data) {
+			this.mStamp = stamp;
+			this.mData = data;
+		}
+
+		public FileStamp getStamp() {
+			return mStamp;
+		}
+
+		/**
+		 * Décodage de l'utilisateur.
+		 *
+		 * @throws IOException si l'entrée est invalide.
+		 */
+		public User decodeUser() throws IOException {
+			return BinaryCodec.decodeUser(mData.duplicate());
+		}
+
+		/**
+		 * Décodage du message.
+		 *
+		 * @param userMap , Utilisateurs connus, par identifiant.
+		 * @throws IOException si l'entrée est invalide.
+		 */
+		public Message decodeMessage(Map<UUID, User> userMap) throws IOException {
+			return BinaryCodec.decodeMessage(mData.duplicate(), userMap);
+		}
+	}
+
+	/**
+	 * Chemin absolu du répertoire d'échange.
+	 */
+	protected final String mDirectoryPath;
+
+	/**
+	 * Fichier du point de reprise.
+	 */
+	protected final File mCheckpointFile;
+
+	/**
+	 * Constructeur (point de reprise dans le répertoire temporaire du système).
+	 *
+	 * @param directoryPath , Chemin d'accès au répertoire d'échange.
+	 */
+	public DirectoryCheckpoint(String directoryPath) {
+		this(directoryPath, new File(Constants.SYSTEM_TMP_DIR,
+				"MessageApp" + Constants.SYSTEM_FILE_SEPARATOR + "checkpoints"));
+	}
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param directoryPath       , Chemin d'accès au répertoire d'échange.
+	 * @param checkpointDirectory , Répertoire des points de reprise.
+	 */
+	public DirectoryCheckpoint(String directoryPath, File checkpointDirectory) {
+		this.mDirectoryPath = new File(directoryPath).getAbsolutePath();
+		this.mCheckpointFile = new File(checkpointDirectory,
+				Integer.toHexString(mDirectoryPath.hashCode()) + ".ckp");
+	}
+
+	/**
+	 * Chargement du point de reprise.
+	 *
+	 * @return Les entrées, par nom de fichier (vide si le point de reprise est
+	 *         absent, invalide ou d'un autre répertoire).
+	 */
+	public Map<String, Entry> load() {
+		Map<String, Entry> entries = new HashMap<>();
+
+		try {
+			// Lecture en mémoire (non projetée : le fichier est remplacé au prochain enregistrement)
+			ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(mCheckpointFile.toPath()));
+			BinaryCodec.readHeader(data, CHECKPOINT_MAGIC);
+
+			// Point de reprise d'un autre répertoire (collision de nom)
+			if (!mDirectoryPath.equals(BinaryCodec.readString(data))) {
+				return entries;
+			}
+
+			long count = BinaryCodec.readVarLong(data);
+			for (long i = 0; i < count; i++) {
+				String name = BinaryCodec.readString(data);
+				FileStamp stamp = new FileStamp(BinaryCodec.readVarLong(data), BinaryCodec.readVarLong(data));
+
+				int length = (int) BinaryCodec.readVarLong(data);
+				if (length < 0 || length > data.remaining()) {
+					throw new IOException("Entrée tronquée : " + name);
+				}
+				ByteBuffer entityData = data.slice();
+				entityData.limit(length);
+				data.position(data.position() + length);
+
+				entries.put(name, new Entry(stamp, entityData));
+			}
+		} catch (NoSuchFileException e) {
+			// Premier lancement sur ce répertoire
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			System.err.println("Point de reprise ignoré : " + e.getMessage());
+			entries.clear();
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Enregistrement du point de reprise (fichier temporaire puis renommage).
+	 *
+	 * @param userFiles    , Utilisateurs, par nom de fichier.
+	 * @param messageFiles , Messages, par nom de fichier.
+	 * @param stamps       , Empreinte des fichiers lors de leur lecture, par nom
+	 *                     de fichier (un fichier sans empreinte est ignoré).
+	 */
+	public void save(Map<String, User> userFiles, Map<String, Message> messageFiles, Map<String, FileStamp> stamps)
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(
+				64 + 128 * (userFiles.size() + messageFiles.size()));
+		BinaryCodec.writeHeader(out, CHECKPOINT_MAGIC);
+		BinaryCodec.writeString(out, mDirectoryPath);
+
+		ByteArrayOutputStream entries = new ByteArrayOutputStream(out.size());
+		int count = 0;
+		for (Map.Entry<String, User> userFile : userFiles.entrySet()) {
+			FileStamp stamp = stamps.get(userFile.getKey());
+			if (stamp != null) {
+				writeEntry(entries, userFile.getKey(), stamp, BinaryCodec.encodeUser(userFile.getValue()));
+				count++;
+			}
+		}
+		for (Map.Entry<String, Message> messageFile : messageFiles.entrySet()) {
+			FileStamp stamp = stamps.get(messageFile.getKey());
+			if (stamp != null) {
+				writeEntry(entries, messageFile.getKey(), stamp,
+						BinaryCodec.encodeMessage(messageFile.getValue()));
+				count++;
+			}
+		}
+		BinaryCodec.writeVarLong(out, count);
+		entries.writeTo(out);
+
+		File checkpointDirectory = mCheckpointFile.getParentFile();
+		if (!checkpointDirectory.isDirectory() && !checkpointDirectory.mkdirs()) {
+			throw new IOException("Impossible de créer le répertoire " + checkpointDirectory);
+		}
+		File tmpFile = new File(checkpointDirectory, mCheckpointFile.getName() + ".tmp");
+		Files.write(tmpFile.toPath(), out.toByteArray());
+		Files.move(tmpFile.toPath(), mCheckpointFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Écriture d'une entrée.
+	 */
+	protected static void writeEntry(ByteArrayOutputStream out, String name, FileStamp stamp, byte[] entity) {
+		BinaryCodec.writeString(out, name);
+		BinaryCodec.writeVarLong(out, stamp.getSize());
+		BinaryCodec.writeVarLong(out, stamp.getLastModified());
+		BinaryCodec.writeVarLong(out, entity.length);
+		out.write(entity, 0, entity.length);
+	}
+}
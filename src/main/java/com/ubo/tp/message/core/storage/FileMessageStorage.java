@@ -0,0 +1,103 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import main.java.com.ubo.tp.message.common.Constants;
+import main.java.com.ubo.tp.message.common.DataFileFormat;
+import main.java.com.ubo.tp.message.common.DataFilesManager;
+import main.java.com.ubo.tp.message.common.DirectoryLayout;
+import main.java.com.ubo.tp.message.core.directory.PartitionedLayout;
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+
+/**
+ * Stockage historique des messages : un fichier (<code>&lt;uuid&gt;.msg</code>)
+ * par message, au format de propriétés ou binaire, à la racine du répertoire
+ * d'échange ou dans sa partition ({@link PartitionedLayout}).
+ *
+ * @author S.Lucas
+ */
+public class FileMessageStorage implements IMessageStorage {
+
+	/**
+	 * Chemin d'accès au répertoire d'échange.
+	 */
+	protected final String mDirectoryPath;
+
+	/**
+	 * Format d'écriture des fichiers.
+	 */
+	protected final DataFileFormat mFormat;
+
+	/**
+	 * Organisation des fichiers.
+	 */
+	protected final DirectoryLayout mLayout;
+
+	/**
+	 * Constructeur (fichiers de propriétés).
+	 *
+	 * @param directoryPath , Chemin d'accès au répertoire d'échange.
+	 */
+	public FileMessageStorage(String directoryPath) {
+		this(directoryPath, DataFileFormat.PROPERTIES);
+	}
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param directoryPath , Chemin d'accès au répertoire d'échange.
+	 * @param format        , Format d'écriture des fichiers.
+	 */
+	public FileMessageStorage(String directoryPath, DataFileFormat format) {
+		this(directoryPath, format, DirectoryLayout.FLAT);
+	}
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param directoryPath , Chemin d'accès au répertoire d'échange.
+	 * @param format        , Format d'écriture des fichiers.
+	 * @param layout        , Organisation des fichiers.
+	 */
+	public FileMessageStorage(String directoryPath, DataFileFormat format, DirectoryLayout layout) {
+		this.mDirectoryPath = directoryPath;
+		this.mFormat = format;
+		this.mLayout = layout;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public File writeMessage(Message message) {
+		String messageDirectoryPath = mDirectoryPath;
+		if (mLayout == DirectoryLayout.PARTITIONED) {
+			messageDirectoryPath = PartitionedLayout
+					.getMessageDirectory(new File(mDirectoryPath), message.getEmissionDate(), message.getUuid())
+					.getPath();
+		}
+
+		String messageFileName = messageDirectoryPath + Constants.SYSTEM_FILE_SEPARATOR + message.getUuid() + "."
+				+ Constants.MESSAGE_FILE_EXTENSION;
+		try {
+			if (mLayout == DirectoryLayout.PARTITIONED) {
+				Files.createDirectories(new File(messageDirectoryPath).toPath());
+			}
+			DataFilesManager.saveMessageFile(message, messageFileName, mFormat);
+		} catch (IOException e) {
+			throw new RuntimeException("Impossible d'enregistrer le message : " + e.getMessage(), e);
+		}
+
+		return new File(messageFileName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() {
+		// Aucune ressource conservée
+	}
+}
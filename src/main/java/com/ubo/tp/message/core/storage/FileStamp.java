@@ -0,0 +1,92 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Empreinte d'un fichier (taille et date de modification), utilisée pour
+ * savoir si un fichier a changé depuis sa dernière lecture.
+ *
+ * @author S.Lucas
+ */
+public class FileStamp {
+
+	/**
+	 * Taille du fichier.
+	 */
+	protected final long mSize;
+
+	/**
+	 * Date de dernière modification du fichier (en ms).
+	 */
+	protected final long mLastModified;
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param size         , Taille du fichier.
+	 * @param lastModified , Date de dernière modification du fichier.
+	 */
+	public FileStamp(long size, long lastModified) {
+		this.mSize = size;
+		this.mLastModified = lastModified;
+	}
+
+	/**
+	 * Empreinte courante d'un fichier (un seul accès aux attributs).
+	 *
+	 * @param file , Fichier.
+	 * @return L'empreinte, <code>null</code> si le fichier est inaccessible.
+	 */
+	public static FileStamp of(File file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Indique si un fichier a toujours cette empreinte.
+	 *
+	 * @param file , Fichier.
+	 */
+	public boolean matches(File file) {
+		return this.equals(of(file));
+	}
+
+	public long getSize() {
+		return mSize;
+	}
+
+	public long getLastModified() {
+		return mLastModified;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof FileStamp)) {
+			return false;
+		}
+
+		FileStamp otherStamp = (FileStamp) other;
+		return mSize == otherStamp.mSize && mLastModified == otherStamp.mLastModified;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Long.hashCode(mSize) * 31 + Long.hashCode(mLastModified);
+	}
+}
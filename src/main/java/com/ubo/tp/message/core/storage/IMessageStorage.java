@@ -0,0 +1,27 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.File;
+
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+
+/**
+ * Interface des moteurs de stockage des messages dans le répertoire d'échange.
+ *
+ * @author S.Lucas
+ */
+public interface IMessageStorage {
+
+	/**
+	 * Enregistrement d'un message.
+	 *
+	 * @param message , Message à enregistrer.
+	 * @return Le fichier modifié (à synchroniser sur disque si nécessaire).
+	 * @throws RuntimeException si le message n'a pas pu être enregistré.
+	 */
+	File writeMessage(Message message);
+
+	/**
+	 * Libération des ressources du stockage (fichiers ouverts, tâches de fond).
+	 */
+	void close();
+}
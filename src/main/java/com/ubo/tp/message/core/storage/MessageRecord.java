@@ -0,0 +1,94 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.util.Map;
+import java.util.UUID;
+
+import main.java.com.ubo.tp.message.common.Constants;
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+import main.java.com.ubo.tp.message.datamodel.user.User;
+
+/**
+ * Enregistrement d'un message dans le journal de segments. <br/>
+ * <i>L'émetteur est conservé par son identifiant : il n'est résolu qu'à la
+ * publication du message, une fois les utilisateurs chargés.</i>
+ *
+ * @author S.Lucas
+ */
+public class MessageRecord {
+
+	/**
+	 * Identifiant du message.
+	 */
+	protected final UUID mUuid;
+
+	/**
+	 * Identifiant de l'émetteur.
+	 */
+	protected final UUID mSenderUuid;
+
+	/**
+	 * Date d'émission.
+	 */
+	protected final long mEmissionDate;
+
+	/**
+	 * Texte du message.
+	 */
+	protected final String mText;
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param uuid         , Identifiant du message.
+	 * @param senderUuid   , Identifiant de l'émetteur.
+	 * @param emissionDate , Date d'émission.
+	 * @param text         , Texte du message.
+	 */
+	public MessageRecord(UUID uuid, UUID senderUuid, long emissionDate, String text) {
+		this.mUuid = uuid;
+		this.mSenderUuid = senderUuid;
+		this.mEmissionDate = emissionDate;
+		this.mText = text;
+	}
+
+	/**
+	 * Création de l'enregistrement d'un message.
+	 *
+	 * @param message , Message à enregistrer.
+	 */
+	public static MessageRecord fromMessage(Message message) {
+		return new MessageRecord(message.getUuid(), message.getSender().getUuid(), message.getEmissionDate(),
+				message.getText());
+	}
+
+	/**
+	 * Reconstruction du message (l'émetteur inconnu est remplacé par
+	 * l'utilisateur inconnu).
+	 *
+	 * @param userMap , Utilisateurs connus, par identifiant.
+	 */
+	public Message toMessage(Map<UUID, User> userMap) {
+		User sender = userMap.get(mSenderUuid);
+		if (sender == null) {
+			sender = userMap.get(Constants.UNKNONWN_USER_UUID);
+		}
+
+		return new Message(mUuid, sender, mEmissionDate, mText);
+	}
+
+	public UUID getUuid() {
+		return mUuid;
+	}
+
+	public UUID getSenderUuid() {
+		return mSenderUuid;
+	}
+
+	public long getEmissionDate() {
+		return mEmissionDate;
+	}
+
+	public String getText() {
+		return mText;
+	}
+}
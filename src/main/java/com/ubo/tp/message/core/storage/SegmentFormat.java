@@ -0,0 +1,360 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import main.java.com.ubo.tp.message.common.BinaryCodec;
+import main.java.com.ubo.tp.message.common.Constants;
+
+/**
+ * Format des fichiers du journal de segments. <br/>
+ * <ul>
+ * <li>Nom d'un segment : <code>&lt;instance&gt;-&lt;séquence&gt;</code>, suivi
+ * d'un suffixe unique pour un segment compacté (qui reprend la séquence du plus
+ * récent segment fusionné).</li>
+ * <li>Segment (<code>.seg</code>) : suite d'enregistrements
+ * <code>[int longueur][int crc32][contenu]</code>, ajoutés en fin de
+ * fichier. Le contenu est le numéro de version du format suivi du corps du
+ * message encodé par le {@link BinaryCodec}.</li>
+ * <li>Index (<code>.idx</code>) : en-tête (signature
+ * <code>0x89 'I' 'D' 'X'</code> et version) puis suite d'entrées
+ * <code>[long uuid (poids fort)][long uuid (poids faible)][long position][int crc32]</code>,
+ * écrit à la fermeture du segment. Un segment possédant un index est scellé :
+ * il ne sera plus modifié que par la compaction. L'index permet de ne lire
+ * que les enregistrements inconnus d'un segment.</li>
+ * </ul>
+ *
+ * @author S.Lucas
+ */
+public final class SegmentFormat {
+
+	/**
+	 * Taille de l'en-tête d'un enregistrement (longueur et crc).
+	 */
+	public static final int RECORD_HEADER_BYTES = 8;
+
+	/**
+	 * Taille maximale du contenu d'un enregistrement (au delà, l'enregistrement
+	 * est considéré comme corrompu).
+	 */
+	public static final int MAX_RECORD_BYTES = 1 << 20;
+
+	/**
+	 * Signature des fichiers d'index.
+	 */
+	protected static final byte[] INDEX_MAGIC = { (byte) 0x89, 'I', 'D', 'X' };
+
+	/**
+	 * Taille d'une entrée d'index.
+	 */
+	public static final int INDEX_ENTRY_BYTES = 28;
+
+	/**
+	 * Ordre des segments, du plus ancien au plus récent (séquence puis nom).
+	 */
+	public static final Comparator<File> SEGMENT_ORDER = Comparator.comparingLong(SegmentFormat::getSequence)
+			.thenComparing(File::getName);
+
+	/**
+	 * Classe utilitaire.
+	 */
+	private SegmentFormat() {
+	}
+
+	/**
+	 * Entrée de l'index d'un segment.
+	 */
+	public static class IndexEntry {
+
+		/**
+		 * Position de l'enregistrement (en-tête compris).
+		 */
+		protected final long mPosition;
+
+		/**
+		 * Somme de contrôle du contenu de l'enregistrement.
+		 */
+		protected final int mCrc;
+
+		/**
+		 * Constructeur.
+		 *
+		 * @param position , Position de l'enregistrement (en-tête compris).
+		 * @param crc      , Somme de contrôle du contenu de l'enregistrement.
+		 */
+		public IndexEntry(long position, int crc) {
+			this.mPosition = position;
+			this.mCrc = crc;
+		}
+
+		public long getPosition() {
+			return mPosition;
+		}
+
+		public int getCrc() {
+			return mCrc;
+		}
+	}
+
+	/**
+	 * Visiteur des enregistrements d'un segment.
+	 */
+	public interface RecordVisitor {
+
+		/**
+		 * Visite d'un enregistrement valide.
+		 *
+		 * @param offset  , Position de l'enregistrement (en-tête compris).
+		 * @param crc     , Somme de contrôle du contenu.
+		 * @param payload , Contenu de l'enregistrement (positionné à son début).
+		 */
+		void visit(long offset, int crc, ByteBuffer payload);
+	}
+
+	/**
+	 * Encodage d'un enregistrement complet (en-tête compris).
+	 *
+	 * @param record , Message à encoder.
+	 */
+	public static ByteBuffer encodeRecord(MessageRecord record) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(RECORD_HEADER_BYTES + 64 + record.getText().length());
+		out.write(new byte[RECORD_HEADER_BYTES], 0, RECORD_HEADER_BYTES);
+		out.write(BinaryCodec.VERSION);
+		BinaryCodec.writeMessageBody(out, record.getUuid(), record.getSenderUuid(), record.getEmissionDate(),
+				record.getText());
+
+		ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+		buffer.position(RECORD_HEADER_BYTES);
+		int crc = crc(buffer.slice());
+		buffer.putInt(0, buffer.capacity() - RECORD_HEADER_BYTES);
+		buffer.putInt(Integer.BYTES, crc);
+		buffer.rewind();
+
+		return buffer;
+	}
+
+	/**
+	 * Décodage du contenu d'un enregistrement.
+	 *
+	 * @param payload , Contenu de l'enregistrement.
+	 * @throws IllegalArgumentException si le contenu est invalide ou d'une
+	 *                                  version non supportée.
+	 */
+	public static MessageRecord decodePayload(ByteBuffer payload) {
+		int version = payload.get() & 0xFF;
+		if (version > BinaryCodec.VERSION) {
+			throw new IllegalArgumentException("Version d'enregistrement non supportée : " + version);
+		}
+
+		return decodeMessageBody(payload);
+	}
+
+	/**
+	 * Lecture de l'identifiant du message d'un enregistrement, sans décoder le
+	 * reste du contenu (la position du contenu n'est pas modifiée).
+	 *
+	 * @param payload , Contenu de l'enregistrement.
+	 * @throws IllegalArgumentException si le contenu est tronqué.
+	 */
+	public static UUID peekUuid(ByteBuffer payload) {
+		int start = payload.position() + 1;
+		if (payload.limit() - start < 2 * Long.BYTES) {
+			throw new IllegalArgumentException("Enregistrement tronqué");
+		}
+
+		return new UUID(payload.getLong(start), payload.getLong(start + Long.BYTES));
+	}
+
+	/**
+	 * Décodage du corps d'un message encodé par le {@link BinaryCodec}.
+	 *
+	 * @param body , Corps du message.
+	 * @throws IllegalArgumentException si le corps est invalide.
+	 */
+	public static MessageRecord decodeMessageBody(ByteBuffer body) {
+		try {
+			UUID uuid = BinaryCodec.readUuid(body);
+			UUID senderUuid = BinaryCodec.readUuid(body);
+			long emissionDate = BinaryCodec.readVarLong(body);
+			String text = BinaryCodec.readString(body);
+
+			return new MessageRecord(uuid, senderUuid, emissionDate, text);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Message tronqué", e);
+		}
+	}
+
+	/**
+	 * Lecture des enregistrements complets d'un tampon, à partir de sa position
+	 * courante. <br/>
+	 * <i>Un enregistrement incomplet en fin de tampon (écriture en cours) arrête
+	 * la lecture sans erreur.</i>
+	 *
+	 * @param data       , Données du segment.
+	 * @param baseOffset , Position dans le segment du début du tampon.
+	 * @param visitor    , Visiteur des enregistrements valides.
+	 * @return La position dans le segment qui suit le dernier enregistrement
+	 *         complet.
+	 * @throws IOException si un enregistrement est corrompu (longueur invalide
+	 *                     ou crc incorrect).
+	 */
+	public static long readRecords(ByteBuffer data, long baseOffset, RecordVisitor visitor) throws IOException {
+		int start = data.position();
+
+		while (data.remaining() >= RECORD_HEADER_BYTES) {
+			int recordStart = data.position();
+			int length = data.getInt(recordStart);
+			int crc = data.getInt(recordStart + Integer.BYTES);
+
+			if (length <= 0 || length > MAX_RECORD_BYTES) {
+				throw new IOException(
+						"Longueur d'enregistrement invalide à la position " + (baseOffset + recordStart - start));
+			}
+			if (data.remaining() < RECORD_HEADER_BYTES + length) {
+				// Enregistrement en cours d'écriture
+				break;
+			}
+
+			ByteBuffer payload = data.duplicate();
+			payload.position(recordStart + RECORD_HEADER_BYTES);
+			payload.limit(recordStart + RECORD_HEADER_BYTES + length);
+			if (crc(payload.slice()) != crc) {
+				throw new IOException("Enregistrement corrompu à la position " + (baseOffset + recordStart - start));
+			}
+
+			visitor.visit(baseOffset + recordStart - start, crc, payload);
+			data.position(recordStart + RECORD_HEADER_BYTES + length);
+		}
+
+		return baseOffset + data.position() - start;
+	}
+
+	/**
+	 * Somme de contrôle d'un contenu.
+	 */
+	public static int crc(ByteBuffer payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Écriture de l'index d'un segment (fichier temporaire puis renommage).
+	 *
+	 * @param segmentFile , Segment indexé.
+	 * @param index       , Entrées des enregistrements, par identifiant de
+	 *                    message (dans l'ordre du segment).
+	 */
+	public static void writeIndex(File segmentFile, Map<UUID, IndexEntry> index) throws IOException {
+		File indexFile = getIndexFile(segmentFile);
+		File tmpFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+			out.write(INDEX_MAGIC);
+			out.write(BinaryCodec.VERSION);
+			for (Map.Entry<UUID, IndexEntry> entry : index.entrySet()) {
+				out.writeLong(entry.getKey().getMostSignificantBits());
+				out.writeLong(entry.getKey().getLeastSignificantBits());
+				out.writeLong(entry.getValue().getPosition());
+				out.writeInt(entry.getValue().getCrc());
+			}
+		}
+		Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Lecture de l'index d'un segment.
+	 *
+	 * @param segmentFile , Segment indexé.
+	 * @return Les entrées des enregistrements, par identifiant de message (dans
+	 *         l'ordre du segment).
+	 * @throws IOException si l'index est absent, invalide ou d'une version non
+	 *                     supportée.
+	 */
+	public static Map<UUID, IndexEntry> readIndex(File segmentFile) throws IOException {
+		ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(getIndexFile(segmentFile).toPath()));
+		BinaryCodec.readHeader(data, INDEX_MAGIC);
+		if (data.remaining() % INDEX_ENTRY_BYTES != 0) {
+			throw new IOException("Index tronqué : " + segmentFile.getName());
+		}
+
+		Map<UUID, IndexEntry> index = new LinkedHashMap<>();
+		while (data.hasRemaining()) {
+			UUID uuid = BinaryCodec.readUuid(data);
+			index.put(uuid, new IndexEntry(data.getLong(), data.getInt()));
+		}
+
+		return index;
+	}
+
+	/**
+	 * Retourne le fichier d'index d'un segment.
+	 *
+	 * @param segmentFile , Segment.
+	 */
+	public static File getIndexFile(File segmentFile) {
+		String name = segmentFile.getName();
+		String baseName = name.substring(0, name.length() - Constants.MESSAGE_SEGMENT_FILE_EXTENSION.length());
+		return new File(segmentFile.getParentFile(), baseName + Constants.MESSAGE_SEGMENT_INDEX_EXTENSION);
+	}
+
+	/**
+	 * Indique si un segment est scellé (index présent).
+	 *
+	 * @param segmentFile , Segment.
+	 */
+	public static boolean isSealed(File segmentFile) {
+		return getIndexFile(segmentFile).isFile();
+	}
+
+	/**
+	 * Retourne le numéro de séquence d'un segment (second élément du nom).
+	 *
+	 * @param segmentFile , Segment.
+	 * @return La séquence, <code>-1</code> si le nom ne la contient pas.
+	 */
+	public static long getSequence(File segmentFile) {
+		String[] parts = segmentFile.getName().split("[-.]");
+		if (parts.length < 3) {
+			return -1;
+		}
+
+		try {
+			return Long.parseLong(parts[1]);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Indique si un fichier est un segment du journal.
+	 *
+	 * @param file , Fichier à tester.
+	 */
+	public static boolean isSegment(File file) {
+		return file.getName().endsWith("." + Constants.MESSAGE_SEGMENT_FILE_EXTENSION);
+	}
+
+	/**
+	 * Liste des segments d'un répertoire.
+	 *
+	 * @param directory , Répertoire d'échange.
+	 */
+	public static File[] listSegments(File directory) {
+		File[] segments = directory.listFiles(file -> file.isFile() && isSegment(file));
+		return segments != null ? segments : new File[0];
+	}
+}
@@ -0,0 +1,447 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import main.java.com.ubo.tp.message.common.AtomicFileWriter;
+import main.java.com.ubo.tp.message.common.BinaryCodec;
+import main.java.com.ubo.tp.message.common.Constants;
+import main.java.com.ubo.tp.message.common.DataFilesManager;
+import main.java.com.ubo.tp.message.common.PropertiesManager;
+import main.java.com.ubo.tp.message.core.directory.PartitionedLayout;
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+
+/**
+ * Stockage des messages dans un journal de segments. <br/>
+ * <i>Les messages sont ajoutés en fin du segment actif, propre à cette instance
+ * de l'application (plusieurs instances peuvent partager le répertoire
+ * d'échange). Au delà d'une taille maximale, le segment est scellé (écriture
+ * de son index) et un nouveau segment est ouvert. Lorsque suffisamment de
+ * petits segments sont scellés (fermeture de l'application, migration), une
+ * compaction en tâche de fond les fusionne, dans l'ordre de leur séquence et
+ * dans la limite de la taille maximale d'un segment (dernier enregistrement
+ * conservé pour chaque message), sous un verrou partagé entre les instances.
+ * Les segments pleins ne sont jamais réécrits.</i>
+ *
+ * @author S.Lucas
+ */
+public class SegmentLogMessageStorage implements IMessageStorage {
+
+	/**
+	 * Taille à partir de laquelle le segment actif est scellé.
+	 */
+	protected static final long MAX_SEGMENT_BYTES = 4L * 1024 * 1024;
+
+	/**
+	 * Nombre de petits segments scellés déclenchant une compaction.
+	 */
+	protected static final int COMPACTION_THRESHOLD = 8;
+
+	/**
+	 * Nom du fichier de verrou de la compaction.
+	 */
+	protected static final String COMPACTION_LOCK_FILE = ".segments.lock";
+
+	/**
+	 * Répertoire d'échange.
+	 */
+	protected final File mDirectory;
+
+	/**
+	 * Identifiant de l'instance (préfixe des segments écrits).
+	 */
+	protected final String mWriterId;
+
+	/**
+	 * Numéro du prochain segment.
+	 */
+	protected int mNextSequence;
+
+	/**
+	 * Segment actif (<code>null</code> tant qu'aucun message n'est écrit).
+	 */
+	protected File mActiveSegment;
+
+	/**
+	 * Canal d'écriture du segment actif.
+	 */
+	protected FileChannel mActiveChannel;
+
+	/**
+	 * Index du segment actif.
+	 */
+	protected final Map<UUID, SegmentFormat.IndexEntry> mActiveIndex;
+
+	/**
+	 * Tâche de fond de compaction.
+	 */
+	protected final ExecutorService mCompactor;
+
+	/**
+	 * Constructeur.
+	 *
+	 * @param directoryPath , Chemin d'accès au répertoire d'échange.
+	 */
+	public SegmentLogMessageStorage(String directoryPath) {
+		this.mDirectory = new File(directoryPath);
+		this.mWriterId = Long.toString(System.currentTimeMillis(), 36)
+				+ Long.toString(UUID.randomUUID().getMostSignificantBits() & 0xFFFFFF, 36);
+		this.mActiveIndex = new LinkedHashMap<>();
+
+		// Les segments de cette instance succèdent à ceux déjà présents
+		for (File segment : SegmentFormat.listSegments(mDirectory)) {
+			this.mNextSequence = (int) Math.max(mNextSequence, SegmentFormat.getSequence(segment) + 1);
+		}
+		this.mCompactor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "SegmentLogCompactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized File writeMessage(Message message) {
+		try {
+			this.append(MessageRecord.fromMessage(message));
+			File segment = mActiveSegment;
+
+			// Le segment plein est scellé et remplacé au prochain message
+			if (mActiveChannel.size() >= MAX_SEGMENT_BYTES) {
+				this.sealActiveSegment();
+			}
+
+			return segment;
+		} catch (IOException e) {
+			throw new RuntimeException("Impossible d'enregistrer le message : " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Ajout d'un enregistrement en fin du segment actif.
+	 *
+	 * @param record , Enregistrement à ajouter.
+	 */
+	protected void append(MessageRecord record) throws IOException {
+		if (mActiveChannel == null) {
+			this.openSegment();
+		}
+
+		// Un seul appel d'écriture par enregistrement : un lecteur ne voit au pire
+		// qu'un enregistrement incomplet, ignoré jusqu'à la fin de l'écriture
+		ByteBuffer buffer = SegmentFormat.encodeRecord(record);
+		long offset = mActiveChannel.size();
+		while (buffer.hasRemaining()) {
+			mActiveChannel.write(buffer);
+		}
+		mActiveIndex.put(record.getUuid(), new SegmentFormat.IndexEntry(offset, buffer.getInt(Integer.BYTES)));
+	}
+
+	/**
+	 * Ouverture d'un nouveau segment actif.
+	 */
+	protected void openSegment() throws IOException {
+		mActiveSegment = this.newSegmentFile();
+		mActiveChannel = FileChannel.open(mActiveSegment.toPath(), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		mActiveIndex.clear();
+	}
+
+	/**
+	 * Scellement du segment actif : synchronisation sur disque, écriture de son
+	 * index et, si nécessaire, programmation d'une compaction.
+	 */
+	protected void sealActiveSegment() throws IOException {
+		if (mActiveChannel == null) {
+			return;
+		}
+
+		try {
+			mActiveChannel.force(true);
+		} finally {
+			mActiveChannel.close();
+			mActiveChannel = null;
+		}
+		SegmentFormat.writeIndex(mActiveSegment, mActiveIndex);
+		mActiveIndex.clear();
+		mActiveSegment = null;
+
+		if (!mCompactor.isShutdown()) {
+			mCompactor.execute(this::compact);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			try {
+				this.sealActiveSegment();
+			} catch (IOException e) {
+				System.err.println("Impossible de sceller le segment " + mActiveSegment + " : " + e.getMessage());
+			}
+
+			mCompactor.shutdown();
+		}
+
+		// Attente hors verrou : la compaction nomme son segment via newCompactedSegmentFile()
+		try {
+			mCompactor.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Compaction des segments scellés du répertoire, si leur nombre atteint le
+	 * seuil et qu'aucune autre instance n'est en train de les compacter.
+	 */
+	protected void compact() {
+		File lockFile = new File(mDirectory, COMPACTION_LOCK_FILE);
+
+		try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE); FileLock lock = lockChannel.tryLock()) {
+			if (lock == null) {
+				// Compaction en cours dans une autre instance
+				return;
+			}
+
+			// Petits segments scellés (les segments pleins ne sont pas réécrits)
+			List<File> smallSegments = new ArrayList<>();
+			for (File segment : SegmentFormat.listSegments(mDirectory)) {
+				if (SegmentFormat.isSealed(segment) && segment.length() < MAX_SEGMENT_BYTES) {
+					smallSegments.add(segment);
+				}
+			}
+			if (smallSegments.size() < COMPACTION_THRESHOLD) {
+				return;
+			}
+
+			// Les plus anciens, dans la limite de la taille d'un segment
+			smallSegments.sort(SegmentFormat.SEGMENT_ORDER);
+			List<File> mergedSegments = new ArrayList<>();
+			long mergedBytes = 0;
+			for (File segment : smallSegments) {
+				if (mergedBytes + segment.length() > MAX_SEGMENT_BYTES) {
+					break;
+				}
+				mergedSegments.add(segment);
+				mergedBytes += segment.length();
+			}
+			if (mergedSegments.size() > 1) {
+				this.compact(mergedSegments);
+			}
+		} catch (OverlappingFileLockException e) {
+			// Compaction en cours dans cette instance (autre répertoire d'échange)
+		} catch (IOException e) {
+			System.err.println("Erreur lors de la compaction du journal des messages : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Fusion de segments scellés en un seul segment (le dernier enregistrement de
+	 * chaque message est conservé). Le segment compacté reprend la séquence du
+	 * plus récent segment fusionné.
+	 *
+	 * @param sealedSegments , Segments à fusionner.
+	 */
+	protected void compact(List<File> sealedSegments) throws IOException {
+		// Du plus ancien au plus récent : un enregistrement plus récent remplace le précédent
+		sealedSegments.sort(SegmentFormat.SEGMENT_ORDER);
+		Map<UUID, ByteBuffer> latestRecords = new LinkedHashMap<>();
+		for (File segment : sealedSegments) {
+			ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(segment.toPath()));
+			try {
+				SegmentFormat.readRecords(data, 0, (offset, crc, payload) -> {
+					// L'enregistrement (en-tête compris) est recopié tel quel
+					ByteBuffer record = data.duplicate();
+					record.limit((int) offset + SegmentFormat.RECORD_HEADER_BYTES + payload.remaining());
+					record.position((int) offset);
+
+					UUID uuid = SegmentFormat.peekUuid(payload);
+					latestRecords.remove(uuid);
+					latestRecords.put(uuid, record.slice());
+				});
+			} catch (IOException | IllegalArgumentException e) {
+				// Les enregistrements lisibles avant la corruption sont conservés
+				System.err.println("Segment " + segment.getName() + " partiellement illisible : " + e.getMessage());
+			}
+		}
+
+		// Écriture du segment compacté (fichier temporaire puis renommage)
+		File compactedSegment = this
+				.newCompactedSegmentFile(SegmentFormat.getSequence(sealedSegments.get(sealedSegments.size() - 1)));
+		File tmpFile = new File(mDirectory, compactedSegment.getName() + ".tmp");
+		Map<UUID, SegmentFormat.IndexEntry> index = new LinkedHashMap<>();
+		try (FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			for (Map.Entry<UUID, ByteBuffer> entry : latestRecords.entrySet()) {
+				ByteBuffer record = entry.getValue();
+				index.put(entry.getKey(), new SegmentFormat.IndexEntry(channel.position(), record.getInt(Integer.BYTES)));
+				while (record.hasRemaining()) {
+					channel.write(record);
+				}
+			}
+			channel.force(true);
+		}
+		SegmentFormat.writeIndex(compactedSegment, index);
+		Files.move(tmpFile.toPath(), compactedSegment.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+		// Suppression des segments fusionnés
+		for (File segment : sealedSegments) {
+			Files.deleteIfExists(segment.toPath());
+			Files.deleteIfExists(SegmentFormat.getIndexFile(segment).toPath());
+		}
+	}
+
+	/**
+	 * Retourne le fichier d'un nouveau segment de cette instance.
+	 */
+	protected synchronized File newSegmentFile() {
+		return new File(mDirectory, mWriterId + "-" + String.format("%06d", mNextSequence++) + "."
+				+ Constants.MESSAGE_SEGMENT_FILE_EXTENSION);
+	}
+
+	/**
+	 * Retourne le fichier d'un segment compacté par cette instance.
+	 *
+	 * @param sequence , Séquence du plus récent segment fusionné.
+	 */
+	protected synchronized File newCompactedSegmentFile(long sequence) {
+		return new File(mDirectory, mWriterId + "-" + String.format("%06d", sequence) + "-c"
+				+ mNextSequence++ + "." + Constants.MESSAGE_SEGMENT_FILE_EXTENSION);
+	}
+
+	/**
+	 * Migration des fichiers de messages (<code>.msg</code>) du répertoire vers
+	 * le journal : les messages sont ajoutés dans un segment scellé, puis les
+	 * fichiers sont supprimés. <br/>
+	 * <i>Les fichiers des partitions ({@link PartitionedLayout}) sont migrés
+	 * avec ceux de la racine.</i>
+	 *
+	 * @return Le nombre de messages migrés.
+	 */
+	public synchronized int migrateMessageFiles() {
+		List<File> messageFiles = new ArrayList<>();
+		collectMessageFiles(mDirectory, 0, messageFiles);
+		if (messageFiles.isEmpty()) {
+			return 0;
+		}
+
+		List<File> migratedFiles = new ArrayList<>();
+		try {
+			// Segment dédié à la migration
+			this.sealActiveSegment();
+
+			messageFiles.sort(Comparator.comparing(File::getName));
+			for (File messageFile : messageFiles) {
+				MessageRecord record = readMessageFile(messageFile);
+				if (record != null) {
+					this.append(record);
+					migratedFiles.add(messageFile);
+				}
+			}
+
+			// Les fichiers ne sont supprimés qu'une fois le segment sur disque
+			this.sealActiveSegment();
+		} catch (IOException e) {
+			System.err.println("Migration des messages interrompue : " + e.getMessage());
+			return 0;
+		}
+
+		for (File messageFile : migratedFiles) {
+			if (!messageFile.delete()) {
+				System.err.println("Impossible de supprimer le fichier migré " + messageFile.getName());
+			}
+		}
+
+		return migratedFiles.size();
+	}
+
+	/**
+	 * Ajout des fichiers de messages d'un répertoire et de ses sous-répertoires
+	 * (jusqu'à la profondeur des partitions).
+	 *
+	 * @param directory    , Répertoire à parcourir.
+	 * @param depth        , Profondeur du répertoire sous la racine.
+	 * @param messageFiles , Fichiers de messages trouvés.
+	 */
+	protected static void collectMessageFiles(File directory, int depth, List<File> messageFiles) {
+		File[] directoryFiles = directory.listFiles();
+		if (directoryFiles == null) {
+			return;
+		}
+
+		for (File file : directoryFiles) {
+			if (AtomicFileWriter.isHiddenOrTemporary(file.getName())) {
+				continue;
+			}
+
+			if (file.isDirectory()) {
+				if (depth < PartitionedLayout.MESSAGE_DEPTH) {
+					collectMessageFiles(file, depth + 1, messageFiles);
+				}
+			} else if (file.getName().endsWith("." + Constants.MESSAGE_FILE_EXTENSION)) {
+				messageFiles.add(file);
+			}
+		}
+	}
+
+	/**
+	 * Lecture d'un fichier de message (binaire ou de propriétés) sans
+	 * résolution de l'émetteur.
+	 *
+	 * @param messageFile , Fichier du message.
+	 * @return L'enregistrement, <code>null</code> si le fichier est invalide.
+	 */
+	protected static MessageRecord readMessageFile(File messageFile) {
+		byte[] content;
+		try {
+			content = Files.readAllBytes(messageFile.toPath());
+		} catch (IOException e) {
+			System.err.println("Fichier de message illisible ignoré : " + messageFile.getName());
+			return null;
+		}
+
+		ByteBuffer data = ByteBuffer.wrap(content);
+		try {
+			if (BinaryCodec.hasMagic(data, BinaryCodec.MESSAGE_MAGIC)) {
+				BinaryCodec.readHeader(data, BinaryCodec.MESSAGE_MAGIC);
+				return SegmentFormat.decodeMessageBody(data);
+			}
+
+			Properties properties = PropertiesManager.loadProperties(content);
+			UUID uuid = UUID.fromString(properties.getProperty(DataFilesManager.PROPERTY_KEY_MESSAGE_UUID));
+			UUID senderUuid = UUID.fromString(properties.getProperty(DataFilesManager.PROPERTY_KEY_MESSAGE_SENDER,
+					Constants.UNKNONWN_USER_UUID.toString()));
+			long emissionDate = Long.parseLong(properties.getProperty(DataFilesManager.PROPERTY_KEY_MESSAGE_DATE, "0"));
+			String text = properties.getProperty(DataFilesManager.PROPERTY_KEY_MESSAGE_TEXT, "NoText");
+
+			return new MessageRecord(uuid, senderUuid, emissionDate, text);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Fichier de message invalide ignoré : " + messageFile.getName());
+			return null;
+		}
+	}
+}
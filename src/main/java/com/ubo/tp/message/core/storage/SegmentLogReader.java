@@ -0,0 +1,168 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import main.java.com.ubo.tp.message.common.DataFilesManager;
+
+/**
+ * Lecture incrémentale des segments du journal des messages. <br/>
+ * <i>La position atteinte dans chaque segment est mémorisée : seuls les
+ * enregistrements ajoutés depuis la lecture précédente sont lus. Un
+ * enregistrement en cours d'écriture est lu à la notification suivante. Un
+ * enregistrement déjà lu (même message, même somme de contrôle), par exemple
+ * recopié par la compaction, n'est pas décodé à nouveau : pour un segment
+ * scellé lu pour la première fois, l'index désigne directement les seuls
+ * enregistrements à lire.</i>
+ *
+ * @author S.Lucas
+ */
+public class SegmentLogReader {
+
+	/**
+	 * Position de lecture atteinte, par chemin de segment.
+	 */
+	protected final Map<String, Long> mOffsets;
+
+	/**
+	 * Somme de contrôle du dernier enregistrement décodé, par identifiant de
+	 * message.
+	 */
+	protected final Map<UUID, Integer> mDecodedChecksums;
+
+	/**
+	 * Constructeur.
+	 */
+	public SegmentLogReader() {
+		this.mOffsets = new ConcurrentHashMap<>();
+		this.mDecodedChecksums = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Lecture des enregistrements ajoutés à un segment depuis la lecture
+	 * précédente.
+	 *
+	 * @param segmentFile , Segment à lire.
+	 */
+	public List<MessageRecord> readNewRecords(File segmentFile) {
+		List<MessageRecord> records = new ArrayList<>();
+		String key = segmentFile.getAbsolutePath();
+		long offset = mOffsets.getOrDefault(key, 0L);
+
+		try (FileChannel channel = FileChannel.open(segmentFile.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size <= offset) {
+				return records;
+			}
+
+			// Segment scellé inconnu : seuls les enregistrements inconnus sont lus
+			if (offset == 0 && SegmentFormat.isSealed(segmentFile)) {
+				try {
+					this.readIndexedRecords(segmentFile, channel, records);
+					mOffsets.put(key, size);
+					return records;
+				} catch (IOException | IllegalArgumentException e) {
+					// Index illisible : lecture complète du segment
+					records.clear();
+				}
+			}
+
+			// Lecture de la fin du segment (projetée en mémoire si elle est volumineuse)
+			ByteBuffer data = DataFilesManager.readBuffer(channel, offset, size - offset);
+
+			try {
+				offset = SegmentFormat.readRecords(data, offset, (recordOffset, crc, payload) -> {
+					// Seul l'identifiant est lu pour un enregistrement déjà décodé
+					UUID uuid = SegmentFormat.peekUuid(payload);
+					Integer decodedCrc = mDecodedChecksums.get(uuid);
+					if (decodedCrc == null || decodedCrc != crc) {
+						records.add(SegmentFormat.decodePayload(payload));
+						mDecodedChecksums.put(uuid, crc);
+					}
+				});
+			} catch (IOException | IllegalArgumentException e) {
+				// Segment corrompu : les enregistrements suivants sont ignorés
+				System.err.println("Segment " + segmentFile.getName() + " corrompu : " + e.getMessage());
+				offset = size;
+			}
+			mOffsets.put(key, offset);
+		} catch (NoSuchFileException e) {
+			// Segment supprimé entre temps (compaction)
+			this.forget(segmentFile);
+		} catch (IOException e) {
+			System.err.println("Impossible de lire le segment " + segmentFile.getName() + " : " + e.getMessage());
+		}
+
+		return records;
+	}
+
+	/**
+	 * Lecture, par l'index d'un segment scellé, des enregistrements qui n'ont pas
+	 * déjà été décodés (même message, même somme de contrôle).
+	 *
+	 * @param segmentFile , Segment scellé.
+	 * @param channel     , Canal ouvert en lecture sur le segment.
+	 * @param records     , Enregistrements lus (complétée).
+	 * @throws IOException si l'index est invalide ou ne correspond pas au
+	 *                     segment.
+	 */
+	protected void readIndexedRecords(File segmentFile, FileChannel channel, List<MessageRecord> records)
+			throws IOException {
+		Map<UUID, Integer> decodedChecksums = new HashMap<>();
+		for (Map.Entry<UUID, SegmentFormat.IndexEntry> entry : SegmentFormat.readIndex(segmentFile).entrySet()) {
+			Integer decodedCrc = mDecodedChecksums.get(entry.getKey());
+			if (decodedCrc != null && decodedCrc == entry.getValue().getCrc()) {
+				continue;
+			}
+
+			// En-tête puis enregistrement complet (somme de contrôle vérifiée)
+			long position = entry.getValue().getPosition();
+			int length = DataFilesManager.readBuffer(channel, position, SegmentFormat.RECORD_HEADER_BYTES).getInt(0);
+			if (length <= 0 || length > SegmentFormat.MAX_RECORD_BYTES) {
+				throw new IOException("Index incohérent : " + segmentFile.getName());
+			}
+			ByteBuffer data = DataFilesManager.readBuffer(channel, position,
+					SegmentFormat.RECORD_HEADER_BYTES + length);
+
+			int recordCount = records.size();
+			SegmentFormat.readRecords(data, position, (recordOffset, crc, payload) -> {
+				decodedChecksums.put(SegmentFormat.peekUuid(payload), crc);
+				records.add(SegmentFormat.decodePayload(payload));
+			});
+			if (records.size() == recordCount) {
+				throw new IOException("Index incohérent : " + segmentFile.getName());
+			}
+		}
+
+		// Sommes de contrôle mémorisées une fois le segment entièrement lu
+		mDecodedChecksums.putAll(decodedChecksums);
+	}
+
+	/**
+	 * Oubli d'un segment supprimé.
+	 *
+	 * @param segmentFile , Segment supprimé.
+	 */
+	public void forget(File segmentFile) {
+		mOffsets.remove(segmentFile.getAbsolutePath());
+	}
+
+	/**
+	 * Oubli de tous les segments et enregistrements lus (changement de
+	 * répertoire d'échange).
+	 */
+	public void reset() {
+		mOffsets.clear();
+		mDecodedChecksums.clear();
+	}
+}
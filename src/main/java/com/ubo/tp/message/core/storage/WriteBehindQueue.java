@@ -0,0 +1,282 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * File d'écriture différée des fichiers du répertoire d'échange. <br/>
+ * <ul>
+ * <li>Les écritures sont acquittées immédiatement : l'appelant (l'EDT) ne
+ * bloque plus sur le disque.</li>
+ * <li>Une tâche de fond écrit les écritures en attente par lots. Chaque lot
+ * est éventuellement synchronisé sur disque en une seule fois.</li>
+ * <li>Les écritures en attente d'une même clé (le fichier d'un utilisateur,
+ * par exemple) sont fusionnées : seule la dernière est écrite.</li>
+ * <li>Le résultat de chaque écriture est transmis par un
+ * {@link CompletableFuture}.</li>
+ * </ul>
+ *
+ * @author S.Lucas
+ */
+public class WriteBehindQueue {
+
+	/**
+	 * Délai de regroupement des écritures d'un lot (en ms).
+	 */
+	protected static final long COMMIT_DELAY = 5;
+
+	/**
+	 * Tâche d'écriture.
+	 */
+	public interface IWriteTask {
+
+		/**
+		 * Écriture.
+		 *
+		 * @return Le fichier écrit (à synchroniser sur disque), <code>null</code>
+		 *         si aucun.
+		 * @throws IOException si l'écriture a échoué.
+		 */
+		File write() throws IOException;
+	}
+
+	/**
+	 * Écriture en attente (dernière tâche soumise pour une clé et appelants à
+	 * notifier).
+	 */
+	protected static class PendingWrite {
+
+		/**
+		 * Dernière tâche soumise.
+		 */
+		protected IWriteTask mTask;
+
+		/**
+		 * Résultats à compléter.
+		 */
+		protected final List<CompletableFuture<Void>> mFutures = new ArrayList<>();
+
+		/**
+		 * Fichier écrit.
+		 */
+		protected File mFile;
+	}
+
+	/**
+	 * Écritures en attente, par clé (dans l'ordre de soumission).
+	 */
+	protected final Map<String, PendingWrite> mPendingWrites;
+
+	/**
+	 * Tâche de fond d'écriture.
+	 */
+	protected final Thread mWriter;
+
+	/**
+	 * Synchronisation sur disque de chaque lot.
+	 */
+	protected volatile boolean mSync;
+
+	/**
+	 * Indique si un lot est en cours d'écriture.
+	 */
+	protected boolean mWriting;
+
+	/**
+	 * Indique si la file est fermée.
+	 */
+	protected volatile boolean mClosed;
+
+	/**
+	 * Constructeur.
+	 */
+	public WriteBehindQueue() {
+		this.mPendingWrites = new LinkedHashMap<>();
+		this.mWriter = new Thread(this::run, "WriteBehindQueue");
+		this.mWriter.setDaemon(true);
+		this.mWriter.start();
+	}
+
+	/**
+	 * Configure la synchronisation sur disque de chaque lot.
+	 *
+	 * @param sync , <code>true</code> pour synchroniser chaque lot.
+	 */
+	public void setSync(boolean sync) {
+		this.mSync = sync;
+	}
+
+	/**
+	 * Soumission d'une écriture. <br/>
+	 * <i>Une écriture en attente pour la même clé est remplacée : les deux
+	 * appelants sont notifiés du résultat de la dernière.</i>
+	 *
+	 * @param key  , Clé de fusion des écritures (fichier cible).
+	 * @param task , Tâche d'écriture.
+	 * @return Le résultat de l'écriture.
+	 * @throws IllegalStateException si la file est fermée.
+	 */
+	public synchronized CompletableFuture<Void> submit(String key, IWriteTask task) {
+		if (mClosed) {
+			throw new IllegalStateException("La file d'écriture est fermée");
+		}
+
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		PendingWrite pendingWrite = mPendingWrites.get(key);
+		if (pendingWrite == null) {
+			pendingWrite = new PendingWrite();
+			mPendingWrites.put(key, pendingWrite);
+		}
+		pendingWrite.mTask = task;
+		pendingWrite.mFutures.add(future);
+
+		this.notifyAll();
+		return future;
+	}
+
+	/**
+	 * Attente de l'écriture de toutes les écritures soumises.
+	 */
+	public synchronized void flush() {
+		boolean interrupted = false;
+		while ((!mPendingWrites.isEmpty() || mWriting) && mWriter.isAlive()) {
+			try {
+				this.wait();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Fermeture de la file (les écritures en attente sont écrites).
+	 */
+	public void close() {
+		synchronized (this) {
+			mClosed = true;
+			this.notifyAll();
+		}
+		this.flush();
+	}
+
+	/**
+	 * Boucle de la tâche de fond : attente puis écriture des lots.
+	 */
+	protected void run() {
+		while (true) {
+			List<PendingWrite> batch;
+			synchronized (this) {
+				while (mPendingWrites.isEmpty() && !mClosed) {
+					try {
+						this.wait();
+					} catch (InterruptedException e) {
+						// Seule la fermeture arrête la tâche
+					}
+				}
+				if (mPendingWrites.isEmpty()) {
+					this.notifyAll();
+					return;
+				}
+				mWriting = true;
+			}
+
+			// Regroupement des écritures soumises dans l'intervalle
+			if (!mClosed) {
+				try {
+					Thread.sleep(COMMIT_DELAY);
+				} catch (InterruptedException e) {
+					// Écriture immédiate
+				}
+			}
+
+			synchronized (this) {
+				batch = new ArrayList<>(mPendingWrites.values());
+				mPendingWrites.clear();
+			}
+
+			this.commit(batch);
+
+			synchronized (this) {
+				mWriting = false;
+				this.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Écriture d'un lot puis, si nécessaire, synchronisation sur disque des
+	 * fichiers écrits (une fois par fichier).
+	 *
+	 * @param batch , Écritures du lot.
+	 */
+	protected void commit(List<PendingWrite> batch) {
+		List<PendingWrite> writtenBatch = new ArrayList<>();
+		for (PendingWrite pendingWrite : batch) {
+			try {
+				pendingWrite.mFile = pendingWrite.mTask.write();
+				writtenBatch.add(pendingWrite);
+			} catch (IOException | RuntimeException e) {
+				fail(pendingWrite, e);
+			}
+		}
+
+		Map<File, IOException> syncErrors = new LinkedHashMap<>();
+		if (mSync) {
+			for (PendingWrite pendingWrite : writtenBatch) {
+				File file = pendingWrite.mFile;
+				if (file != null && !syncErrors.containsKey(file)) {
+					syncErrors.put(file, sync(file));
+				}
+			}
+		}
+
+		for (PendingWrite pendingWrite : writtenBatch) {
+			IOException syncError = pendingWrite.mFile != null ? syncErrors.get(pendingWrite.mFile) : null;
+			if (syncError != null) {
+				fail(pendingWrite, syncError);
+			} else {
+				for (CompletableFuture<Void> future : pendingWrite.mFutures) {
+					future.complete(null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Synchronisation d'un fichier sur disque.
+	 *
+	 * @param file , Fichier écrit.
+	 * @return L'erreur rencontrée, <code>null</code> si aucune.
+	 */
+	protected static IOException sync(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			channel.force(true);
+			return null;
+		} catch (NoSuchFileException e) {
+			// Fichier remplacé entre temps (compaction d'un segment)
+			return null;
+		} catch (IOException e) {
+			return e;
+		}
+	}
+
+	/**
+	 * Notification de l'échec d'une écriture.
+	 */
+	protected static void fail(PendingWrite pendingWrite, Exception error) {
+		for (CompletableFuture<Void> future : pendingWrite.mFutures) {
+			future.completeExceptionally(error);
+		}
+	}
+}
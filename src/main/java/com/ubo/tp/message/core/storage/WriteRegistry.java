@@ -0,0 +1,115 @@
+package main.java.com.ubo.tp.message.core.storage;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des fichiers écrits par l'application. <br/>
+ * <i>Chaque écriture est associée à l'empreinte du fichier écrit et à l'entité
+ * correspondante : tant que le fichier garde cette empreinte, sa notification
+ * par la surveillance du répertoire provient de cette écriture et n'a pas à
+ * être relue.</i>
+ *
+ * @param <T> Type des entités écrites.
+ *
+ * @author S.Lucas
+ */
+public class WriteRegistry<T> {
+
+	/**
+	 * Écriture enregistrée.
+	 *
+	 * @param <T> Type de l'entité écrite.
+	 */
+	public static class Registration<T> {
+
+		/**
+		 * Empreinte du fichier après l'écriture.
+		 */
+		protected final FileStamp mStamp;
+
+		/**
+		 * Entité écrite.
+		 */
+		protected final T mEntity;
+
+		/**
+		 * Constructeur.
+		 *
+		 * @param stamp  , Empreinte du fichier après l'écriture.
+		 * @param entity , Entité écrite.
+		 */
+		public Registration(FileStamp stamp, T entity) {
+			this.mStamp = stamp;
+			this.mEntity = entity;
+		}
+
+		public FileStamp getStamp() {
+			return mStamp;
+		}
+
+		public T getEntity() {
+			return mEntity;
+		}
+	}
+
+	/**
+	 * Écritures enregistrées, par nom de fichier.
+	 */
+	protected final Map<String, Registration<T>> mRegistrations;
+
+	/**
+	 * Constructeur.
+	 */
+	public WriteRegistry() {
+		this.mRegistrations = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Enregistrement d'une écriture terminée.
+	 *
+	 * @param file   , Fichier écrit.
+	 * @param entity , Entité écrite.
+	 */
+	public void register(File file, T entity) {
+		FileStamp stamp = FileStamp.of(file);
+		if (stamp != null) {
+			mRegistrations.put(file.getName(), new Registration<>(stamp, entity));
+		}
+	}
+
+	/**
+	 * Recherche de l'écriture à l'origine de l'état courant d'un fichier. <br/>
+	 * <i>L'enregistrement est conservé tant que le fichier n'a pas changé (une
+	 * écriture peut être notifiée plusieurs fois : création puis
+	 * modification).</i>
+	 *
+	 * @param file , Fichier notifié.
+	 * @return L'écriture, <code>null</code> si le fichier a été écrit par un
+	 *         autre processus (ou modifié depuis).
+	 */
+	public Registration<T> match(File file) {
+		Registration<T> registration = mRegistrations.get(file.getName());
+		if (registration == null) {
+			return null;
+		}
+
+		if (!registration.getStamp().matches(file)) {
+			// Fichier réécrit par ailleurs : l'enregistrement n'est plus valable
+			mRegistrations.remove(file.getName(), registration);
+			return null;
+		}
+
+		return registration;
+	}
+
+	/**
+	 * Oubli d'un fichier supprimé.
+	 *
+	 * @param file , Fichier supprimé.
+	 */
+	public void forget(File file) {
+		mRegistrations.remove(file.getName());
+	}
+}
@@ -2,6 +2,7 @@ package main.java.com.ubo.tp.message.datamodel.message;
 
 import main.java.com.ubo.tp.message.datamodel.user.User;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -27,14 +28,85 @@ public interface IMessage {
     void addMessage(Message message);
 
     void removeMessage(Message message);
+
+    /**
+     * Ajoute un lot de messages (une seule notification des observateurs).
+     *
+     * @param messages Les messages à ajouter
+     */
+    void addMessages(Collection<Message> messages);
+
+    /**
+     * Supprime un lot de messages (une seule notification des observateurs).
+     *
+     * @param messages Les messages à supprimer
+     */
+    void removeMessages(Collection<Message> messages);
+
     void refreshMessage();
 
+    /**
+     * Retourne tous les messages, par ordre chronologique.
+     */
+    List<Message> getMessages();
+
+    /**
+     * Retourne les messages émis entre deux dates (incluses), par ordre
+     * chronologique.
+     *
+     * @param from Date de début
+     * @param to Date de fin
+     */
+    List<Message> getMessagesBetween(long from, long to);
+
+    /**
+     * Retourne les derniers messages émis, par ordre chronologique.
+     *
+     * @param count Nombre maximal de messages
+     */
+    List<Message> getLatest(int count);
+
+    /**
+     * Retourne la page de messages précédant immédiatement le curseur, par ordre
+     * chronologique (le premier élément sert de curseur pour la page suivante).
+     *
+     * @param cursor Message de référence (null pour partir des plus récents)
+     * @param pageSize Nombre maximal de messages
+     */
+    List<Message> getPageBefore(Message cursor, int pageSize);
+
     List<Message> getUserMessages(User user);
 
     List<Message> getMessagesWithUserTag(String userTag);
 
     List<Message> getMessagesWithTag(String tag);
 
+    /**
+     * Retourne les derniers messages émis par un utilisateur, par ordre
+     * chronologique.
+     *
+     * @param user Utilisateur émetteur
+     * @param count Nombre maximal de messages
+     */
+    List<Message> getLatestUserMessages(User user, int count);
+
+    /**
+     * Retourne les derniers messages contenant un tag, par ordre chronologique.
+     *
+     * @param tag Tag recherché
+     * @param count Nombre maximal de messages
+     */
+    List<Message> getLatestMessagesWithTag(String tag, int count);
+
+    /**
+     * Retourne les derniers messages mentionnant un utilisateur, par ordre
+     * chronologique.
+     *
+     * @param userTag Tag de l'utilisateur mentionné
+     * @param count Nombre maximal de messages
+     */
+    List<Message> getLatestMessagesWithUserTag(String userTag, int count);
+
     void modifiyMessage(Message messageToModify);
 
 
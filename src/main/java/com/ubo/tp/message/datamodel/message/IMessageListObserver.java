@@ -1,5 +1,7 @@
 package main.java.com.ubo.tp.message.datamodel.message;
 
+import java.util.Collection;
+
 /**
  * Interface permettant de placer des messages observer dans les listes
  */
@@ -18,6 +20,20 @@ public interface IMessageListObserver {
      */
     void notifyMessageDeleted(Message deletedMessage);
 
+    /**
+     * Notification lorsqu'un lot de Messages est ajouté.
+     *
+     * @param addedMessages Les messages ajoutés
+     */
+    void notifyMessagesAdded(Collection<Message> addedMessages);
+
+    /**
+     * Notification lorsqu'un lot de Messages est supprimé.
+     *
+     * @param deletedMessages Les messages supprimés
+     */
+    void notifyMessagesDeleted(Collection<Message> deletedMessages);
+
     void notifyRefreshMessage();
 
     /**
@@ -1,5 +1,6 @@
 package main.java.com.ubo.tp.message.datamodel.message;
 
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -13,6 +14,13 @@ import main.java.com.ubo.tp.message.datamodel.user.User;
  * @author S.Lucas
  */
 public class Message {
+	/**
+	 * Ordre chronologique des messages (date d'émission, puis identifiant pour
+	 * départager les messages émis à la même date).
+	 */
+	public static final Comparator<Message> EMISSION_DATE_COMPARATOR = Comparator
+			.comparingLong(Message::getEmissionDate).thenComparing(Message::getUuid);
+
 	/**
 	 * Identifiant unique du message.
 	 */
@@ -177,7 +185,8 @@ public class Message {
 	 * @param aTag , tag à rechercher.
 	 */
 	public boolean containsTag(String aTag) {
-		return this.getTags().contains(aTag);
+		// Pas de clonage : simple consultation
+		return this.mTags.contains(aTag);
 	}
 
 	/**
@@ -186,7 +195,8 @@ public class Message {
 	 * @param anUserTag , tag utilisateur à rechercher.
 	 */
 	public boolean containsUserTag(String anUserTag) {
-		return this.getUserTags().contains(anUserTag);
+		// Pas de clonage : simple consultation
+		return this.mUserTags.contains(anUserTag);
 	}
 
 	/**
@@ -1,9 +1,16 @@
 package main.java.com.ubo.tp.message.datamodel.message;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import main.java.com.ubo.tp.message.core.database.IDatabaseObserver;
@@ -22,9 +29,31 @@ public class MessageList implements IMessage {
     protected List<IMessageListObserver> mObservers = new CopyOnWriteArrayList<>();
 
     /**
-     * Liste des messages.
+     * Liste des messages, indexés par identifiant.
      */
-    protected Set<Message> messages = new HashSet<>();
+    protected final Map<UUID, Message> messages = new ConcurrentHashMap<>();
+
+    /**
+     * Messages triés par ordre chronologique (liste à enjambements, parcourable
+     * pendant les modifications).
+     */
+    protected final NavigableSet<Message> mMessagesByDate = new ConcurrentSkipListSet<>(Message.EMISSION_DATE_COMPARATOR);
+
+    /**
+     * Index des messages par identifiant de l'émetteur.
+     * Chaque entrée est triée par ordre chronologique, comme les deux index suivants.
+     */
+    protected final Map<UUID, NavigableSet<Message>> mMessagesBySender = new ConcurrentHashMap<>();
+
+    /**
+     * Index des messages par mot-clé (#tag).
+     */
+    protected final Map<String, NavigableSet<Message>> mMessagesByTag = new ConcurrentHashMap<>();
+
+    /**
+     * Index des messages par utilisateur cité (@tag).
+     */
+    protected final Map<String, NavigableSet<Message>> mMessagesByUserTag = new ConcurrentHashMap<>();
 
     /**
      * Ajoute un message à la liste et notifie les observateurs
@@ -32,8 +61,7 @@ public class MessageList implements IMessage {
      * @param message Le message à ajouter
      */
     public void addMessage(Message message) {
-        if (message != null && !messages.contains(message)) {
-            messages.add(message);
+        if (message != null && this.store(message)) {
             // Notification des observateurs
             for (IMessageListObserver observer : mObservers) {
                 observer.notifyMessageAdded(message);
@@ -41,10 +69,47 @@ public class MessageList implements IMessage {
         }
     }
 
+    @Override
+    public void addMessages(Collection<Message> messagesToAdd) {
+        List<Message> addedMessages = new ArrayList<>();
+        for (Message message : messagesToAdd) {
+            if (message != null && this.store(message)) {
+                addedMessages.add(message);
+            }
+        }
+
+        // Notification unique des observateurs pour tout le lot
+        if (!addedMessages.isEmpty()) {
+            for (IMessageListObserver observer : mObservers) {
+                observer.notifyMessagesAdded(addedMessages);
+            }
+        }
+    }
+
+    @Override
+    public void removeMessages(Collection<Message> messagesToRemove) {
+        List<Message> removedMessages = new ArrayList<>();
+        for (Message message : messagesToRemove) {
+            if (message != null && this.unstore(message) != null) {
+                removedMessages.add(message);
+            }
+        }
+
+        // Notification unique des observateurs pour tout le lot
+        if (!removedMessages.isEmpty()) {
+            for (IMessageListObserver observer : mObservers) {
+                observer.notifyMessagesDeleted(removedMessages);
+            }
+        }
+    }
+
     @Override
     public void modifiyMessage(Message messageToModify) {
-        // Le ré-ajout va écraser l'ancienne copie.
-        this.messages.add(messageToModify);
+        // Remplacement de l'ancienne copie (et de ses entrées d'index)
+        synchronized (this) {
+            this.unstore(messageToModify);
+            this.store(messageToModify);
+        }
 
         // Notification des observateurs
         for (IMessageListObserver observer : mObservers) {
@@ -65,8 +130,7 @@ public class MessageList implements IMessage {
      * @param message Le message à supprimer
      */
     public void removeMessage(Message message) {
-        if (message != null && messages.contains(message)) {
-            messages.remove(message);
+        if (message != null && this.unstore(message) != null) {
             // Notification des observateurs
             for (IMessageListObserver observer : mObservers) {
                 observer.notifyMessageDeleted(message);
@@ -75,22 +139,134 @@ public class MessageList implements IMessage {
     }
 
     /**
-     * Retourne une copie de la liste des messages
+     * Enregistre un message et l'ajoute aux index.
+     *
+     * @param message Le message à enregistrer
+     * @return true si le message n'était pas encore présent
+     */
+    protected synchronized boolean store(Message message) {
+        if (messages.putIfAbsent(message.getUuid(), message) != null) {
+            return false;
+        }
+
+        mMessagesByDate.add(message);
+        index(mMessagesBySender, message.getSender().getUuid(), message);
+        for (String tag : message.getTags()) {
+            index(mMessagesByTag, tag, message);
+        }
+        for (String userTag : message.getUserTags()) {
+            index(mMessagesByUserTag, userTag, message);
+        }
+
+        return true;
+    }
+
+    /**
+     * Retire un message (identifié par son UUID) et ses entrées d'index.
+     *
+     * @param message Le message à retirer
+     * @return la copie enregistrée qui a été retirée, null si absente
+     */
+    protected synchronized Message unstore(Message message) {
+        Message storedMessage = messages.remove(message.getUuid());
+
+        if (storedMessage != null) {
+            mMessagesByDate.remove(storedMessage);
+            unindex(mMessagesBySender, storedMessage.getSender().getUuid(), storedMessage);
+            for (String tag : storedMessage.getTags()) {
+                unindex(mMessagesByTag, tag, storedMessage);
+            }
+            for (String userTag : storedMessage.getUserTags()) {
+                unindex(mMessagesByUserTag, userTag, storedMessage);
+            }
+        }
+
+        return storedMessage;
+    }
+
+    /**
+     * Ajoute un message dans l'entrée d'index correspondant à la clé.
+     */
+    protected static <K> void index(Map<K, NavigableSet<Message>> index, K key, Message message) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(Message.EMISSION_DATE_COMPARATOR)).add(message);
+    }
+
+    /**
+     * Retire un message de l'entrée d'index correspondant à la clé (l'entrée est
+     * supprimée lorsqu'elle devient vide).
+     */
+    protected static <K> void unindex(Map<K, NavigableSet<Message>> index, K key, Message message) {
+        Set<Message> indexedMessages = index.get(key);
+        if (indexedMessages != null) {
+            indexedMessages.remove(message);
+            if (indexedMessages.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Retourne une copie de la liste des messages (par ordre chronologique)
      *
      * @return Une copie de la liste des messages
      */
+    @Override
     public List<Message> getMessages() {
-        return new ArrayList<>(messages);
+        return new ArrayList<>(mMessagesByDate);
+    }
+
+    @Override
+    public List<Message> getMessagesBetween(long from, long to) {
+        if (from > to) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(mMessagesByDate.subSet(bound(from, true), true, bound(to, false), true));
+    }
+
+    @Override
+    public List<Message> getLatest(int count) {
+        return lastOf(mMessagesByDate, count);
+    }
+
+    @Override
+    public List<Message> getPageBefore(Message cursor, int pageSize) {
+        NavigableSet<Message> olderMessages = cursor == null ? mMessagesByDate : mMessagesByDate.headSet(cursor, false);
+        return lastOf(olderMessages, pageSize);
+    }
+
+    /**
+     * Retourne les derniers messages d'un ensemble trié, par ordre chronologique.
+     *
+     * @param sortedMessages Ensemble trié par ordre chronologique
+     * @param count Nombre maximal de messages
+     */
+    protected static List<Message> lastOf(NavigableSet<Message> sortedMessages, int count) {
+        List<Message> lastMessages = new ArrayList<>();
+        Iterator<Message> iterator = sortedMessages.descendingIterator();
+        while (lastMessages.size() < count && iterator.hasNext()) {
+            lastMessages.add(iterator.next());
+        }
+        Collections.reverse(lastMessages);
+        return lastMessages;
+    }
+
+    /**
+     * Construit une borne de recherche pour une date donnée (placée avant ou
+     * après tous les messages émis à cette date).
+     *
+     * @param emissionDate Date de la borne
+     * @param isLower true pour une borne inférieure
+     */
+    protected static Message bound(long emissionDate, boolean isLower) {
+        UUID boundUuid = isLower ? new UUID(Long.MIN_VALUE, Long.MIN_VALUE) : new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+        return new Message(boundUuid, null, emissionDate, "");
     }
 
     /**
      * Vide la liste de messages
      */
     public void clear() {
-        List<Message> messagesToRemove = new ArrayList<>(messages);
-        for (Message message : messagesToRemove) {
-            removeMessage(message);
-        }
+        removeMessages(new ArrayList<>(mMessagesByDate));
     }
 
     /**
@@ -119,18 +295,13 @@ public class MessageList implements IMessage {
      * Retourne les messages d'un utilisateur spécifique
      *
      * @param user L'utilisateur dont on veut les messages
-     * @return La liste des messages de l'utilisateur
+     * @return La liste des messages de l'utilisateur (par ordre chronologique)
      */
     public List<Message> getUserMessages(User user) {
-        List<Message> userMessages = new ArrayList<>();
-        if (user != null) {
-            for (Message message : messages) {
-                if (message.getSender().equals(user)) {
-                    userMessages.add(message);
-                }
-            }
+        if (user == null) {
+            return new ArrayList<>();
         }
-        return userMessages;
+        return new ArrayList<>(mMessagesBySender.getOrDefault(user.getUuid(), Collections.emptyNavigableSet()));
     }
 
 
@@ -138,36 +309,50 @@ public class MessageList implements IMessage {
      * Recherche les messages contenant un tag spécifique
      *
      * @param tag Le tag à rechercher
-     * @return La liste des messages contenant ce tag
+     * @return La liste des messages contenant ce tag (par ordre chronologique)
      */
     public List<Message> getMessagesWithTag(String tag) {
-        List<Message> taggedMessages = new ArrayList<>();
-        if (tag != null && !tag.isEmpty()) {
-            for (Message message : messages) {
-                if (message.containsTag(tag)) {
-                    taggedMessages.add(message);
-                }
-            }
+        if (tag == null || tag.isEmpty()) {
+            return new ArrayList<>();
         }
-        return taggedMessages;
+        return new ArrayList<>(mMessagesByTag.getOrDefault(tag, Collections.emptyNavigableSet()));
     }
 
     /**
      * Recherche les messages mentionnant un utilisateur spécifique
      *
      * @param userTag Le tag utilisateur à rechercher
-     * @return La liste des messages mentionnant cet utilisateur
+     * @return La liste des messages mentionnant cet utilisateur (par ordre chronologique)
      */
     public List<Message> getMessagesWithUserTag(String userTag) {
-        List<Message> taggedMessages = new ArrayList<>();
-        if (userTag != null && !userTag.isEmpty()) {
-            for (Message message : messages) {
-                if (message.containsUserTag(userTag)) {
-                    taggedMessages.add(message);
-                }
-            }
+        if (userTag == null || userTag.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(mMessagesByUserTag.getOrDefault(userTag, Collections.emptyNavigableSet()));
+    }
+
+    @Override
+    public List<Message> getLatestUserMessages(User user, int count) {
+        if (user == null) {
+            return new ArrayList<>();
+        }
+        return lastOf(mMessagesBySender.getOrDefault(user.getUuid(), Collections.emptyNavigableSet()), count);
+    }
+
+    @Override
+    public List<Message> getLatestMessagesWithTag(String tag, int count) {
+        if (tag == null || tag.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return lastOf(mMessagesByTag.getOrDefault(tag, Collections.emptyNavigableSet()), count);
+    }
+
+    @Override
+    public List<Message> getLatestMessagesWithUserTag(String userTag, int count) {
+        if (userTag == null || userTag.isEmpty()) {
+            return new ArrayList<>();
         }
-        return taggedMessages;
+        return lastOf(mMessagesByUserTag.getOrDefault(userTag, Collections.emptyNavigableSet()), count);
     }
 
 }
@@ -1,6 +1,6 @@
 package main.java.com.ubo.tp.message.datamodel.notification;
 
-import main.java.com.ubo.tp.message.datamodel.message.IMessageListObserver;
+import java.util.Collection;
 
 /**
  * Interface observer d'une notification
@@ -32,4 +32,28 @@ public interface INotification {
      * @param notification
      */
     void removeNotification(Notification notification);
+
+    /**
+     * Ajoute plusieurs notifications dans la liste (une seule notification des
+     * observateurs)
+     * @param notifications
+     */
+    void addNotifications(Collection<Notification> notifications);
+
+    /**
+     * Retire plusieurs notifications de la liste (une seule notification des
+     * observateurs)
+     * @param notifications
+     */
+    void removeNotifications(Collection<Notification> notifications);
+
+    /**
+     * Retourne le nombre de notifications non lues
+     */
+    int getUnreadCount();
+
+    /**
+     * Retourne le nombre de notifications présentes dans la liste
+     */
+    int getNotificationsCount();
 }
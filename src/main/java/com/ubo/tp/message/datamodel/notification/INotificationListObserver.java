@@ -1,5 +1,7 @@
 package main.java.com.ubo.tp.message.datamodel.notification;
 
+import java.util.Collection;
+
 /**
  * Interface permettant de placer des notifications observer dans les listes
  */
@@ -18,6 +20,22 @@ public interface INotificationListObserver {
      */
     void notifyNotificationRemoved(Notification removedNotification);
 
+    /**
+     * Notification lorsque plusieurs notifications sont ajoutées en une fois
+     * (chargement à la connexion).
+     *
+     * @param addedNotifications Les notifications ajoutées
+     */
+    void notifyNotificationsAdded(Collection<Notification> addedNotifications);
+
+    /**
+     * Notification lorsque plusieurs notifications sont supprimées en une fois
+     * (déconnexion, éviction des notifications lues les plus anciennes).
+     *
+     * @param removedNotifications Les notifications supprimées
+     */
+    void notifyNotificationsRemoved(Collection<Notification> removedNotifications);
+
     /**
      * Notification lorsque des notifications sont marquées comme lues.
      */
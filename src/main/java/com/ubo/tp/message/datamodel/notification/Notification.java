@@ -4,6 +4,7 @@ package main.java.com.ubo.tp.message.datamodel.notification;
 import main.java.com.ubo.tp.message.datamodel.message.Message;
 import main.java.com.ubo.tp.message.datamodel.user.User;
 
+import java.util.Comparator;
 import java.util.Date;
 
 /**
@@ -11,6 +12,14 @@ import java.util.Date;
  */
 public class Notification {
 
+    /**
+     * Ordre des notifications : de la plus ancienne à la plus récente (date de
+     * création puis identifiant du message, pour départager les ex-aequo)
+     */
+    public static final Comparator<Notification> CREATION_DATE_COMPARATOR = Comparator
+            .comparing(Notification::getCreationDate)
+            .thenComparing(notification -> notification.getMessage().getUuid());
+
     private Message message;
     private User sender;
     private boolean read;
@@ -41,6 +50,11 @@ public class Notification {
         return read;
     }
 
+    /**
+     * Marque la notification comme lue. Une notification déjà présente dans une
+     * {@link NotificationList} doit être marquée via la liste, qui tient à jour
+     * son compteur de notifications non lues.
+     */
     public void markAsRead() {
         this.read = true;
     }
@@ -1,12 +1,34 @@
 package main.java.com.ubo.tp.message.datamodel.notification;
 
-import main.java.com.ubo.tp.message.datamodel.message.IMessageListObserver;
-
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Liste des notifications de l'utilisateur connecté.
+ * <p>
+ * Les compteurs (notifications non lues, total) sont tenus à jour à chaque
+ * modification et se lisent donc en temps constant. La liste est bornée : au
+ * delà de sa capacité, les notifications lues les plus anciennes sont retirées
+ * de la mémoire (leur état de lecture reste enregistré sur disque, voir
+ * NotificationManager). Les notifications non lues ne sont jamais évincées.
+ */
 public class NotificationList implements INotification {
+
+    /**
+     * Capacité par défaut de la liste
+     */
+    public static final int DEFAULT_CAPACITY = 500;
+
     /**
      * Liste des observateurs de notifications.
      * Utilisation de CopyOnWriteArrayList pour éviter les ConcurrentModificationException
@@ -14,65 +36,275 @@ public class NotificationList implements INotification {
     protected List<INotificationListObserver> mObservers = new CopyOnWriteArrayList<>();
 
     /**
-     * Liste des notifications.
+     * Notifications, de la plus ancienne à la plus récente.
+     */
+    protected final NavigableSet<Notification> notifications = new TreeSet<>(Notification.CREATION_DATE_COMPARATOR);
+
+    /**
+     * Notifications lues (candidates à l'éviction), de la plus ancienne à la plus récente.
+     */
+    protected final NavigableSet<Notification> readNotifications = new TreeSet<>(Notification.CREATION_DATE_COMPARATOR);
+
+    /**
+     * Notifications par identifiant de message.
+     */
+    protected final Map<UUID, Notification> notificationsById = new HashMap<>();
+
+    /**
+     * Nombre de notifications non lues.
+     */
+    protected int unreadCount;
+
+    /**
+     * Nombre maximal de notifications conservées (hors notifications non lues).
+     */
+    protected final int capacity;
+
+    /**
+     * Constructeur
      */
-    protected List<Notification> notifications = new ArrayList<>();
+    public NotificationList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructeur
+     *
+     * @param capacity Nombre maximal de notifications conservées
+     */
+    public NotificationList(int capacity) {
+        this.capacity = capacity;
+    }
 
     @Override
     public void addObserver(INotificationListObserver observer) {
-        this.mObservers.add((INotificationListObserver) observer);
+        this.mObservers.add(observer);
     }
 
     @Override
     public void removeObserver(INotificationListObserver observer) {
-        this.mObservers.remove((INotificationListObserver) observer);
+        this.mObservers.remove(observer);
     }
 
     @Override
     public void addNotification(Notification notification) {
-        if (notification != null) {
-            this.notifications.add(notification);
+        if (notification == null) {
+            return;
+        }
+
+        List<Notification> evicted;
+        synchronized (this) {
+            if (!this.store(notification)) {
+                return;
+            }
+            evicted = this.evict();
+        }
 
-            // Notifier les observateurs
+        this.fireNotificationsRemoved(evicted);
+        // La notification peut avoir été évincée immédiatement (lue et plus ancienne que les autres)
+        if (!evicted.contains(notification)) {
             for (INotificationListObserver observer : mObservers) {
                 observer.notifyNotificationAdded(notification);
             }
         }
     }
 
+    @Override
+    public void addNotifications(Collection<Notification> notifications) {
+        Set<Notification> addedSet = new LinkedHashSet<>();
+        List<Notification> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Notification notification : notifications) {
+                if (notification != null && this.store(notification)) {
+                    addedSet.add(notification);
+                }
+            }
+
+            // Les notifications ajoutées puis évincées dans le même lot ne sont pas signalées
+            for (Notification notification : this.evict()) {
+                if (!addedSet.remove(notification)) {
+                    evicted.add(notification);
+                }
+            }
+        }
+
+        this.fireNotificationsRemoved(evicted);
+
+        if (!addedSet.isEmpty()) {
+            List<Notification> added = new ArrayList<>(addedSet);
+            for (INotificationListObserver observer : mObservers) {
+                observer.notifyNotificationsAdded(Collections.unmodifiableList(added));
+            }
+        }
+    }
+
     @Override
     public void removeNotification(Notification notification) {
-        if (notification != null && this.notifications.remove(notification)) {
-            // Notifier les observateurs uniquement si la notification a été retirée
+        boolean removed;
+        synchronized (this) {
+            removed = notification != null && this.unstore(notification);
+        }
+
+        // Notifier les observateurs uniquement si la notification a été retirée
+        if (removed) {
             for (INotificationListObserver observer : mObservers) {
                 observer.notifyNotificationRemoved(notification);
             }
         }
     }
 
+    @Override
+    public void removeNotifications(Collection<Notification> notifications) {
+        List<Notification> removed = new ArrayList<>();
+        synchronized (this) {
+            for (Notification notification : notifications) {
+                if (notification != null && this.unstore(notification)) {
+                    removed.add(notification);
+                }
+            }
+        }
+
+        this.fireNotificationsRemoved(removed);
+    }
+
+    /**
+     * Retire toutes les notifications
+     */
+    public void clear() {
+        List<Notification> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(this.notifications);
+            this.notifications.clear();
+            this.readNotifications.clear();
+            this.notificationsById.clear();
+            this.unreadCount = 0;
+        }
+
+        this.fireNotificationsRemoved(removed);
+    }
+
     /**
-     * Retourne la liste des notifications
+     * Retourne la liste des notifications (plus récentes d'abord)
      * @return Liste des notifications
      */
-    public List<Notification> getNotifications() {
-        return new ArrayList<>(notifications);
+    public synchronized List<Notification> getNotifications() {
+        return new ArrayList<>(notifications.descendingSet());
+    }
+
+    @Override
+    public synchronized int getUnreadCount() {
+        return unreadCount;
+    }
+
+    @Override
+    public synchronized int getNotificationsCount() {
+        return notifications.size();
+    }
+
+    /**
+     * Retourne le nombre maximal de notifications conservées
+     */
+    public int getCapacity() {
+        return capacity;
     }
 
     /**
      * Marque toutes les notifications comme lues
+     *
+     * @return Les notifications qui n'étaient pas encore lues
      */
-    public void markAllNotificationsAsRead() {
-        boolean hasChanged = false;
-        for (Notification notification : this.notifications) {
-            if (!notification.isRead()) {
-                notification.markAsRead();
-                hasChanged = true;
+    public List<Notification> markAllNotificationsAsRead() {
+        List<Notification> newlyRead = new ArrayList<>();
+        List<Notification> evicted;
+        synchronized (this) {
+            if (unreadCount > 0) {
+                for (Notification notification : this.notifications) {
+                    if (!notification.isRead()) {
+                        notification.markAsRead();
+                        this.readNotifications.add(notification);
+                        newlyRead.add(notification);
+                    }
+                }
+                this.unreadCount = 0;
             }
+            evicted = this.evict();
         }
-        if (hasChanged) {
+
+        if (!newlyRead.isEmpty()) {
             for (INotificationListObserver observer : mObservers) {
                 observer.notifyNotificationsRead();
             }
         }
+        this.fireNotificationsRemoved(evicted);
+
+        return newlyRead;
+    }
+
+    /**
+     * Enregistre une notification et met à jour les compteurs
+     *
+     * @return false si une notification existe déjà pour ce message
+     */
+    private boolean store(Notification notification) {
+        UUID messageId = notification.getMessage().getUuid();
+        if (this.notificationsById.containsKey(messageId)) {
+            return false;
+        }
+
+        this.notificationsById.put(messageId, notification);
+        this.notifications.add(notification);
+        if (notification.isRead()) {
+            this.readNotifications.add(notification);
+        } else {
+            this.unreadCount++;
+        }
+        return true;
+    }
+
+    /**
+     * Retire une notification et met à jour les compteurs
+     *
+     * @return false si la notification n'était pas dans la liste
+     */
+    private boolean unstore(Notification notification) {
+        Notification stored = this.notificationsById.get(notification.getMessage().getUuid());
+        if (stored != notification) {
+            return false;
+        }
+
+        this.notificationsById.remove(notification.getMessage().getUuid());
+        this.notifications.remove(notification);
+        if (!this.readNotifications.remove(notification)) {
+            this.unreadCount--;
+        }
+        return true;
+    }
+
+    /**
+     * Évince les notifications lues les plus anciennes tant que la capacité est
+     * dépassée
+     *
+     * @return Les notifications évincées
+     */
+    private List<Notification> evict() {
+        List<Notification> evicted = new ArrayList<>();
+        while (this.notifications.size() > this.capacity && !this.readNotifications.isEmpty()) {
+            Notification oldest = this.readNotifications.pollFirst();
+            this.notifications.remove(oldest);
+            this.notificationsById.remove(oldest.getMessage().getUuid());
+            evicted.add(oldest);
+        }
+        return evicted;
+    }
+
+    /**
+     * Signale des notifications retirées
+     */
+    private void fireNotificationsRemoved(List<Notification> removed) {
+        if (!removed.isEmpty()) {
+            for (INotificationListObserver observer : mObservers) {
+                observer.notifyNotificationsRemoved(Collections.unmodifiableList(removed));
+            }
+        }
     }
 }
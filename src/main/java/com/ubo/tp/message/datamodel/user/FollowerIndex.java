@@ -0,0 +1,120 @@
+package main.java.com.ubo.tp.message.datamodel.user;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index inverse des abonnements : tag utilisateur -> identifiants des
+ * utilisateurs qui le suivent. <br/>
+ * <i>Les abonnements indexés pour chaque utilisateur sont mémorisés, ce qui
+ * permet de ré-indexer un utilisateur modifié sur place (via
+ * {@link User#addFollowing(String)} ou {@link User#removeFollowing(String)})
+ * en ne traitant que la différence.</i>
+ *
+ * @author S.Lucas
+ */
+public class FollowerIndex {
+
+	/**
+	 * Identifiants des abonnés, par tag suivi.
+	 */
+	protected final Map<String, Set<UUID>> mFollowersByTag;
+
+	/**
+	 * Abonnements indexés, par identifiant d'utilisateur.
+	 */
+	protected final Map<UUID, Set<String>> mIndexedFollows;
+
+	/**
+	 * Constructeur.
+	 */
+	public FollowerIndex() {
+		this.mFollowersByTag = new ConcurrentHashMap<>();
+		this.mIndexedFollows = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Indexe (ou ré-indexe) les abonnements de l'utilisateur.
+	 *
+	 * @param user , utilisateur ajouté ou modifié.
+	 */
+	public synchronized void index(User user) {
+		Set<String> oldFollows = this.mIndexedFollows.getOrDefault(user.getUuid(), Collections.emptySet());
+		Set<String> newFollows = new HashSet<>(user.getFollows());
+		newFollows.remove("");
+
+		// Abonnements retirés
+		for (String tag : oldFollows) {
+			if (!newFollows.contains(tag)) {
+				this.removeFollower(tag, user.getUuid());
+			}
+		}
+
+		// Abonnements ajoutés
+		for (String tag : newFollows) {
+			if (!oldFollows.contains(tag)) {
+				this.mFollowersByTag.computeIfAbsent(tag, k -> ConcurrentHashMap.newKeySet()).add(user.getUuid());
+			}
+		}
+
+		this.mIndexedFollows.put(user.getUuid(), newFollows);
+	}
+
+	/**
+	 * Retire les abonnements de l'utilisateur de l'index.
+	 *
+	 * @param user , utilisateur supprimé.
+	 */
+	public synchronized void unindex(User user) {
+		Set<String> oldFollows = this.mIndexedFollows.remove(user.getUuid());
+
+		if (oldFollows != null) {
+			for (String tag : oldFollows) {
+				this.removeFollower(tag, user.getUuid());
+			}
+		}
+	}
+
+	/**
+	 * Retire un abonné d'un tag (l'entrée est supprimée lorsqu'elle devient vide).
+	 */
+	protected void removeFollower(String tag, UUID followerUuid) {
+		Set<UUID> followers = this.mFollowersByTag.get(tag);
+		if (followers != null) {
+			followers.remove(followerUuid);
+			if (followers.isEmpty()) {
+				this.mFollowersByTag.remove(tag);
+			}
+		}
+	}
+
+	/**
+	 * Retourne les identifiants des abonnés de l'utilisateur.
+	 *
+	 * @param user , utilisateur suivi.
+	 */
+	public Set<UUID> getFollowerUuids(User user) {
+		return Collections.unmodifiableSet(this.mFollowersByTag.getOrDefault(user.getUserTag(), Collections.emptySet()));
+	}
+
+	/**
+	 * Retourne le nombre d'abonnés de l'utilisateur.
+	 *
+	 * @param user , utilisateur suivi.
+	 */
+	public int getFollowersCount(User user) {
+		return this.mFollowersByTag.getOrDefault(user.getUserTag(), Collections.emptySet()).size();
+	}
+
+	/**
+	 * Vide l'index.
+	 */
+	public synchronized void clear() {
+		this.mFollowersByTag.clear();
+		this.mIndexedFollows.clear();
+	}
+}
@@ -2,6 +2,7 @@ package main.java.com.ubo.tp.message.datamodel.user;
 
 import main.java.com.ubo.tp.message.datamodel.message.Message;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -28,6 +29,21 @@ public interface IUser {
     void addUser(User user);
 
     void removeUser(User user);
+
+    /**
+     * Ajoute un lot d'utilisateurs (une seule notification des observateurs).
+     *
+     * @param users Les utilisateurs à ajouter
+     */
+    void addUsers(Collection<User> users);
+
+    /**
+     * Supprime un lot d'utilisateurs (une seule notification des observateurs).
+     *
+     * @param users Les utilisateurs à supprimer
+     */
+    void removeUsers(Collection<User> users);
+
     void refreshUser();
 
     List<User> getUsers();
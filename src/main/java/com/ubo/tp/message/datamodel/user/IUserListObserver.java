@@ -1,5 +1,7 @@
 package main.java.com.ubo.tp.message.datamodel.user;
 
+import java.util.Collection;
+
 /**
  * Interface permettant de placer des messages observer dans les listes
  */
@@ -18,6 +20,20 @@ public interface IUserListObserver {
      */
     void notifyUserDeleted(User deletedUser);
 
+    /**
+     * Notification lorsqu'un lot d'utilisateurs est ajouté.
+     *
+     * @param addedUsers Les utilisateurs ajoutés
+     */
+    void notifyUsersAdded(Collection<User> addedUsers);
+
+    /**
+     * Notification lorsqu'un lot d'utilisateurs est supprimé.
+     *
+     * @param deletedUsers Les utilisateurs supprimés
+     */
+    void notifyUsersDeleted(Collection<User> deletedUsers);
+
     void notifyRefreshUser();
 
     void notifyUserModified(User modifiedUser);
@@ -151,7 +151,8 @@ public class User {
 	 * Indique si l'utilisateur suit l'utilisateur donné.
 	 */
 	public boolean isFollowing(User userToCheck) {
-		return this.getFollows().contains(userToCheck.getUserTag());
+		// Pas de clonage : simple consultation
+		return this.mFollows.contains(userToCheck.getUserTag());
 	}
 
 
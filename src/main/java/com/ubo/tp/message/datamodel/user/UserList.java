@@ -2,9 +2,13 @@ package main.java.com.ubo.tp.message.datamodel.user;
 
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -20,9 +24,14 @@ public class UserList implements IUser {
     protected List<IUserListObserver> mObservers = new CopyOnWriteArrayList<>();
 
     /**
-     * Liste des messages.
+     * Liste des utilisateurs, indexés par identifiant.
      */
-    protected Set<User> users = new HashSet<>();
+    protected final Map<UUID, User> users = new ConcurrentHashMap<>();
+
+    /**
+     * Index inverse des abonnements (tag -> abonnés).
+     */
+    protected final FollowerIndex mFollowerIndex = new FollowerIndex();
 
     /**
      * Ajoute un message à la liste et notifie les observateurs
@@ -31,12 +40,62 @@ public class UserList implements IUser {
      */
     @Override
     public void addUser(User user) {
-        // Ajout de l'utilisateur
-        this.users.add(user);
+        // Ajout de l'utilisateur (une copie déjà présente est remplacée)
+        boolean isNewUser = this.store(user);
 
         // Notification des observateurs
         for (IUserListObserver observer : mObservers) {
-            observer.notifyUserAdded(user);
+            if (isNewUser) {
+                observer.notifyUserAdded(user);
+            } else {
+                observer.notifyUserModified(user);
+            }
+        }
+    }
+
+    @Override
+    public void addUsers(Collection<User> usersToAdd) {
+        List<User> addedUsers = new ArrayList<>();
+        List<User> replacedUsers = new ArrayList<>();
+        for (User user : usersToAdd) {
+            if (user != null) {
+                if (this.store(user)) {
+                    addedUsers.add(user);
+                } else {
+                    replacedUsers.add(user);
+                }
+            }
+        }
+
+        // Les copies remplacées passent par la notification de modification
+        for (User user : replacedUsers) {
+            for (IUserListObserver observer : mObservers) {
+                observer.notifyUserModified(user);
+            }
+        }
+
+        // Notification unique des observateurs pour tout le lot
+        if (!addedUsers.isEmpty()) {
+            for (IUserListObserver observer : mObservers) {
+                observer.notifyUsersAdded(addedUsers);
+            }
+        }
+    }
+
+    @Override
+    public void removeUsers(Collection<User> usersToRemove) {
+        List<User> removedUsers = new ArrayList<>();
+        for (User user : usersToRemove) {
+            if (user != null && this.unstore(user)) {
+                removedUsers.add(user);
+            }
+        }
+
+        // Notification unique des observateurs pour tout le lot
+        if (!removedUsers.isEmpty()) {
+            for (IUserListObserver observer : mObservers) {
+                observer.notifyUsersDeleted(removedUsers);
+            }
         }
     }
 
@@ -55,7 +114,7 @@ public class UserList implements IUser {
     @Override
     public void removeUser(User user) {
         // Suppression de l'utilisateur
-        this.users.remove(user);
+        this.unstore(user);
 
         // Notification des observateurs
         for (IUserListObserver observer : mObservers) {
@@ -65,8 +124,8 @@ public class UserList implements IUser {
 
     @Override
     public void modifiyUser(User userToModify) {
-        // Le ré-ajout va écraser l'ancienne copie.
-        this.users.add(userToModify);
+        // Le ré-ajout va écraser l'ancienne copie (et ré-indexer ses abonnements).
+        this.store(userToModify);
 
         // Notification des observateurs
         for (IUserListObserver observer : mObservers) {
@@ -81,22 +140,48 @@ public class UserList implements IUser {
      */
     @Override
     public List<User> getUsers() {
-        return new ArrayList<>(users);
+        return new ArrayList<>(users.values());
+    }
+
+    /**
+     * Enregistre (ou remplace) un utilisateur et indexe ses abonnements.
+     *
+     * @param user L'utilisateur à enregistrer
+     * @return true si l'utilisateur n'était pas encore présent
+     */
+    protected synchronized boolean store(User user) {
+        boolean isNewUser = this.users.put(user.getUuid(), user) == null;
+        this.mFollowerIndex.index(user);
+        return isNewUser;
+    }
+
+    /**
+     * Retire un utilisateur et ses abonnements de l'index.
+     *
+     * @param user L'utilisateur à retirer
+     * @return true si l'utilisateur était présent
+     */
+    protected synchronized boolean unstore(User user) {
+        User storedUser = this.users.remove(user.getUuid());
+        if (storedUser != null) {
+            this.mFollowerIndex.unindex(storedUser);
+        }
+        return storedUser != null;
     }
 
     @Override
     public int getFollowersCount(User user) {
-        return this.getFollowers(user).size();
+        return this.mFollowerIndex.getFollowersCount(user);
     }
 
     public Set<User> getFollowers(User user) {
         Set<User> followers = new HashSet<>();
 
-        // Parcours de tous les utilisateurs de la base
-        for (User otherUser : this.getUsers()) {
-            // Si le l'utilisateur courant suit l'utilisateur donné
-            if (otherUser.isFollowing(user)) {
-                followers.add(otherUser);
+        // Résolution des abonnés référencés par l'index
+        for (UUID followerUuid : this.mFollowerIndex.getFollowerUuids(user)) {
+            User follower = this.users.get(followerUuid);
+            if (follower != null) {
+                followers.add(follower);
             }
         }
 
@@ -109,10 +194,7 @@ public class UserList implements IUser {
      */
 
     public void clear() {
-        List<User> usersToRemove = new ArrayList<>(users);
-        for (User usert : usersToRemove) {
-            removeUser(usert);
-        }
+        removeUsers(new ArrayList<>(users.values()));
     }
 
     /**
@@ -0,0 +1,144 @@
+package main.java.com.ubo.tp.message.ihm;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.plaf.basic.BasicListUI;
+
+/**
+ * Rendu d'une liste dont la hauteur des lignes dépend de la largeur (texte
+ * renvoyé à la ligne).
+ * <p>
+ * La taille de chaque ligne est conservée pour la largeur courante de la
+ * liste : l'insertion d'une ligne ne mesure que cette ligne, au lieu de
+ * mesurer à nouveau toute la liste. Les tailles sont oubliées lorsque la
+ * largeur change, ou pour une ligne dont le contenu est modifié.
+ */
+public class CachedHeightListUI extends BasicListUI {
+
+    /**
+     * Taille des lignes déjà mesurées, par élément (identité de l'instance)
+     */
+    private Map<Object, Dimension> cellSizes = new IdentityHashMap<>();
+
+    /**
+     * Largeur de la liste lors des mesures
+     */
+    private int measuredWidth = -1;
+
+    /**
+     * Recalcul de la disposition lorsque la largeur change
+     */
+    private final ComponentListener resizeListener = new ComponentAdapter() {
+        @Override
+        public void componentResized(ComponentEvent e) {
+            if (list.getWidth() != measuredWidth) {
+                invalidateCellSizes();
+            }
+        }
+    };
+
+    @Override
+    public void installUI(JComponent component) {
+        super.installUI(component);
+        list.addComponentListener(resizeListener);
+    }
+
+    @Override
+    public void uninstallUI(JComponent component) {
+        list.removeComponentListener(resizeListener);
+        cellSizes.clear();
+        super.uninstallUI(component);
+    }
+
+    /**
+     * Oublie la taille de toutes les lignes (nouvelle mesure au prochain
+     * affichage)
+     */
+    public void invalidateCellSizes() {
+        cellSizes.clear();
+        updateLayoutStateNeeded |= modelChanged;
+        list.revalidate();
+        list.repaint();
+    }
+
+    @Override
+    protected void updateLayoutState() {
+        if (list.getFixedCellHeight() != -1 || list.getCellRenderer() == null
+                || list.getLayoutOrientation() != JList.VERTICAL) {
+            super.updateLayoutState();
+            return;
+        }
+
+        if (list.getWidth() != measuredWidth) {
+            measuredWidth = list.getWidth();
+            cellSizes.clear();
+        }
+
+        // Seules les lignes inconnues sont mesurées ; les lignes retirées sont oubliées
+        ListModel<Object> dataModel = list.getModel();
+        @SuppressWarnings("unchecked")
+        ListCellRenderer<Object> renderer = (ListCellRenderer<Object>) list.getCellRenderer();
+        Map<Object, Dimension> currentSizes = new IdentityHashMap<>(dataModel.getSize());
+        int fixedCellWidth = list.getFixedCellWidth();
+
+        cellHeight = -1;
+        cellHeights = new int[dataModel.getSize()];
+        cellWidth = fixedCellWidth;
+        for (int index = 0; index < cellHeights.length; index++) {
+            Object value = dataModel.getElementAt(index);
+            Dimension cellSize = cellSizes.get(value);
+            if (cellSize == null) {
+                Component cell = renderer.getListCellRendererComponent(list, value, index, false, false);
+                rendererPane.add(cell);
+                cellSize = cell.getPreferredSize();
+            }
+            currentSizes.put(value, cellSize);
+
+            cellHeights[index] = cellSize.height;
+            if (fixedCellWidth == -1) {
+                cellWidth = Math.max(cellSize.width, cellWidth);
+            }
+        }
+        cellSizes = currentSizes;
+    }
+
+    @Override
+    protected ListDataListener createListDataListener() {
+        ListDataListener listDataListener = super.createListDataListener();
+
+        // Une ligne modifiée (même instance) est mesurée à nouveau
+        return new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                listDataListener.intervalAdded(e);
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                listDataListener.intervalRemoved(e);
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                ListModel<?> dataModel = list.getModel();
+                int lastIndex = Math.min(e.getIndex1(), dataModel.getSize() - 1);
+                for (int index = Math.max(e.getIndex0(), 0); index <= lastIndex; index++) {
+                    cellSizes.remove(dataModel.getElementAt(index));
+                }
+                listDataListener.contentsChanged(e);
+            }
+        };
+    }
+}
@@ -5,16 +5,21 @@ import java.io.File;
 import java.util.Properties;
 
 import main.java.com.ubo.tp.message.common.Constants;
+import main.java.com.ubo.tp.message.common.DataFileFormat;
+import main.java.com.ubo.tp.message.common.DirectoryLayout;
 import main.java.com.ubo.tp.message.common.PropertiesManager;
 import main.java.com.ubo.tp.message.core.EntityManager;
 import main.java.com.ubo.tp.message.core.database.IDatabase;
 import main.java.com.ubo.tp.message.core.database.IDatabaseObserver;
 import main.java.com.ubo.tp.message.core.directory.IWatchableDirectory;
+import main.java.com.ubo.tp.message.core.directory.NioWatchableDirectory;
+import main.java.com.ubo.tp.message.core.directory.PartitionedWatchableDirectory;
 import main.java.com.ubo.tp.message.core.directory.WatchableDirectory;
 
 import main.java.com.ubo.tp.message.core.session.ISession;
 import main.java.com.ubo.tp.message.core.session.ISessionObserver;
 import main.java.com.ubo.tp.message.core.session.Session;
+import main.java.com.ubo.tp.message.core.storage.SegmentLogMessageStorage;
 import main.java.com.ubo.tp.message.datamodel.message.IMessage;
 import main.java.com.ubo.tp.message.datamodel.user.IUser;
 import main.java.com.ubo.tp.message.datamodel.user.User;
@@ -23,6 +28,9 @@ import main.java.com.ubo.tp.message.datamodel.message.Message;
 import main.java.com.ubo.tp.message.datamodel.message.MessageList;
 import main.java.com.ubo.tp.message.datamodel.notification.INotification;
 import main.java.com.ubo.tp.message.datamodel.notification.NotificationList;
+import main.java.com.ubo.tp.message.ihm.dispatch.MessageUpdateDispatcher;
+import main.java.com.ubo.tp.message.ihm.dispatch.UiUpdateDispatcher;
+import main.java.com.ubo.tp.message.ihm.dispatch.UserUpdateDispatcher;
 import main.java.com.ubo.tp.message.ihm.login.LoginController;
 import main.java.com.ubo.tp.message.ihm.login.LoginView;
 import main.java.com.ubo.tp.message.ihm.menu.MenuController;
@@ -137,6 +145,16 @@ public class MessageApp implements ISessionObserver, Actions {
 
 	protected NotificationView notificationView;
 
+	/**
+	 * Regroupement des évènements de la liste des messages pour les vues.
+	 */
+	protected MessageUpdateDispatcher mMessageDispatcher;
+
+	/**
+	 * Regroupement des évènements de la liste des utilisateurs pour les vues.
+	 */
+	protected UserUpdateDispatcher mUserDispatcher;
+
 
 	/**
 	 * Constructeur.
@@ -170,6 +188,9 @@ public class MessageApp implements ISessionObserver, Actions {
 
 		// Initialisation du répertoire d'échange
 		this.initDirectory();
+
+		// Écriture des fichiers en attente à la fermeture de la fenêtre principale
+		Runtime.getRuntime().addShutdownHook(new Thread(mEntityManager::close, "MessageAppShutdown"));
 	}
 
 	/**
@@ -200,16 +221,21 @@ public class MessageApp implements ISessionObserver, Actions {
 	}
 
 	protected void initView(){
+		// Intermédiaires entre le modèle et les vues (mises à jour regroupées, sur l'EDT)
+		int maxRefreshRate = this.getMaxRefreshRate();
+		this.mMessageDispatcher = new MessageUpdateDispatcher(this.mMessageList, maxRefreshRate);
+		this.mUserDispatcher = new UserUpdateDispatcher(this.mUserList, maxRefreshRate);
+
 		// Création de la vue principale
 		this.mMainView = new MessageAppMainView();
 		// Création de la vue de login
 		this.mLoginView = new LoginView(this.mLoginController);
 
-		this.messageListView = new MessageListView(this.mMessageListController, this.mSession, this.mMessageList);
+		this.messageListView = new MessageListView(this.mMessageListController, this.mSession, this.mMessageDispatcher);
 
 		this.messageComposeView = new MessageComposeView(this.mMessageComposeController, this.mSession);
 
-		this.userListView = new UserListView(this.mUserController, this.mSession, this.mUserList);
+		this.userListView = new UserListView(this.mUserController, this.mSession, this.mUserDispatcher);
 
 		this.notificationView = new NotificationView(this.mNotificationController);
 
@@ -217,11 +243,24 @@ public class MessageApp implements ISessionObserver, Actions {
 		this.mMainContentView = new MainContentView(this.mSession, this.mNotificationController, this.messageListView, this.messageComposeView, this.userListView, this.notificationView);
 
 		this.mMenuView = new MenuView(this.mMenuController, this.mSession);
+	}
 
-		this.messageComposeView = new MessageComposeView(this.mMessageComposeController, this.mSession);
-		this.messageListView = new MessageListView(this.mMessageListController, this.mSession, this.mMessageList);
-		this.userListView = new UserListView(this.mUserController, this.mSession, this.mUserList);
-		this.notificationView = new NotificationView(this.mNotificationController);
+	/**
+	 * Lecture du nombre maximal de rafraîchissements de l'affichage par seconde.
+	 */
+	protected int getMaxRefreshRate() {
+		Properties config = PropertiesManager.loadProperties(Constants.CONFIGURATION_FILE);
+		String maxRefreshRate = config.getProperty(Constants.CONFIGURATION_KEY_UI_MAX_REFRESH_RATE);
+
+		if (maxRefreshRate != null && !maxRefreshRate.trim().isEmpty()) {
+			try {
+				return Integer.parseInt(maxRefreshRate.trim());
+			} catch (NumberFormatException e) {
+				System.err.println("Fréquence de rafraîchissement invalide : " + maxRefreshRate);
+			}
+		}
+
+		return UiUpdateDispatcher.DEFAULT_MAX_REFRESH_RATE;
 	}
 
 	/**
@@ -302,6 +341,8 @@ public class MessageApp implements ISessionObserver, Actions {
 		if (mWatchableDirectory != null) {
 			mWatchableDirectory.stopWatching();
 		}
+		// Écriture des fichiers en attente et fermeture du stockage
+		mEntityManager.close();
 		// Quitter l'application
 		System.exit(0);
 	}
@@ -312,16 +353,89 @@ public class MessageApp implements ISessionObserver, Actions {
 	 * @param directoryPath chemain absolue pour le dossier
 	 */
 	protected void initDirectory(String directoryPath) {
+		// Arrêt de la surveillance précédente (un seul thread de surveillance actif)
+		if (mWatchableDirectory != null) {
+			mWatchableDirectory.stopWatching();
+		}
+
 		mExchangeDirectoryPath = directoryPath;
-		mWatchableDirectory = new WatchableDirectory(directoryPath);
+		mWatchableDirectory = this.createWatchableDirectory(directoryPath);
 		mEntityManager.setExchangeDirectory(directoryPath);
+		this.configureEntityManager();
 
 		if (mNotificationController != null) {
 			mNotificationController.setExchangeDirectory(directoryPath);
 		}
 
-		mWatchableDirectory.initWatching();
+		// Abonnement avant le démarrage : le chargement initial est ainsi terminé
+		// avant que la surveillance ne remonte les premiers changements
 		mWatchableDirectory.addObserver(mEntityManager);
+		mWatchableDirectory.initWatching();
+	}
+
+	/**
+	 * Application de la configuration au gestionnaire d'entités.
+	 */
+	protected void configureEntityManager() {
+		Properties config = PropertiesManager.loadProperties(Constants.CONFIGURATION_FILE);
+		String parallelism = config.getProperty(Constants.CONFIGURATION_KEY_INGESTION_PARALLELISM);
+
+		if (parallelism != null && !parallelism.trim().isEmpty()) {
+			try {
+				mEntityManager.setIngestionParallelism(Integer.parseInt(parallelism.trim()));
+			} catch (NumberFormatException e) {
+				System.err.println("Parallélisme de chargement invalide : " + parallelism);
+			}
+		}
+
+		// Synchronisation sur disque des écritures (désactivée par défaut)
+		String writeSync = config.getProperty(Constants.CONFIGURATION_KEY_WRITE_SYNC, "false");
+		mEntityManager.setWriteSync(Boolean.parseBoolean(writeSync.trim()));
+
+		// Format d'écriture des fichiers (fichiers de propriétés par défaut)
+		String dataFileFormat = config.getProperty(Constants.CONFIGURATION_KEY_DATA_FILE_FORMAT);
+		mEntityManager.setDataFileFormat(DataFileFormat.fromConfiguration(dataFileFormat));
+
+		// Organisation des fichiers de messages (à la racine par défaut)
+		String directoryLayout = config.getProperty(Constants.CONFIGURATION_KEY_DIRECTORY_LAYOUT);
+		mEntityManager.setDirectoryLayout(DirectoryLayout.fromConfiguration(directoryLayout));
+
+		// Stockage des messages (un fichier par message par défaut)
+		String storageMode = config.getProperty(Constants.CONFIGURATION_KEY_MESSAGE_STORAGE_MODE, "");
+		if (Constants.MESSAGE_STORAGE_MODE_SEGMENT_LOG.equalsIgnoreCase(storageMode.trim())) {
+			SegmentLogMessageStorage segmentLog = new SegmentLogMessageStorage(mExchangeDirectoryPath);
+
+			// Migration des fichiers de messages existants (avant le chargement initial)
+			String migration = config.getProperty(Constants.CONFIGURATION_KEY_MESSAGE_STORAGE_MIGRATION, "false");
+			if (Boolean.parseBoolean(migration.trim())) {
+				segmentLog.migrateMessageFiles();
+			}
+
+			mEntityManager.setMessageStorage(segmentLog);
+		}
+	}
+
+	/**
+	 * Création de la surveillance du répertoire d'échange selon le mode
+	 * configuré (WatchService du système par défaut).
+	 *
+	 * @param directoryPath chemin absolu du répertoire à surveiller
+	 */
+	protected IWatchableDirectory createWatchableDirectory(String directoryPath) {
+		Properties config = PropertiesManager.loadProperties(Constants.CONFIGURATION_FILE);
+		String watchMode = config.getProperty(Constants.CONFIGURATION_KEY_DIRECTORY_WATCH_MODE, "");
+
+		// Répertoire partitionné : scrutation de la racine et des partitions récentes
+		String directoryLayout = config.getProperty(Constants.CONFIGURATION_KEY_DIRECTORY_LAYOUT);
+		if (DirectoryLayout.fromConfiguration(directoryLayout) == DirectoryLayout.PARTITIONED) {
+			return new PartitionedWatchableDirectory(directoryPath);
+		}
+
+		if (Constants.DIRECTORY_WATCH_MODE_POLLING.equalsIgnoreCase(watchMode.trim())) {
+			return new WatchableDirectory(directoryPath);
+		}
+
+		return new NioWatchableDirectory(directoryPath);
 	}
 
 	@Override
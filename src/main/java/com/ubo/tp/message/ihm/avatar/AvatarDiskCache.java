@@ -0,0 +1,210 @@
+package main.java.com.ubo.tp.message.ihm.avatar;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.imageio.ImageIO;
+
+import main.java.com.ubo.tp.message.common.Constants;
+
+/**
+ * Cache disque des vignettes d'avatars (PNG pré-redimensionnés).
+ * <p>
+ * Une vignette est identifiée par le chemin de l'image source, la taille de la
+ * vignette et la date de modification de la source : une source modifiée
+ * produit donc une nouvelle entrée, l'ancienne finissant évincée. La taille du
+ * répertoire est plafonnée ; les vignettes les moins récemment lues (date de
+ * modification du fichier, mise à jour à chaque lecture) sont supprimées en
+ * premier.
+ */
+public class AvatarDiskCache {
+
+    /**
+     * Taille maximale du cache (en octets)
+     */
+    private static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+
+    /**
+     * Taille visée après une éviction (en octets)
+     */
+    private static final long TARGET_CACHE_BYTES = MAX_CACHE_BYTES * 3 / 4;
+
+    /**
+     * Extension des vignettes
+     */
+    private static final String THUMBNAIL_EXTENSION = ".png";
+
+    /**
+     * Répertoire du cache
+     */
+    private final File cacheDirectory;
+
+    /**
+     * Taille actuelle du cache (en octets, -1 si pas encore calculée)
+     */
+    private long cacheBytes = -1;
+
+    /**
+     * Constructeur
+     */
+    public AvatarDiskCache() {
+        this(new File(Constants.SYSTEM_TMP_DIR, "MessageApp" + Constants.SYSTEM_FILE_SEPARATOR + "avatars"));
+    }
+
+    /**
+     * Constructeur
+     *
+     * @param cacheDirectory Répertoire du cache
+     */
+    public AvatarDiskCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Lit la vignette d'une image source
+     *
+     * @param sourceFile Image source
+     * @param size Taille de la vignette
+     * @return La vignette, null si elle n'est pas en cache
+     */
+    public BufferedImage read(File sourceFile, int size) {
+        File thumbnailFile = getThumbnailFile(sourceFile, size);
+        if (thumbnailFile == null || !thumbnailFile.isFile()) {
+            return null;
+        }
+
+        try {
+            BufferedImage thumbnail = ImageIO.read(thumbnailFile);
+            if (thumbnail != null) {
+                // Marque la vignette comme récemment utilisée
+                thumbnailFile.setLastModified(System.currentTimeMillis());
+                return thumbnail;
+            }
+        } catch (IOException e) {
+            System.err.println("Vignette illisible, suppression : " + thumbnailFile.getName());
+        }
+
+        this.delete(thumbnailFile);
+        return null;
+    }
+
+    /**
+     * Enregistre la vignette d'une image source
+     *
+     * @param sourceFile Image source
+     * @param size Taille de la vignette
+     * @param thumbnail Vignette à enregistrer
+     */
+    public void write(File sourceFile, int size, BufferedImage thumbnail) {
+        File thumbnailFile = getThumbnailFile(sourceFile, size);
+        if (thumbnailFile == null || (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs())) {
+            return;
+        }
+
+        File tmpFile = new File(cacheDirectory, thumbnailFile.getName() + ".tmp");
+        try {
+            // Écriture dans un fichier temporaire puis renommage : pas de vignette tronquée
+            if (ImageIO.write(thumbnail, "png", tmpFile)) {
+                Files.move(tmpFile.toPath(), thumbnailFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                this.added(thumbnailFile.length());
+            }
+        } catch (IOException e) {
+            System.err.println("Impossible d'enregistrer la vignette : " + e.getMessage());
+        } finally {
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * Prend en compte une vignette ajoutée et évince les plus anciennes si la
+     * taille maximale est dépassée
+     */
+    private synchronized void added(long bytes) {
+        if (cacheBytes < 0) {
+            cacheBytes = 0;
+            for (File file : listThumbnails()) {
+                cacheBytes += file.length();
+            }
+        } else {
+            cacheBytes += bytes;
+        }
+
+        if (cacheBytes > MAX_CACHE_BYTES) {
+            File[] thumbnails = listThumbnails();
+            Arrays.sort(thumbnails, Comparator.comparingLong(File::lastModified));
+
+            cacheBytes = 0;
+            for (File file : thumbnails) {
+                cacheBytes += file.length();
+            }
+            for (File file : thumbnails) {
+                if (cacheBytes <= TARGET_CACHE_BYTES) {
+                    break;
+                }
+                long length = file.length();
+                if (file.delete()) {
+                    cacheBytes -= length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Supprime une vignette
+     */
+    private synchronized void delete(File thumbnailFile) {
+        long length = thumbnailFile.length();
+        if (thumbnailFile.delete() && cacheBytes >= 0) {
+            cacheBytes -= length;
+        }
+    }
+
+    /**
+     * Liste les vignettes du cache
+     */
+    private File[] listThumbnails() {
+        File[] thumbnails = cacheDirectory.listFiles((dir, name) -> name.endsWith(THUMBNAIL_EXTENSION));
+        return thumbnails != null ? thumbnails : new File[0];
+    }
+
+    /**
+     * Retourne le fichier de la vignette (clé : chemin, taille et date de
+     * modification de la source)
+     *
+     * @return Le fichier, null si la source est introuvable
+     */
+    private File getThumbnailFile(File sourceFile, int size) {
+        long lastModified = sourceFile.lastModified();
+        if (lastModified == 0L) {
+            return null;
+        }
+
+        String key = sourceFile.getAbsolutePath() + "|" + size + "|" + lastModified;
+        return new File(cacheDirectory, hash(key) + THUMBNAIL_EXTENSION);
+    }
+
+    /**
+     * Empreinte (hexadécimale) d'une clé
+     */
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 est toujours disponible
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package main.java.com.ubo.tp.message.ihm.avatar;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * Cache partagé des avatars des utilisateurs.
+ * <p>
+ * Chaque avatar est décodé une seule fois, sur un thread d'arrière-plan, puis
+ * conservé sous forme de vignettes à la taille demandée (40px pour les
+ * messages, 50px pour les utilisateurs). Le cache est borné en mémoire
+ * (éviction du moins récemment utilisé) et une vignette est rechargée lorsque
+ * le fichier source est modifié. Les vignettes sont aussi conservées sur
+ * disque ({@link AvatarDiskCache}) : au démarrage suivant, seule une vignette
+ * absente nécessite le décodage de l'image source. Tant qu'une vignette n'est
+ * pas prête, {@link #getAvatar(String, int, Runnable)} retourne <code>null</code> et
+ * l'appelant affiche l'initiale de l'utilisateur.
+ */
+public class AvatarManager {
+
+    /**
+     * Taille maximale du cache (en octets de pixels)
+     */
+    private static final long MAX_CACHE_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Délai minimal (en ms) entre deux vérifications de la date de modification
+     * d'un fichier source
+     */
+    private static final long MODIFICATION_CHECK_DELAY = 1000;
+
+    /**
+     * Nombre de threads de décodage
+     */
+    private static final int DECODER_THREADS = 2;
+
+    /**
+     * Instance unique
+     */
+    private static final AvatarManager INSTANCE = new AvatarManager();
+
+    /**
+     * Vignettes chargées, par clé (chemin et taille), de la moins à la plus
+     * récemment utilisée
+     */
+    private final LinkedHashMap<String, AvatarEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Rappels en attente, par clé en cours de chargement
+     */
+    private final Map<String, List<Runnable>> pendingCallbacks = new HashMap<>();
+
+    /**
+     * Taille actuelle du cache (en octets de pixels)
+     */
+    private long cacheBytes;
+
+    /**
+     * Threads de décodage
+     */
+    private final ExecutorService decoder;
+
+    /**
+     * Cache disque des vignettes (conservé d'une exécution à l'autre)
+     */
+    private final AvatarDiskCache diskCache;
+
+    /**
+     * Constructeur
+     */
+    private AvatarManager() {
+        this.diskCache = new AvatarDiskCache();
+        this.decoder = Executors.newFixedThreadPool(DECODER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "AvatarManager");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Retourne l'instance unique
+     */
+    public static AvatarManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Retourne la vignette d'un avatar si elle est prête, ou programme son
+     * chargement.
+     *
+     * @param avatarPath Chemin de l'image source
+     * @param size Taille (en pixels) de la vignette carrée
+     * @param onReady Rappel exécuté sur l'EDT lorsque la vignette est prête
+     *                (typiquement un <code>repaint</code>)
+     * @return La vignette, ou null si elle n'est pas (encore) disponible
+     */
+    public Icon getAvatar(String avatarPath, int size, Runnable onReady) {
+        if (avatarPath == null || avatarPath.isEmpty()) {
+            return null;
+        }
+
+        String key = size + ":" + avatarPath;
+        synchronized (this) {
+            AvatarEntry entry = cache.get(key);
+            if (entry != null && entry.isUpToDate()) {
+                return entry.icon;
+            }
+
+            // Chargement (ou rechargement) en arrière-plan, une seule fois par clé
+            List<Runnable> callbacks = pendingCallbacks.get(key);
+            if (callbacks == null) {
+                callbacks = new ArrayList<>();
+                pendingCallbacks.put(key, callbacks);
+                decoder.execute(() -> load(key, avatarPath, size));
+            }
+            if (onReady != null) {
+                callbacks.add(onReady);
+            }
+
+            // L'ancienne vignette reste affichée pendant le rechargement
+            return entry != null ? entry.icon : null;
+        }
+    }
+
+    /**
+     * Décode et redimensionne un avatar (thread d'arrière-plan)
+     */
+    private void load(String key, String avatarPath, int size) {
+        File avatarFile = new File(avatarPath);
+        long lastModified = avatarFile.lastModified();
+        Icon icon = null;
+
+        try {
+            // Vignette déjà calculée lors d'une exécution précédente
+            BufferedImage thumbnail = diskCache.read(avatarFile, size);
+
+            // Sinon, décodage complet de l'image source
+            if (thumbnail == null) {
+                BufferedImage image = avatarFile.exists() ? ImageIO.read(avatarFile) : null;
+                if (image != null) {
+                    thumbnail = scale(image, size);
+                    diskCache.write(avatarFile, size, thumbnail);
+                }
+            }
+
+            if (thumbnail != null) {
+                icon = new ImageIcon(thumbnail);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Impossible de charger l'avatar " + avatarPath + " : " + e.getMessage());
+        }
+
+        List<Runnable> callbacks;
+        synchronized (this) {
+            put(key, new AvatarEntry(avatarFile, lastModified, icon, size));
+            callbacks = pendingCallbacks.remove(key);
+        }
+
+        if (callbacks != null && !callbacks.isEmpty()) {
+            SwingUtilities.invokeLater(() -> callbacks.forEach(Runnable::run));
+        }
+    }
+
+    /**
+     * Ajoute une vignette au cache en évinçant les moins récemment utilisées
+     */
+    private void put(String key, AvatarEntry entry) {
+        AvatarEntry oldEntry = cache.put(key, entry);
+        if (oldEntry != null) {
+            cacheBytes -= oldEntry.bytes;
+        }
+        cacheBytes += entry.bytes;
+
+        Iterator<AvatarEntry> iterator = cache.values().iterator();
+        while (cacheBytes > MAX_CACHE_BYTES && iterator.hasNext()) {
+            AvatarEntry eldestEntry = iterator.next();
+            if (eldestEntry != entry) {
+                cacheBytes -= eldestEntry.bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Redimensionne une image en vignette carrée : réductions successives de
+     * moitié (bilinéaire) puis ajustement final (bicubique).
+     *
+     * @param image Image source
+     * @param size Taille de la vignette
+     */
+    static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        while (width / 2 >= size && height / 2 >= size) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+
+        return draw(current, size, size, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    /**
+     * Dessine une image aux dimensions données
+     */
+    private static BufferedImage draw(BufferedImage source, int width, int height, Object interpolation) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = target.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+        return target;
+    }
+
+    /**
+     * Vignette en cache
+     */
+    private static class AvatarEntry {
+
+        /**
+         * Fichier source
+         */
+        private final File file;
+
+        /**
+         * Date de modification du fichier source lors du chargement
+         */
+        private final long lastModified;
+
+        /**
+         * Vignette (null si l'image est introuvable ou illisible)
+         */
+        private final Icon icon;
+
+        /**
+         * Taille occupée en mémoire (en octets de pixels)
+         */
+        private final long bytes;
+
+        /**
+         * Date de la dernière vérification du fichier source
+         */
+        private long lastCheck;
+
+        private AvatarEntry(File file, long lastModified, Icon icon, int size) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.icon = icon;
+            // Un échec de chargement compte aussi, pour borner le nombre d'entrées
+            this.bytes = icon != null ? 4L * size * size : 1024;
+            this.lastCheck = System.currentTimeMillis();
+        }
+
+        /**
+         * Indique si la vignette correspond toujours au fichier source (vérifié
+         * au plus une fois par seconde)
+         */
+        private boolean isUpToDate() {
+            long now = System.currentTimeMillis();
+            if (now - lastCheck < MODIFICATION_CHECK_DELAY) {
+                return true;
+            }
+            lastCheck = now;
+            return file.lastModified() == lastModified;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package main.java.com.ubo.tp.message.ihm.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Résumé des changements survenus sur une liste d'entités depuis la dernière
+ * mise à jour de l'affichage.
+ * <p>
+ * Les évènements successifs sur une même entité sont fusionnés : seul son
+ * dernier état est conservé (un ajout suivi d'une modification reste un
+ * ajout, une suppression annule l'ajout ou la modification en attente). Une
+ * demande de rafraîchissement complet remplace tous les changements
+ * détaillés.
+ *
+ * @param <T> Type des entités
+ */
+public class ChangeSummary<T> {
+
+    /**
+     * Identifiant des entités
+     */
+    private final Function<T, UUID> keyExtractor;
+
+    /**
+     * Entités ajoutées, par identifiant
+     */
+    private final Map<UUID, T> added = new LinkedHashMap<>();
+
+    /**
+     * Entités modifiées, par identifiant
+     */
+    private final Map<UUID, T> modified = new LinkedHashMap<>();
+
+    /**
+     * Entités supprimées, par identifiant
+     */
+    private final Map<UUID, T> removed = new LinkedHashMap<>();
+
+    /**
+     * Indique qu'un rafraîchissement complet est demandé
+     */
+    private boolean refresh;
+
+    /**
+     * Constructeur
+     *
+     * @param keyExtractor Identifiant des entités
+     */
+    ChangeSummary(Function<T, UUID> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Enregistre l'ajout d'une entité
+     */
+    void add(T entity) {
+        if (!refresh) {
+            UUID key = keyExtractor.apply(entity);
+            removed.remove(key);
+            modified.remove(key);
+            added.put(key, entity);
+        }
+    }
+
+    /**
+     * Enregistre la modification d'une entité
+     */
+    void modify(T entity) {
+        if (!refresh) {
+            UUID key = keyExtractor.apply(entity);
+            removed.remove(key);
+            if (added.containsKey(key)) {
+                added.put(key, entity);
+            } else {
+                modified.put(key, entity);
+            }
+        }
+    }
+
+    /**
+     * Enregistre la suppression d'une entité
+     */
+    void remove(T entity) {
+        if (!refresh) {
+            UUID key = keyExtractor.apply(entity);
+            modified.remove(key);
+
+            // Entité ajoutée dans le même lot : jamais affichée, rien à supprimer
+            if (added.remove(key) == null) {
+                removed.put(key, entity);
+            }
+        }
+    }
+
+    /**
+     * Enregistre une demande de rafraîchissement complet
+     */
+    void refresh() {
+        refresh = true;
+        added.clear();
+        modified.clear();
+        removed.clear();
+    }
+
+    /**
+     * Retourne les entités ajoutées
+     */
+    public Collection<T> getAdded() {
+        return new ArrayList<>(added.values());
+    }
+
+    /**
+     * Retourne les entités modifiées
+     */
+    public Collection<T> getModified() {
+        return new ArrayList<>(modified.values());
+    }
+
+    /**
+     * Retourne les entités supprimées
+     */
+    public Collection<T> getRemoved() {
+        return new ArrayList<>(removed.values());
+    }
+
+    /**
+     * Indique qu'un rafraîchissement complet est demandé
+     */
+    public boolean isRefresh() {
+        return refresh;
+    }
+
+    /**
+     * Indique qu'aucun changement n'est enregistré
+     */
+    public boolean isEmpty() {
+        return !refresh && added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return refresh ? "[rafraîchissement]"
+                : "[+" + added.size() + " ~" + modified.size() + " -" + removed.size() + "]";
+    }
+}
@@ -0,0 +1,18 @@
+package main.java.com.ubo.tp.message.ihm.dispatch;
+
+/**
+ * Interface d'observation des changements regroupés par un
+ * {@link UiUpdateDispatcher}.
+ *
+ * @param <T> Type des entités
+ */
+public interface IChangeObserver<T> {
+
+    /**
+     * Notification des changements survenus depuis la dernière notification
+     * (toujours appelée sur l'EDT).
+     *
+     * @param changes Résumé des changements
+     */
+    void notifyChanges(ChangeSummary<T> changes);
+}
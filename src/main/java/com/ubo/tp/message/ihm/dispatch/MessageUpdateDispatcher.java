@@ -0,0 +1,54 @@
+package main.java.com.ubo.tp.message.ihm.dispatch;
+
+import java.util.Collection;
+
+import main.java.com.ubo.tp.message.datamodel.message.IMessage;
+import main.java.com.ubo.tp.message.datamodel.message.IMessageListObserver;
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+
+/**
+ * Regroupement des évènements de la liste des messages pour les vues.
+ */
+public class MessageUpdateDispatcher extends UiUpdateDispatcher<Message> implements IMessageListObserver {
+
+    /**
+     * Constructeur
+     *
+     * @param messageList Liste des messages observée
+     * @param maxRefreshRate Nombre maximal de rafraîchissements par seconde
+     */
+    public MessageUpdateDispatcher(IMessage messageList, int maxRefreshRate) {
+        super(Message::getUuid, maxRefreshRate);
+        messageList.addObserver(this);
+    }
+
+    @Override
+    public void notifyMessageAdded(Message addedMessage) {
+        post(changes -> changes.add(addedMessage));
+    }
+
+    @Override
+    public void notifyMessagesAdded(Collection<Message> addedMessages) {
+        post(changes -> addedMessages.forEach(changes::add));
+    }
+
+    @Override
+    public void notifyMessageDeleted(Message deletedMessage) {
+        post(changes -> changes.remove(deletedMessage));
+    }
+
+    @Override
+    public void notifyMessagesDeleted(Collection<Message> deletedMessages) {
+        post(changes -> deletedMessages.forEach(changes::remove));
+    }
+
+    @Override
+    public void notifyMessageModified(Message modifiedMessage) {
+        post(changes -> changes.modify(modifiedMessage));
+    }
+
+    @Override
+    public void notifyRefreshMessage() {
+        post(ChangeSummary::refresh);
+    }
+}
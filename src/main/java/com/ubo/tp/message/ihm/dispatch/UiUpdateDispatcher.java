@@ -0,0 +1,137 @@
+package main.java.com.ubo.tp.message.ihm.dispatch;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Intermédiaire entre le modèle et les vues : les évènements du modèle (reçus
+ * sur n'importe quel thread) sont regroupés dans un {@link ChangeSummary},
+ * transmis aux vues sur l'EDT, au plus une fois par intervalle de
+ * rafraîchissement.
+ *
+ * @param <T> Type des entités
+ */
+public abstract class UiUpdateDispatcher<T> {
+
+    /**
+     * Nombre maximal de rafraîchissements par seconde par défaut
+     */
+    public static final int DEFAULT_MAX_REFRESH_RATE = 30;
+
+    /**
+     * Liste des observateurs (vues)
+     */
+    private final List<IChangeObserver<T>> observers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Identifiant des entités
+     */
+    private final Function<T, UUID> keyExtractor;
+
+    /**
+     * Intervalle minimal entre deux rafraîchissements (en ms)
+     */
+    private final int refreshPeriod;
+
+    /**
+     * Timer de déclenchement du rafraîchissement (sur l'EDT)
+     */
+    private final Timer flushTimer;
+
+    /**
+     * Changements en attente
+     */
+    private ChangeSummary<T> pendingChanges;
+
+    /**
+     * Indique qu'un rafraîchissement est programmé
+     */
+    private boolean isFlushScheduled;
+
+    /**
+     * Date du dernier rafraîchissement (en ms)
+     */
+    private long lastFlush;
+
+    /**
+     * Constructeur
+     *
+     * @param keyExtractor Identifiant des entités
+     * @param maxRefreshRate Nombre maximal de rafraîchissements par seconde
+     */
+    protected UiUpdateDispatcher(Function<T, UUID> keyExtractor, int maxRefreshRate) {
+        this.keyExtractor = keyExtractor;
+        this.refreshPeriod = 1000 / Math.max(1, maxRefreshRate);
+        this.pendingChanges = new ChangeSummary<>(keyExtractor);
+
+        this.flushTimer = new Timer(refreshPeriod, e -> flush());
+        this.flushTimer.setRepeats(false);
+    }
+
+    /**
+     * Ajoute un observateur
+     *
+     * @param observer L'observateur à ajouter
+     */
+    public void addObserver(IChangeObserver<T> observer) {
+        if (observer != null && !observers.contains(observer)) {
+            observers.add(observer);
+        }
+    }
+
+    /**
+     * Retire un observateur
+     *
+     * @param observer L'observateur à retirer
+     */
+    public void removeObserver(IChangeObserver<T> observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Enregistre un changement et programme le rafraîchissement
+     *
+     * @param change Changement à appliquer au résumé en attente
+     */
+    protected void post(Consumer<ChangeSummary<T>> change) {
+        long delay;
+        synchronized (this) {
+            change.accept(pendingChanges);
+            if (isFlushScheduled) {
+                return;
+            }
+            isFlushScheduled = true;
+            delay = Math.max(0, lastFlush + refreshPeriod - System.currentTimeMillis());
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            flushTimer.setInitialDelay((int) delay);
+            flushTimer.restart();
+        });
+    }
+
+    /**
+     * Transmet les changements en attente aux observateurs (sur l'EDT)
+     */
+    private void flush() {
+        ChangeSummary<T> changes;
+        synchronized (this) {
+            changes = pendingChanges;
+            pendingChanges = new ChangeSummary<>(keyExtractor);
+            isFlushScheduled = false;
+            lastFlush = System.currentTimeMillis();
+        }
+
+        if (!changes.isEmpty()) {
+            for (IChangeObserver<T> observer : observers) {
+                observer.notifyChanges(changes);
+            }
+        }
+    }
+}
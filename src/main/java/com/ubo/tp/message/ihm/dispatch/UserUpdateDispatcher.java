@@ -0,0 +1,54 @@
+package main.java.com.ubo.tp.message.ihm.dispatch;
+
+import java.util.Collection;
+
+import main.java.com.ubo.tp.message.datamodel.user.IUser;
+import main.java.com.ubo.tp.message.datamodel.user.IUserListObserver;
+import main.java.com.ubo.tp.message.datamodel.user.User;
+
+/**
+ * Regroupement des évènements de la liste des utilisateurs pour les vues.
+ */
+public class UserUpdateDispatcher extends UiUpdateDispatcher<User> implements IUserListObserver {
+
+    /**
+     * Constructeur
+     *
+     * @param userList Liste des utilisateurs observée
+     * @param maxRefreshRate Nombre maximal de rafraîchissements par seconde
+     */
+    public UserUpdateDispatcher(IUser userList, int maxRefreshRate) {
+        super(User::getUuid, maxRefreshRate);
+        userList.addObserver(this);
+    }
+
+    @Override
+    public void notifyUserAdded(User addedUser) {
+        post(changes -> changes.add(addedUser));
+    }
+
+    @Override
+    public void notifyUsersAdded(Collection<User> addedUsers) {
+        post(changes -> addedUsers.forEach(changes::add));
+    }
+
+    @Override
+    public void notifyUserDeleted(User deletedUser) {
+        post(changes -> changes.remove(deletedUser));
+    }
+
+    @Override
+    public void notifyUsersDeleted(Collection<User> deletedUsers) {
+        post(changes -> deletedUsers.forEach(changes::remove));
+    }
+
+    @Override
+    public void notifyUserModified(User modifiedUser) {
+        post(changes -> changes.modify(modifiedUser));
+    }
+
+    @Override
+    public void notifyRefreshUser() {
+        post(ChangeSummary::refresh);
+    }
+}
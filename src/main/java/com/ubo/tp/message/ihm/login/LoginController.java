@@ -100,8 +100,12 @@ public class LoginController {
         // Création du nouvel utilisateur
         User newUser = createUser(name, tag, password, avatarPath);
 
-        // Génération du fichier utilisateur
-        entityManager.writeUserFile(newUser);
+        // Génération différée du fichier utilisateur
+        entityManager.writeUserFile(newUser).whenComplete((result, error) -> {
+            if (error != null) {
+                System.err.println("Impossible d'enregistrer l'utilisateur " + tag + " : " + error.getMessage());
+            }
+        });
 
         //userList.addUser(newUser);
 
@@ -70,8 +70,12 @@ public class MessageComposeController {
             // Ajout du message à la base de donnée
             messageList.addMessage(newMessage);
 
-            // Génération du fichier message
-            entityManager.writeMessageFile(newMessage);
+            // Génération différée du fichier message
+            entityManager.writeMessageFile(newMessage).whenComplete((result, error) -> {
+                if (error != null) {
+                    System.err.println("Impossible d'enregistrer le message : " + error.getMessage());
+                }
+            });
 
             return null; // Pas d'erreur
         } catch (Exception e) {
@@ -3,6 +3,7 @@ package main.java.com.ubo.tp.message.ihm.messages.list;
 import java.util.*;
 
 import main.java.com.ubo.tp.message.core.session.ISession;
+import main.java.com.ubo.tp.message.core.session.SessionTimeline;
 import main.java.com.ubo.tp.message.datamodel.message.IMessage;
 import main.java.com.ubo.tp.message.datamodel.message.Message;
 import main.java.com.ubo.tp.message.datamodel.user.IUser;
@@ -22,6 +23,16 @@ public class MessageListController {
 
     private final IUser userList;
 
+    /**
+     * Fil d'actualité de l'utilisateur connecté, maintenu au fil des évènements
+     */
+    private final SessionTimeline timeline;
+
+    /**
+     * Index plein texte des messages
+     */
+    private final MessageSearchIndex searchIndex;
+
     /**
      * Constructeur
      *
@@ -31,6 +42,10 @@ public class MessageListController {
         this.session = session;
         this.messageList = message;
         this.userList = user;
+
+        // Enregistré avant la vue : le fil est à jour lorsqu'elle est notifiée
+        this.timeline = new SessionTimeline(session, message, user);
+        this.searchIndex = new MessageSearchIndex(message);
     }
 
     /**
@@ -40,47 +55,43 @@ public class MessageListController {
      * @return Liste des messages pertinents
      */
     public List<Message> getRelevantMessages() {
-        User currentUser = session.getConnectedUser();
-
-        if (currentUser == null) {
-            return new ArrayList<>();
-        }
-
-        // Récupération des utilisateurs suivis
-        Set<String> followedTags = currentUser.getFollows();
-
-        // Ensemble des messages à afficher
-
-        // Messages de l'utilisateur connecté
-        Set<Message> relevantMessages = new HashSet<>(messageList.getUserMessages(currentUser));
-
-        // Messages des utilisateurs suivis
-        for (User user : userList.getUsers()) {
-            if (followedTags.contains(user.getUserTag())) {
-                relevantMessages.addAll(messageList.getUserMessages(user));
-            }
-        }
+        return timeline.getMessages();
+    }
 
-        // Conversion en liste et tri
-        List<Message> messageList = new ArrayList<>(relevantMessages);
-        messageList.sort(Comparator.comparingLong(Message::getEmissionDate));
+    /**
+     * Récupère la page de messages pertinents précédant le curseur
+     *
+     * @param cursor Message de référence (null pour les plus récents)
+     * @param pageSize Nombre maximal de messages
+     * @return Page de messages, par ordre chronologique
+     */
+    public List<Message> getRelevantMessagesPage(Message cursor, int pageSize) {
+        return timeline.getPageBefore(cursor, pageSize);
+    }
 
-        return messageList;
+    /**
+     * Indique si le message fait partie des messages pertinents
+     *
+     * @param message Message à vérifier
+     */
+    public boolean isRelevant(Message message) {
+        return timeline.contains(message);
     }
 
     /**
      * Recherche des messages
      *
      * @param searchQuery Texte de recherche
-     * @return Liste des messages correspondants
+     * @param limit Nombre maximal de résultats (les plus récents)
+     * @return Liste des messages correspondants, par ordre chronologique
      */
-    public List<Message> searchMessages(String searchQuery) {
+    public List<Message> searchMessages(String searchQuery, int limit) {
         if (searchQuery == null || searchQuery.trim().isEmpty()) {
             return getRelevantMessages();
         }
 
         searchQuery = searchQuery.trim();
-        Set<Message> searchResults = new HashSet<>();
+        NavigableSet<Message> searchResults = new TreeSet<>(Message.EMISSION_DATE_COMPARATOR);
 
         // Recherche par utilisateur (@...)
         if (searchQuery.startsWith("@")) {
@@ -89,41 +100,55 @@ public class MessageListController {
             // Messages émis par cet utilisateur
             for (User user : userList.getUsers()) {
                 if (user.getUserTag().equals(userTag)) {
-                    searchResults.addAll(messageList.getUserMessages(user));
+                    searchResults.addAll(messageList.getLatestUserMessages(user, limit));
                     break;
                 }
             }
 
             // Messages citant cet utilisateur
-            searchResults.addAll(messageList.getMessagesWithUserTag(userTag));
+            searchResults.addAll(messageList.getLatestMessagesWithUserTag(userTag, limit));
         }
         // Recherche par tag (#...)
         else if (searchQuery.startsWith("#")) {
             String tag = searchQuery.substring(1);
-            searchResults.addAll(messageList.getMessagesWithTag(tag));
+            searchResults.addAll(messageList.getLatestMessagesWithTag(tag, limit));
         }
         // Recherche générale (union des deux critères)
         else {
-            // Partie 1: Recherche par tous les utilisateurs possibles
+            // Partie 1: Recherche par tous les utilisateurs possibles (seuls leurs
+            // derniers messages sont lus)
             for (User user : userList.getUsers()) {
                 if (user.getUserTag().contains(searchQuery) || user.getName().contains(searchQuery)) {
                     // Messages émis par ces utilisateurs
-                    searchResults.addAll(messageList.getUserMessages(user));
+                    searchResults.addAll(messageList.getLatestUserMessages(user, limit));
 
                     // Messages citant ces utilisateurs
-                    searchResults.addAll(messageList.getMessagesWithUserTag(user.getUserTag()));
+                    searchResults.addAll(messageList.getLatestMessagesWithUserTag(user.getUserTag(), limit));
                 }
+                trimToLatest(searchResults, limit);
             }
 
             // Partie 2: Recherche pour tous les tags possibles
             // Considérer le terme comme un tag potentiel
-            searchResults.addAll(messageList.getMessagesWithTag(searchQuery));
+            searchResults.addAll(messageList.getLatestMessagesWithTag(searchQuery, limit));
+
+            // Partie 3: Recherche plein texte dans le corps des messages
+            searchResults.addAll(searchIndex.search(searchQuery, limit));
         }
 
-        // Conversion en liste et tri
-        List<Message> messageList = new ArrayList<>(searchResults);
-        messageList.sort(Comparator.comparingLong(Message::getEmissionDate));
+        trimToLatest(searchResults, limit);
+        return new ArrayList<>(searchResults);
+    }
 
-        return messageList;
+    /**
+     * Ne conserve que les messages les plus récents
+     *
+     * @param sortedMessages Messages triés par ordre chronologique
+     * @param limit Nombre maximal de messages conservés
+     */
+    private static void trimToLatest(NavigableSet<Message> sortedMessages, int limit) {
+        while (sortedMessages.size() > limit) {
+            sortedMessages.pollFirst();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package main.java.com.ubo.tp.message.ihm.messages.list;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.swing.AbstractListModel;
+
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+
+/**
+ * Modèle de la liste des messages affichés, trié par ordre chronologique.
+ * <p>
+ * Les mises à jour sont incrémentales : l'ajout d'un message insère une seule
+ * ligne à sa place. Le modèle doit être manipulé depuis l'EDT.
+ */
+public class MessageListModel extends AbstractListModel<Message> {
+
+    /**
+     * Taille de lot au-delà de laquelle le modèle est rechargé en une fois
+     * plutôt que ligne par ligne
+     */
+    private static final int BATCH_RELOAD_THRESHOLD = 256;
+
+    /**
+     * Messages affichés, par ordre chronologique
+     */
+    private final List<Message> messages = new ArrayList<>();
+
+    /**
+     * Messages affichés, par identifiant
+     */
+    private final Map<UUID, Message> messagesById = new HashMap<>();
+
+    @Override
+    public int getSize() {
+        return messages.size();
+    }
+
+    @Override
+    public Message getElementAt(int index) {
+        return messages.get(index);
+    }
+
+    /**
+     * Remplace l'ensemble des messages affichés
+     *
+     * @param newMessages Messages à afficher
+     */
+    public void setMessages(Collection<Message> newMessages) {
+        int oldSize = messages.size();
+        messages.clear();
+        messagesById.clear();
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+
+        for (Message message : newMessages) {
+            if (messagesById.put(message.getUuid(), message) == null) {
+                messages.add(message);
+            }
+        }
+        messages.sort(Message.EMISSION_DATE_COMPARATOR);
+        if (!messages.isEmpty()) {
+            fireIntervalAdded(this, 0, messages.size() - 1);
+        }
+    }
+
+    /**
+     * Insère un message à sa place (ou remplace sa copie affichée)
+     *
+     * @param message Message à insérer
+     * @return Position du message dans la liste
+     */
+    public int addMessage(Message message) {
+        removeMessage(message);
+
+        int index = -Collections.binarySearch(messages, message, Message.EMISSION_DATE_COMPARATOR) - 1;
+        messages.add(index, message);
+        messagesById.put(message.getUuid(), message);
+        fireIntervalAdded(this, index, index);
+
+        return index;
+    }
+
+    /**
+     * Insère un lot de messages, chacun à sa place (une notification par ligne
+     * insérée). Un lot volumineux recharge le modèle en une seule fois.
+     *
+     * @param newMessages Messages à insérer
+     * @return Position la plus haute occupée par un message du lot
+     */
+    public int addMessages(Collection<Message> newMessages) {
+        if (newMessages.size() > BATCH_RELOAD_THRESHOLD) {
+            Map<UUID, Message> allMessages = new HashMap<>(messagesById);
+            for (Message message : newMessages) {
+                allMessages.put(message.getUuid(), message);
+            }
+            setMessages(new ArrayList<>(allMessages.values()));
+            return messages.size() - 1;
+        }
+
+        // Insertion par ordre chronologique : le dernier inséré est le plus récent du lot
+        List<Message> sortedMessages = new ArrayList<>(newMessages);
+        sortedMessages.sort(Message.EMISSION_DATE_COMPARATOR);
+        int lastIndex = -1;
+        for (Message message : sortedMessages) {
+            lastIndex = addMessage(message);
+        }
+        return lastIndex;
+    }
+
+    /**
+     * Retire un message (identifié par son UUID)
+     *
+     * @param message Message à retirer
+     */
+    public void removeMessage(Message message) {
+        Message displayedMessage = messagesById.remove(message.getUuid());
+        if (displayedMessage != null) {
+            int index = Collections.binarySearch(messages, displayedMessage, Message.EMISSION_DATE_COMPARATOR);
+            messages.remove(index);
+            fireIntervalRemoved(this, index, index);
+        }
+    }
+
+    /**
+     * Indique si le message est affiché
+     *
+     * @param message Message à vérifier
+     */
+    public boolean contains(Message message) {
+        return messagesById.containsKey(message.getUuid());
+    }
+}
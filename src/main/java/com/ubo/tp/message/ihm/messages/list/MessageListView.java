@@ -4,6 +4,7 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.imageio.ImageIO;
@@ -11,23 +12,43 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 
 import main.java.com.ubo.tp.message.core.session.ISession;
 import main.java.com.ubo.tp.message.datamodel.message.Message;
-import main.java.com.ubo.tp.message.datamodel.message.IMessage;
-import main.java.com.ubo.tp.message.datamodel.message.IMessageListObserver;
+import main.java.com.ubo.tp.message.ihm.CachedHeightListUI;
+import main.java.com.ubo.tp.message.ihm.dispatch.ChangeSummary;
+import main.java.com.ubo.tp.message.ihm.dispatch.IChangeObserver;
+import main.java.com.ubo.tp.message.ihm.dispatch.MessageUpdateDispatcher;
 import main.java.com.ubo.tp.message.ihm.messages.list.cell.MessageCellView;
+import main.java.com.ubo.tp.message.ihm.search.SearchPipeline;
 
 /**
  * Composant d'affichage de la liste des messages
  */
-public class MessageListView extends JPanel implements IMessageListObserver {
+public class MessageListView extends JPanel implements IChangeObserver<Message> {
 
     /**
      * Chemin vers les icônes
      */
     private static final String ICON_PATH = "MessageApp/src/main/resources/images/";
 
+    /**
+     * Nom de la carte affichant la liste
+     */
+    private static final String LIST_CARD = "list";
+
+    /**
+     * Nom de la carte affichée lorsque la liste est vide
+     */
+    private static final String EMPTY_CARD = "empty";
+
+    /**
+     * Nombre maximal de résultats de recherche affichés (les plus récents)
+     */
+    private static final int SEARCH_RESULTS_LIMIT = 200;
+
     /**
      * Contrôleur de liste de messages
      */
@@ -39,7 +60,17 @@ public class MessageListView extends JPanel implements IMessageListObserver {
     private final ISession session;
 
     /**
-     * Panneau contenant la liste des messages
+     * Modèle de la liste des messages affichés
+     */
+    private final MessageListModel messageListModel;
+
+    /**
+     * Liste des messages (seules les lignes visibles sont peintes)
+     */
+    private JList<Message> messagesList;
+
+    /**
+     * Panneau alternant la liste et le message "liste vide"
      */
     private JPanel messagesPanel;
 
@@ -58,17 +89,32 @@ public class MessageListView extends JPanel implements IMessageListObserver {
      */
     private final SimpleDateFormat dateFormat;
 
+    /**
+     * Recherche asynchrone (anti-rebond, hors EDT)
+     */
+    private final SearchPipeline<List<Message>> searchPipeline;
+
+    /**
+     * Indique qu'un rechargement complet est en cours (les évènements reçus
+     * entre-temps relancent le rechargement au lieu d'être appliqués au modèle)
+     */
+    private volatile boolean isRefreshPending;
+
     /**
      * Constructeur
      *
      * @param messageListController Contrôleur de liste de messages
      * @param session Session active
+     * @param messageDispatcher Changements de la liste des messages (regroupés, sur l'EDT)
      */
-    public MessageListView(MessageListController messageListController, ISession session, IMessage message) {
+    public MessageListView(MessageListController messageListController, ISession session, MessageUpdateDispatcher messageDispatcher) {
         this.messageListController = messageListController;
         this.session = session;
         this.dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-        message.addObserver(this);
+        this.messageListModel = new MessageListModel();
+        this.searchPipeline = new SearchPipeline<>("messages",
+                query -> messageListController.searchMessages(query, SEARCH_RESULTS_LIMIT), this::displayMessages);
+        messageDispatcher.addObserver(this);
 
         // Initialisation de l'interface
         this.initUI();
@@ -98,13 +144,13 @@ public class MessageListView extends JPanel implements IMessageListObserver {
         // Écouteur pour la recherche en temps réel
         searchField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public void insertUpdate(DocumentEvent e) { searchMessages(); }
+            public void insertUpdate(DocumentEvent e) { searchPipeline.submit(searchField.getText().trim()); }
 
             @Override
-            public void removeUpdate(DocumentEvent e) { searchMessages(); }
+            public void removeUpdate(DocumentEvent e) { searchPipeline.submit(searchField.getText().trim()); }
 
             @Override
-            public void changedUpdate(DocumentEvent e) { searchMessages(); }
+            public void changedUpdate(DocumentEvent e) { searchPipeline.submit(searchField.getText().trim()); }
         });
 
         searchPanel.add(searchField, BorderLayout.CENTER);
@@ -124,39 +170,67 @@ public class MessageListView extends JPanel implements IMessageListObserver {
         // Ajout du panneau de recherche
         this.add(searchPanel, BorderLayout.NORTH);
 
-        // Création du panneau pour la liste des messages
-        messagesPanel = new JPanel();
-        messagesPanel.setLayout(new BoxLayout(messagesPanel, BoxLayout.Y_AXIS));
+        // Liste des messages, avec un rendu unique partagé par toutes les lignes
+        messagesList = new JList<>(messageListModel);
+        messagesList.setCellRenderer(new MessageCellView(dateFormat, session));
+        messagesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        messagesList.setFocusable(false);
+
+        // La hauteur des lignes dépend de la largeur (retour à la ligne) : seules
+        // les nouvelles lignes sont mesurées, toutes le sont à nouveau si la largeur change
+        messagesList.setUI(new CachedHeightListUI());
 
         // Ajout d'un scroll pane
-        scrollPane = new JScrollPane(messagesPanel);
+        scrollPane = new JScrollPane(messagesList);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
 
-        this.add(scrollPane, BorderLayout.CENTER);
+        // Message d'information lorsque la liste est vide
+        JLabel noMessagesLabel = new JLabel("Aucun message à afficher", SwingConstants.CENTER);
+        noMessagesLabel.setFont(noMessagesLabel.getFont().deriveFont(Font.ITALIC));
+
+        messagesPanel = new JPanel(new CardLayout());
+        messagesPanel.add(scrollPane, LIST_CARD);
+        messagesPanel.add(noMessagesLabel, EMPTY_CARD);
+
+        messageListModel.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) { updateEmptyState(); }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) { updateEmptyState(); }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) { updateEmptyState(); }
+        });
+        updateEmptyState();
+
+        this.add(messagesPanel, BorderLayout.CENTER);
+    }
+
+    /**
+     * Affiche la liste ou le message "liste vide"
+     */
+    private void updateEmptyState() {
+        ((CardLayout) messagesPanel.getLayout()).show(messagesPanel, messageListModel.getSize() == 0 ? EMPTY_CARD : LIST_CARD);
     }
 
     /**
      * Effectue une recherche et actualise la liste des messages
      */
     private void searchMessages() {
-        String query = searchField.getText().trim();
-        List<Message> messages = messageListController.searchMessages(query);
-        displayMessages(messages);
+        isRefreshPending = true;
+        searchPipeline.submitNow(searchField.getText().trim());
     }
 
     /**
      * Actualise la liste des messages
      */
     public void refreshMessages() {
-        // Utiliser la recherche si un terme est saisi, sinon afficher les messages pertinents
-        if (searchField != null && !searchField.getText().trim().isEmpty()) {
-            searchMessages();
-        } else {
-            List<Message> messages = messageListController.getRelevantMessages();
-            displayMessages(messages);
-        }
+        // La recherche vide renvoie les messages pertinents
+        isRefreshPending = true;
+        searchPipeline.submitNow(searchField != null ? searchField.getText().trim() : "");
     }
 
     /**
@@ -165,69 +239,65 @@ public class MessageListView extends JPanel implements IMessageListObserver {
      * @param messages Liste des messages à afficher
      */
     private void displayMessages(List<Message> messages) {
-        // Effacer le panneau actuel
-        messagesPanel.removeAll();
-
-        // Vérifier s'il y a des messages
-        if (messages.isEmpty()) {
-            // Ajout d'un message d'information
-            JLabel noMessagesLabel = new JLabel("Aucun message à afficher");
-            noMessagesLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            noMessagesLabel.setFont(noMessagesLabel.getFont().deriveFont(Font.ITALIC));
-            noMessagesLabel.setBorder(new EmptyBorder(20, 0, 0, 0));
-
-            messagesPanel.add(Box.createVerticalGlue());
-            messagesPanel.add(noMessagesLabel);
-            messagesPanel.add(Box.createVerticalGlue());
-        } else {
-            // Ajouter chaque message
-            for (Message message : messages) {
-                // Passer la session au constructeur de MessageCellView
-                MessageCellView cellView = new MessageCellView(message, dateFormat, session);
-                messagesPanel.add(cellView);
-
-                // Ajouter un séparateur
-                messagesPanel.add(Box.createRigidArea(new Dimension(0, 1)));
-                JSeparator separator = new JSeparator();
-                separator.setMaximumSize(new Dimension(Integer.MAX_VALUE, 1));
-                messagesPanel.add(separator);
-                messagesPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-            }
-        }
-
-        // Ajouter un espace de remplissage en bas
-        messagesPanel.add(Box.createVerticalGlue());
-
-        // Rafraîchir l'affichage
-        messagesPanel.revalidate();
-        messagesPanel.repaint();
+        isRefreshPending = false;
+        messageListModel.setMessages(messages);
 
         // Défilement automatique vers le bas
-        SwingUtilities.invokeLater(() -> {
-            JScrollBar vertical = scrollPane.getVerticalScrollBar();
-            vertical.setValue(vertical.getMaximum());
-        });
+        scrollToBottom();
     }
 
-    @Override
-    public void notifyMessageAdded(Message addedMessage) {
-        refreshMessages();
+    /**
+     * Défilement jusqu'au dernier message
+     */
+    private void scrollToBottom() {
+        int lastIndex = messageListModel.getSize() - 1;
+        if (lastIndex >= 0) {
+            messagesList.ensureIndexIsVisible(lastIndex);
+        }
     }
 
-    @Override
-    public void notifyMessageDeleted(Message deletedMessage) {
-        refreshMessages();
+    /**
+     * Indique si la liste affiche une recherche (et non les messages pertinents)
+     */
+    private boolean isSearching() {
+        return !searchField.getText().trim().isEmpty();
     }
 
     @Override
-    public void notifyRefreshMessage() {
-        refreshMessages();
-    }
+    public void notifyChanges(ChangeSummary<Message> changes) {
+        if (changes.isRefresh() || isRefreshPending || isSearching()) {
+            // Rechargement complet (les résultats de recherche sont recalculés)
+            refreshMessages();
+            return;
+        }
 
-    @Override
-    public void notifyMessageModified(Message modifiedMessage) {
-        refreshMessages();
-    }
+        for (Message message : changes.getRemoved()) {
+            messageListModel.removeMessage(message);
+        }
 
+        List<Message> relevantMessages = new ArrayList<>();
+        List<Message> changedMessages = new ArrayList<>(changes.getAdded());
+        changedMessages.addAll(changes.getModified());
+        for (Message message : changedMessages) {
+            if (messageListController.isRelevant(message)) {
+                relevantMessages.add(message);
+            } else {
+                messageListModel.removeMessage(message);
+            }
+        }
 
-}
\ No newline at end of file
+        if (relevantMessages.size() == 1) {
+            // Insertion d'une seule ligne
+            int index = messageListModel.addMessage(relevantMessages.get(0));
+            if (index == messageListModel.getSize() - 1) {
+                scrollToBottom();
+            }
+        } else if (!relevantMessages.isEmpty()) {
+            // Insertion ligne par ligne : la position de défilement est conservée
+            int lastIndex = messageListModel.addMessages(relevantMessages);
+            if (lastIndex == messageListModel.getSize() - 1) {
+                scrollToBottom();
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package main.java.com.ubo.tp.message.ihm.messages.list;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import main.java.com.ubo.tp.message.datamodel.message.IMessage;
+import main.java.com.ubo.tp.message.datamodel.message.IMessageListObserver;
+import main.java.com.ubo.tp.message.datamodel.message.Message;
+
+/**
+ * Index inversé plein texte sur le corps des messages (mot -> messages qui le
+ * contiennent, par ordre chronologique).
+ * <p>
+ * Syntaxe des requêtes :
+ * <ul>
+ * <li>plusieurs mots : messages contenant tous les mots (ET) ;</li>
+ * <li>"mots entre guillemets" : messages contenant l'expression exacte ;</li>
+ * <li>le dernier mot saisi est traité comme un préfixe (recherche à la
+ * frappe).</li>
+ * </ul>
+ * Les résultats sont classés du plus récent au plus ancien.
+ */
+public class MessageSearchIndex implements IMessageListObserver {
+
+    /**
+     * Messages indexés, par mot (en minuscules).
+     */
+    private final NavigableMap<String, NavigableSet<Message>> postings = new ConcurrentSkipListMap<>();
+
+    /**
+     * Copie indexée de chaque message, par identifiant.
+     */
+    private final Map<UUID, Message> indexedMessages = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur
+     *
+     * @param messageList Liste des messages à indexer (et à suivre)
+     */
+    public MessageSearchIndex(IMessage messageList) {
+        messageList.addObserver(this);
+        for (Message message : messageList.getMessages()) {
+            index(message);
+        }
+    }
+
+    /**
+     * Recherche les messages correspondant à la requête
+     *
+     * @param query Requête (mots, "expressions" et préfixe final)
+     * @param limit Nombre maximal de résultats
+     * @return Messages correspondants, du plus récent au plus ancien
+     */
+    public List<Message> search(String query, int limit) {
+        List<Message> results = new ArrayList<>();
+        if (query == null || limit <= 0) {
+            return results;
+        }
+
+        // Analyse de la requête : mots, expressions et préfixe éventuel
+        List<String> terms = new ArrayList<>();
+        List<List<String>> phrases = new ArrayList<>();
+        String prefix = parseQuery(query, terms, phrases);
+        if (terms.isEmpty() && prefix == null) {
+            return results;
+        }
+
+        // Listes de messages à intersecter (la plus courte sert de parcours)
+        List<NavigableSet<Message>> candidateSets = new ArrayList<>();
+        for (String term : terms) {
+            NavigableSet<Message> posting = postings.get(term);
+            if (posting == null) {
+                return results;
+            }
+            candidateSets.add(posting);
+        }
+        candidateSets.sort(Comparator.comparingInt(Set::size));
+
+        // Listes des mots commençant par le préfixe (non copiées)
+        Collection<NavigableSet<Message>> prefixPostings = Collections.emptyList();
+        if (prefix != null) {
+            prefixPostings = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            if (prefixPostings.isEmpty()) {
+                return results;
+            }
+        }
+
+        // Parcours du plus récent au plus ancien avec arrêt anticipé : par la plus
+        // courte liste de mots, sinon par la fusion des listes du préfixe
+        Iterator<Message> iterator = candidateSets.isEmpty()
+                ? new DescendingUnionIterator(prefixPostings)
+                : candidateSets.get(0).descendingIterator();
+        while (results.size() < limit && iterator.hasNext()) {
+            Message candidate = iterator.next();
+            if (containsInAll(candidateSets, candidate)
+                    && (candidateSets.isEmpty() || prefix == null || containsPrefix(candidate, prefix))
+                    && containsPhrases(candidate, phrases)) {
+                results.add(candidate);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Découpe la requête en mots et en expressions.
+     *
+     * @param query Requête saisie
+     * @param terms Mots à rechercher (complétée)
+     * @param phrases Expressions à vérifier (complétée)
+     * @return Le préfixe à compléter, null si la saisie du dernier mot est terminée
+     */
+    private static String parseQuery(String query, List<String> terms, List<List<String>> phrases) {
+        String prefix = null;
+        String[] parts = query.split("\"", -1);
+
+        for (int i = 0; i < parts.length; i++) {
+            List<String> tokens = tokenize(parts[i]);
+            boolean isPhrase = i % 2 == 1;
+            boolean isLastPart = i == parts.length - 1;
+
+            if (isPhrase && tokens.size() > 1) {
+                phrases.add(tokens);
+            }
+
+            // Le dernier mot hors guillemets, sans séparateur final, est un préfixe
+            if (!isPhrase && isLastPart && !tokens.isEmpty() && endsWithWordCharacter(parts[i])) {
+                prefix = tokens.remove(tokens.size() - 1);
+            }
+            terms.addAll(tokens);
+        }
+
+        // Le préfixe est inutile si le mot complet est déjà requis
+        if (prefix != null && terms.contains(prefix)) {
+            prefix = null;
+        }
+
+        return prefix;
+    }
+
+    /**
+     * Indique si le texte se termine par un caractère de mot.
+     */
+    private static boolean endsWithWordCharacter(String text) {
+        return !text.isEmpty() && Character.isLetterOrDigit(text.charAt(text.length() - 1));
+    }
+
+    /**
+     * Indique si un mot du message commence par le préfixe (vérifié sur les
+     * seuls candidats).
+     */
+    private static boolean containsPrefix(Message message, String prefix) {
+        for (String token : tokenize(message.getText())) {
+            if (token.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indique si le message appartient à tous les ensembles.
+     */
+    private static boolean containsInAll(List<NavigableSet<Message>> candidateSets, Message message) {
+        for (int i = 1; i < candidateSets.size(); i++) {
+            if (!candidateSets.get(i).contains(message)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indique si le message contient toutes les expressions (vérifié sur les
+     * seuls candidats).
+     */
+    private static boolean containsPhrases(Message message, List<List<String>> phrases) {
+        if (phrases.isEmpty()) {
+            return true;
+        }
+
+        List<String> tokens = tokenize(message.getText());
+        for (List<String> phrase : phrases) {
+            if (Collections.indexOfSubList(tokens, phrase) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Découpe un texte en mots (en minuscules, séparés par tout caractère qui
+     * n'est ni une lettre ni un chiffre).
+     *
+     * @param text Texte à découper
+     * @return Mots du texte, dans l'ordre
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String lowerCaseText = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCaseText.length(); i++) {
+            boolean isWordCharacter = i < lowerCaseText.length() && Character.isLetterOrDigit(lowerCaseText.charAt(i));
+            if (isWordCharacter && start < 0) {
+                start = i;
+            } else if (!isWordCharacter && start >= 0) {
+                tokens.add(lowerCaseText.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexe un message (en remplaçant une éventuelle ancienne copie).
+     */
+    private synchronized void index(Message message) {
+        unindex(message);
+        indexedMessages.put(message.getUuid(), message);
+        for (String token : new TreeSet<>(tokenize(message.getText()))) {
+            postings.computeIfAbsent(token, k -> new ConcurrentSkipListSet<>(Message.EMISSION_DATE_COMPARATOR)).add(message);
+        }
+    }
+
+    /**
+     * Retire un message (identifié par son UUID) de l'index.
+     */
+    private synchronized void unindex(Message message) {
+        Message indexedMessage = indexedMessages.remove(message.getUuid());
+        if (indexedMessage != null) {
+            for (String token : new TreeSet<>(tokenize(indexedMessage.getText()))) {
+                NavigableSet<Message> posting = postings.get(token);
+                if (posting != null) {
+                    posting.remove(indexedMessage);
+                    if (posting.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parcours, du plus récent au plus ancien, de l'union de plusieurs listes de
+     * messages : les listes sont fusionnées à la demande, sans copie, et un
+     * message présent dans plusieurs listes n'est renvoyé qu'une fois.
+     */
+    private static class DescendingUnionIterator implements Iterator<Message> {
+
+        /**
+         * Prochain message de chaque liste non épuisée (le plus récent en tête)
+         */
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(
+                (first, second) -> Message.EMISSION_DATE_COMPARATOR.compare(second.message, first.message));
+
+        /**
+         * Constructeur
+         *
+         * @param sortedSets Listes triées par ordre chronologique
+         */
+        DescendingUnionIterator(Collection<NavigableSet<Message>> sortedSets) {
+            for (NavigableSet<Message> sortedSet : sortedSets) {
+                advance(new Head(sortedSet.descendingIterator()));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Message next() {
+            if (heads.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+
+            Head head = heads.poll();
+            Message message = head.message;
+            advance(head);
+
+            // Le même message issu des autres listes est ignoré
+            while (!heads.isEmpty() && Message.EMISSION_DATE_COMPARATOR.compare(heads.peek().message, message) == 0) {
+                advance(heads.poll());
+            }
+            return message;
+        }
+
+        /**
+         * Passe au message suivant d'une liste (remise en file si elle n'est pas épuisée)
+         */
+        private void advance(Head head) {
+            if (head.iterator.hasNext()) {
+                head.message = head.iterator.next();
+                heads.add(head);
+            }
+        }
+
+        /**
+         * Position courante dans une liste
+         */
+        private static class Head {
+
+            private final Iterator<Message> iterator;
+
+            private Message message;
+
+            Head(Iterator<Message> iterator) {
+                this.iterator = iterator;
+            }
+        }
+    }
+
+    @Override
+    public void notifyMessageAdded(Message addedMessage) {
+        index(addedMessage);
+    }
+
+    @Override
+    public void notifyMessagesAdded(Collection<Message> addedMessages) {
+        for (Message message : addedMessages) {
+            index(message);
+        }
+    }
+
+    @Override
+    public void notifyMessageDeleted(Message deletedMessage) {
+        unindex(deletedMessage);
+    }
+
+    @Override
+    public void notifyMessagesDeleted(Collection<Message> deletedMessages) {
+        for (Message message : deletedMessages) {
+            unindex(message);
+        }
+    }
+
+    @Override
+    public void notifyMessageModified(Message modifiedMessage) {
+        index(modifiedMessage);
+    }
+
+    @Override
+    public void notifyRefreshMessage() {
+        // L'index est maintenu en continu
+    }
+}
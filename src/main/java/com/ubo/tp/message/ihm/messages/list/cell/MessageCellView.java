@@ -1,12 +1,9 @@
 package main.java.com.ubo.tp.message.ihm.messages.list.cell;
 
 import java.awt.*;
-import java.io.File;
-import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
@@ -15,16 +12,30 @@ import javax.swing.border.LineBorder;
 import main.java.com.ubo.tp.message.core.session.ISession;
 import main.java.com.ubo.tp.message.datamodel.message.Message;
 import main.java.com.ubo.tp.message.datamodel.user.User;
+import main.java.com.ubo.tp.message.ihm.avatar.AvatarManager;
 
 /**
- * Composant représentant une cellule de message dans la liste
+ * Rendu d'une cellule de message dans la liste.
+ * <p>
+ * Un seul composant est créé pour toute la liste : il est reconfiguré pour
+ * chaque ligne à peindre (principe du "tampon" des {@link ListCellRenderer}).
  */
-public class MessageCellView extends JPanel {
+public class MessageCellView extends JPanel implements ListCellRenderer<Message> {
 
     /**
-     * Message à afficher
+     * Largeur réservée à l'avatar
      */
-    private final Message message;
+    private static final int AVATAR_WIDTH = 50;
+
+    /**
+     * Espacement horizontal entre l'avatar et le contenu
+     */
+    private static final int HORIZONTAL_GAP = 10;
+
+    /**
+     * Fond des messages de l'utilisateur connecté
+     */
+    private static final Color CONNECTED_USER_BACKGROUND = new Color(240, 255, 240);
 
     /**
      * Format de date
@@ -36,15 +47,27 @@ public class MessageCellView extends JPanel {
      */
     private final ISession session;
 
+    /**
+     * Composants réutilisés pour chaque ligne
+     */
+    private JLabel avatarLabel;
+    private JLabel nameLabel;
+    private JLabel tagLabel;
+    private JLabel dateLabel;
+    private JTextArea textArea;
+
+    /**
+     * Police de l'avatar par défaut (initiale)
+     */
+    private Font initialFont;
+
     /**
      * Constructeur
      *
-     * @param message Message à afficher
      * @param dateFormat Format de date pour l'affichage
      * @param session Session active pour déterminer l'utilisateur connecté
      */
-    public MessageCellView(Message message, SimpleDateFormat dateFormat, ISession session) {
-        this.message = message;
+    public MessageCellView(SimpleDateFormat dateFormat, ISession session) {
         this.dateFormat = dateFormat;
         this.session = session;
 
@@ -55,18 +78,7 @@ public class MessageCellView extends JPanel {
      * Initialisation de l'interface utilisateur
      */
     private void initUI() {
-        // Récupération des données du message
-        User sender = message.getSender();
-        String messageText = message.getText();
-        Date messageDate = new Date(message.getEmissionDate());
-
-        // Vérifier si le message est de l'utilisateur connecté
-        User connectedUser = session.getConnectedUser();
-        boolean isCurrentUserMessage = message.getSender().equals(connectedUser);
-
-        // Configuration du layout en fonction de l'émetteur du message
-        this.setLayout(new BorderLayout(10, 5));
-        this.setMaximumSize(new Dimension(Integer.MAX_VALUE, 120));
+        this.setLayout(new BorderLayout(HORIZONTAL_GAP, 5));
 
         this.setBorder(new CompoundBorder(
                 new EmptyBorder(5, 2, 5, 2),
@@ -76,51 +88,18 @@ public class MessageCellView extends JPanel {
                 )
         ));
 
-        if (isCurrentUserMessage) {
-            // Message de l'utilisateur connecté
-            this.setBackground(new Color(240, 255, 240)); // Vert très clair
-        } else {
-            // Message des autres utilisateurs
-            this.setBackground(Color.WHITE);
-        }
-
         // Panneau pour l'avatar
         JPanel avatarPanel = new JPanel(new BorderLayout());
-        avatarPanel.setPreferredSize(new Dimension(50, 50));
+        avatarPanel.setPreferredSize(new Dimension(AVATAR_WIDTH, 50));
         avatarPanel.setOpaque(false);
 
-        JLabel avatarLabel = new JLabel();
+        avatarLabel = new JLabel();
         avatarLabel.setHorizontalAlignment(JLabel.CENTER);
-
-        // Chargement de l'avatar s'il existe
-        if (sender.getAvatarPath() != null && !sender.getAvatarPath().isEmpty()) {
-            try {
-                File avatarFile = new File(sender.getAvatarPath());
-                if (avatarFile.exists()) {
-                    ImageIcon avatarIcon = new ImageIcon(ImageIO.read(avatarFile));
-                    Image img = avatarIcon.getImage().getScaledInstance(40, 40, Image.SCALE_SMOOTH);
-                    avatarLabel.setIcon(new ImageIcon(img));
-                } else {
-                    // Avatar par défaut
-                    avatarLabel.setText(sender.getName().substring(0, 1).toUpperCase());
-                    avatarLabel.setFont(avatarLabel.getFont().deriveFont(Font.BOLD, 18));
-                }
-            } catch (IOException e) {
-                // Avatar par défaut en cas d'erreur
-                avatarLabel.setText(sender.getName().substring(0, 1).toUpperCase());
-                avatarLabel.setFont(avatarLabel.getFont().deriveFont(Font.BOLD, 18));
-            }
-        } else {
-            // Avatar par défaut
-            avatarLabel.setText(sender.getName().substring(0, 1).toUpperCase());
-            avatarLabel.setFont(avatarLabel.getFont().deriveFont(Font.BOLD, 18));
-        }
-
+        initialFont = avatarLabel.getFont().deriveFont(Font.BOLD, 18);
         avatarPanel.add(avatarLabel, BorderLayout.CENTER);
 
         // Panneau central pour le contenu du message
-        JPanel contentPanel = new JPanel();
-        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
+        JPanel contentPanel = new JPanel(new BorderLayout(0, 5));
         contentPanel.setOpaque(false);
 
         // En-tête avec nom, tag et date
@@ -131,10 +110,10 @@ public class MessageCellView extends JPanel {
         JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
         userPanel.setOpaque(false);
 
-        JLabel nameLabel = new JLabel(sender.getName());
+        nameLabel = new JLabel();
         nameLabel.setFont(nameLabel.getFont().deriveFont(Font.BOLD));
 
-        JLabel tagLabel = new JLabel("@" + sender.getUserTag());
+        tagLabel = new JLabel();
         tagLabel.setForeground(new Color(100, 100, 100));
 
         userPanel.add(nameLabel);
@@ -143,42 +122,72 @@ public class MessageCellView extends JPanel {
         headerPanel.add(userPanel, BorderLayout.WEST);
 
         // Date du message
-        JLabel dateLabel = new JLabel(dateFormat.format(messageDate));
+        dateLabel = new JLabel();
         dateLabel.setFont(dateLabel.getFont().deriveFont(Font.ITALIC, 11));
         dateLabel.setForeground(new Color(100, 100, 100));
 
-        // Alignement de la date en fonction de l'émetteur
         JPanel datePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
         datePanel.setOpaque(false);
         datePanel.add(dateLabel);
         headerPanel.add(datePanel, BorderLayout.EAST);
 
-        contentPanel.add(headerPanel);
-        contentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+        contentPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Contenu du message
-        JTextArea textArea = new JTextArea(messageText);
+        textArea = new JTextArea();
         textArea.setEditable(false);
         textArea.setWrapStyleWord(true);
         textArea.setLineWrap(true);
         textArea.setFont(new Font("SansSerif", Font.PLAIN, 13));
-        textArea.setBackground(new Color(0, 0, 0, 0));
+        textArea.setOpaque(false);
         textArea.setBorder(null);
+        contentPanel.add(textArea, BorderLayout.CENTER);
 
-        // Alignement du texte en fonction de l'émetteur
-        if (isCurrentUserMessage) {
-            // Pour les messages de l'utilisateur connecté, aligner le texte à droite
-            JPanel textPanel = new JPanel(new BorderLayout());
-            textPanel.setOpaque(false);
-            textPanel.add(textArea, BorderLayout.CENTER);
-            textArea.setComponentOrientation(ComponentOrientation.LEFT_TO_RIGHT);
-            contentPanel.add(textPanel);
-        } else {
-            contentPanel.add(textArea);
-        }
         // Positionnement de l'avatar et du contenu
         this.add(avatarPanel, BorderLayout.WEST);
         this.add(contentPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends Message> list, Message message, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+        User sender = message.getSender();
+
+        // Vérifier si le message est de l'utilisateur connecté
+        boolean isCurrentUserMessage = sender.equals(session.getConnectedUser());
+        this.setBackground(isCurrentUserMessage ? CONNECTED_USER_BACKGROUND : Color.WHITE);
+
+        this.updateAvatar(sender, list);
+        nameLabel.setText(sender.getName());
+        tagLabel.setText("@" + sender.getUserTag());
+        dateLabel.setText(dateFormat.format(new Date(message.getEmissionDate())));
+        textArea.setText(message.getText());
 
+        // Largeur du texte imposée par celle de la liste (calcul de la hauteur du retour à la ligne)
+        Insets insets = this.getInsets();
+        int textWidth = Math.max(list.getWidth() - insets.left - insets.right - AVATAR_WIDTH - HORIZONTAL_GAP, 50);
+        textArea.setSize(textWidth, Short.MAX_VALUE);
+
+        return this;
+    }
+
+    /**
+     * Affiche l'avatar de l'utilisateur (ou son initiale par défaut)
+     *
+     * @param sender Émetteur du message
+     * @param list Liste à repeindre lorsque l'avatar est chargé
+     */
+    private void updateAvatar(User sender, JList<?> list) {
+        Icon avatarIcon = AvatarManager.getInstance().getAvatar(sender.getAvatarPath(), 40, list::repaint);
+
+        if (avatarIcon != null) {
+            avatarLabel.setIcon(avatarIcon);
+            avatarLabel.setText(null);
+        } else {
+            // Avatar par défaut
+            avatarLabel.setIcon(null);
+            avatarLabel.setText(sender.getName().isEmpty() ? "?" : sender.getName().substring(0, 1).toUpperCase());
+            avatarLabel.setFont(initialFont);
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package main.java.com.ubo.tp.message.ihm.notifications;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
+import java.util.Collection;
 import javax.swing.*;
 
 import main.java.com.ubo.tp.message.datamodel.notification.INotificationListObserver;
@@ -100,26 +101,40 @@ public class NotificationButton extends JButton implements INotificationListObse
 
     @Override
     public void notifyNotificationAdded(Notification addedNotification) {
-       this.unreadCount=this.controller.getUnreadCount();
-        System.out.println(unreadCount);
-        setIcon(createIcon());
-        repaint();
+        SwingUtilities.invokeLater(this::refreshCounter);
     }
 
     @Override
     public void notifyNotificationRemoved(Notification removedNotification) {
-        this.unreadCount=this.controller.getUnreadCount();
-        System.out.println(unreadCount);
-        setIcon(createIcon());
-        repaint();
+        SwingUtilities.invokeLater(this::refreshCounter);
+    }
+
+    @Override
+    public void notifyNotificationsAdded(Collection<Notification> addedNotifications) {
+        SwingUtilities.invokeLater(this::refreshCounter);
+    }
+
+    @Override
+    public void notifyNotificationsRemoved(Collection<Notification> removedNotifications) {
+        SwingUtilities.invokeLater(this::refreshCounter);
     }
 
     @Override
     public void notifyNotificationsRead() {
-        this.unreadCount = 0; // Toutes les notifications ont été lues
-        // Mettre à jour l'icône (qui disparaîtra car unreadCount = 0)
-        setIcon(createIcon());
-        repaint();
+        SwingUtilities.invokeLater(this::refreshCounter);
+    }
+
+    /**
+     * Met à jour le compteur (tenu à jour par la liste de notifications)
+     */
+    private void refreshCounter() {
+        int count = this.controller.getUnreadCount();
+        if (count != this.unreadCount) {
+            this.unreadCount = count;
+            // L'icône disparaît lorsque toutes les notifications sont lues
+            setIcon(createIcon());
+            repaint();
+        }
     }
 
 }
\ No newline at end of file
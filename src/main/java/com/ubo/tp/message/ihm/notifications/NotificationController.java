@@ -50,7 +50,15 @@ public class NotificationController implements IDatabaseObserver, ISessionObserv
      * Marque toutes les notifications comme lues
      */
     public void markAllAsRead() {
-        this.notificationList.markAllNotificationsAsRead();
+        List<Notification> newlyRead = this.notificationList.markAllNotificationsAsRead();
+        if (newlyRead.isEmpty()) {
+            return;
+        }
+
+        // Mémoriser les messages lus (y compris ceux qui seront évincés de la liste)
+        for (Notification notification : newlyRead) {
+            readMessageIds.add(notification.getMessage().getUuid());
+        }
         notificationManager.saveReadNotifications(connectedUser, readMessageIds);
     }
 
@@ -65,28 +73,15 @@ public class NotificationController implements IDatabaseObserver, ISessionObserv
      * Retourne le nombre de notifications non lues
      */
     public int getUnreadCount() {
-        int count = 0;
-
-        for (Notification notification : notificationList.getNotifications()) {
-            if (!notification.isRead()) {
-                count++;
-            }
-        }
-
-        return count;
+        return notificationList.getUnreadCount();
     }
 
-
-
     @Override
     public void notifyLogout() {
         this.connectedUser = null;
 
-        // Récupérer toutes les notifications pour les retirer une par une
-        List<Notification> allNotifications = new ArrayList<>(notificationList.getNotifications());
-        for (Notification notification : allNotifications) {
-            notificationList.removeNotification(notification);
-        }
+        // Retirer toutes les notifications
+        notificationList.clear();
     }
 
     /**
@@ -160,14 +155,8 @@ public class NotificationController implements IDatabaseObserver, ISessionObserv
             }
         }
 
-        // Tri des notifications par date (plus récentes d'abord)
-        Collections.sort(notificationsToAdd, (n1, n2) ->
-                n2.getCreationDate().compareTo(n1.getCreationDate()));
-
-        // Ajouter les notifications triées
-        for (Notification notification : notificationsToAdd) {
-            notificationList.addNotification(notification);
-        }
+        // Ajout en une fois (la liste trie les notifications et évince les plus anciennes lues)
+        notificationList.addNotifications(notificationsToAdd);
     }
 
     @Override
@@ -175,10 +164,7 @@ public class NotificationController implements IDatabaseObserver, ISessionObserv
         this.connectedUser = connectedUser;
 
         // Vider la liste de notifications actuelle
-        List<Notification> currentNotifications = new ArrayList<>(notificationList.getNotifications());
-        for (Notification notification : currentNotifications) {
-            notificationList.removeNotification(notification);
-        }
+        notificationList.clear();
 
         // Charger les notifications lues pour l'utilisateur
         this.readMessageIds = notificationManager.loadReadNotifications(connectedUser);
@@ -207,10 +193,7 @@ public class NotificationController implements IDatabaseObserver, ISessionObserv
             this.readMessageIds = notificationManager.loadReadNotifications(connectedUser);
 
             // Vider la liste de notifications actuelle
-            List<Notification> currentNotifications = new ArrayList<>(notificationList.getNotifications());
-            for (Notification notification : currentNotifications) {
-                notificationList.removeNotification(notification);
-            }
+            notificationList.clear();
 
             // Recharger les notifications
             loadExistingMessages();
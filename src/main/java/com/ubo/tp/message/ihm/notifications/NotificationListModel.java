@@ -0,0 +1,140 @@
+package main.java.com.ubo.tp.message.ihm.notifications;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.swing.AbstractListModel;
+
+import main.java.com.ubo.tp.message.datamodel.notification.Notification;
+
+/**
+ * Modèle de la liste des notifications affichées, les plus récentes d'abord.
+ * <p>
+ * Les mises à jour sont incrémentales : l'ajout d'une notification insère une
+ * seule ligne à sa place. Le marquage comme lu ne modifie pas le modèle (la
+ * vue est simplement repeinte). Le modèle doit être manipulé depuis l'EDT.
+ */
+public class NotificationListModel extends AbstractListModel<Notification> {
+
+    /**
+     * Ordre d'affichage : plus récentes d'abord
+     */
+    private static final Comparator<Notification> DISPLAY_ORDER = Notification.CREATION_DATE_COMPARATOR.reversed();
+
+    /**
+     * Notifications affichées, plus récentes d'abord
+     */
+    private final List<Notification> notifications = new ArrayList<>();
+
+    /**
+     * Notifications affichées, par identifiant de message
+     */
+    private final Map<UUID, Notification> notificationsById = new HashMap<>();
+
+    @Override
+    public int getSize() {
+        return notifications.size();
+    }
+
+    @Override
+    public Notification getElementAt(int index) {
+        return notifications.get(index);
+    }
+
+    /**
+     * Remplace l'ensemble des notifications affichées
+     *
+     * @param newNotifications Notifications à afficher
+     */
+    public void setNotifications(Collection<Notification> newNotifications) {
+        int oldSize = notifications.size();
+        notifications.clear();
+        notificationsById.clear();
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+
+        for (Notification notification : newNotifications) {
+            if (notificationsById.put(notification.getMessage().getUuid(), notification) == null) {
+                notifications.add(notification);
+            }
+        }
+        notifications.sort(DISPLAY_ORDER);
+        if (!notifications.isEmpty()) {
+            fireIntervalAdded(this, 0, notifications.size() - 1);
+        }
+    }
+
+    /**
+     * Insère une notification à sa place
+     *
+     * @param notification Notification à insérer
+     */
+    public void addNotification(Notification notification) {
+        if (notificationsById.containsKey(notification.getMessage().getUuid())) {
+            return;
+        }
+
+        int index = -Collections.binarySearch(notifications, notification, DISPLAY_ORDER) - 1;
+        notifications.add(index, notification);
+        notificationsById.put(notification.getMessage().getUuid(), notification);
+        fireIntervalAdded(this, index, index);
+    }
+
+    /**
+     * Insère un lot de notifications (une seule notification pour le lot)
+     *
+     * @param newNotifications Notifications à insérer
+     */
+    public void addNotifications(Collection<Notification> newNotifications) {
+        List<Notification> allNotifications = new ArrayList<>(notifications);
+        allNotifications.addAll(newNotifications);
+        setNotifications(allNotifications);
+    }
+
+    /**
+     * Retire une notification (identifiée par l'UUID de son message)
+     *
+     * @param notification Notification à retirer
+     */
+    public void removeNotification(Notification notification) {
+        Notification displayedNotification = notificationsById.remove(notification.getMessage().getUuid());
+        if (displayedNotification != null) {
+            int index = Collections.binarySearch(notifications, displayedNotification, DISPLAY_ORDER);
+            notifications.remove(index);
+            fireIntervalRemoved(this, index, index);
+        }
+    }
+
+    /**
+     * Retire un lot de notifications
+     *
+     * @param removedNotifications Notifications à retirer
+     */
+    public void removeNotifications(Collection<Notification> removedNotifications) {
+        if (removedNotifications.size() > 1) {
+            // Vidage (déconnexion) ou éviction : une seule notification pour le lot
+            Set<UUID> removedIds = new HashSet<>();
+            for (Notification notification : removedNotifications) {
+                removedIds.add(notification.getMessage().getUuid());
+            }
+            List<Notification> remaining = new ArrayList<>(notifications);
+            remaining.removeIf(displayed -> removedIds.contains(displayed.getMessage().getUuid()));
+            if (remaining.size() != notifications.size()) {
+                setNotifications(remaining);
+            }
+        } else {
+            for (Notification notification : removedNotifications) {
+                removeNotification(notification);
+            }
+        }
+    }
+}
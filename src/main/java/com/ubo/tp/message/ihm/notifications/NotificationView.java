@@ -3,13 +3,17 @@ package main.java.com.ubo.tp.message.ihm.notifications;
 import java.awt.*;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 
 import main.java.com.ubo.tp.message.datamodel.notification.INotificationListObserver;
 import main.java.com.ubo.tp.message.datamodel.notification.Notification;
+import main.java.com.ubo.tp.message.ihm.CachedHeightListUI;
+import main.java.com.ubo.tp.message.ihm.notifications.cell.NotificationCellView;
 
 
 
@@ -18,11 +22,34 @@ import main.java.com.ubo.tp.message.datamodel.notification.Notification;
  */
 public class NotificationView extends JPanel implements INotificationListObserver {
 
+    /**
+     * Carte affichant la liste des notifications
+     */
+    private static final String LIST_CARD = "list";
+
+    /**
+     * Carte affichant le message "liste vide"
+     */
+    private static final String EMPTY_CARD = "empty";
 
-    private JPanel notificationsPanel;
     private final SimpleDateFormat dateFormat;
     private final NotificationController controller;
 
+    /**
+     * Modèle de la liste des notifications affichées
+     */
+    private final NotificationListModel notificationListModel = new NotificationListModel();
+
+    /**
+     * Liste des notifications
+     */
+    private JList<Notification> notificationsList;
+
+    /**
+     * Panneau alternant entre la liste et le message "liste vide"
+     */
+    private JPanel notificationsPanel;
+
     /**
      * Constructeur
      */
@@ -30,12 +57,12 @@ public class NotificationView extends JPanel implements INotificationListObserve
         this.dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
         this.controller = controller;
 
-        // S'abonner aux changements de notifications
-        this.controller.getNotificationList().addObserver(this);
-
         // Initialisation de l'interface
         this.initUI();
 
+        // S'abonner aux changements de notifications
+        this.controller.getNotificationList().addObserver(this);
+
         // Affichage initial des notifications
         this.refreshNotifications();
 
@@ -64,156 +91,83 @@ public class NotificationView extends JPanel implements INotificationListObserve
 
         this.add(headerPanel, BorderLayout.NORTH);
 
-        // Panel des notifications
-        notificationsPanel = new JPanel();
-        notificationsPanel.setLayout(new BoxLayout(notificationsPanel, BoxLayout.Y_AXIS));
+        // Liste des notifications, avec un rendu unique partagé par toutes les lignes
+        notificationsList = new JList<>(notificationListModel);
+        notificationsList.setCellRenderer(new NotificationCellView(dateFormat));
+        notificationsList.setFocusable(false);
+
+        // La hauteur des lignes dépend de la largeur (retour à la ligne) : seules
+        // les nouvelles lignes sont mesurées, toutes le sont à nouveau si la largeur change
+        notificationsList.setUI(new CachedHeightListUI());
 
         // ScrollPane
-        JScrollPane scrollPane = new JScrollPane(notificationsPanel);
+        JScrollPane scrollPane = new JScrollPane(notificationsList);
         scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
 
-        this.add(scrollPane, BorderLayout.CENTER);
-    }
+        // Message d'information lorsque la liste est vide
+        JLabel emptyLabel = new JLabel("Aucune notification", SwingConstants.CENTER);
+        emptyLabel.setFont(emptyLabel.getFont().deriveFont(Font.ITALIC));
 
+        notificationsPanel = new JPanel(new CardLayout());
+        notificationsPanel.add(scrollPane, LIST_CARD);
+        notificationsPanel.add(emptyLabel, EMPTY_CARD);
 
-    /**
-     * Rafraîchit la liste des notifications tout en préservant la position de défilement
-     */
-    public void refreshNotifications() {
-        // Sauvegarde de la position de défilement actuelle
-        JScrollPane scrollPane = (JScrollPane) notificationsPanel.getParent().getParent();
-        JViewport viewport = scrollPane.getViewport();
-        Point viewPosition = viewport.getViewPosition();
-
-        // Désactiver le rafraîchissement de l'UI pendant les modifications
-        notificationsPanel.setVisible(false);
-        notificationsPanel.removeAll();
-
-        List<Notification> notifications = this.controller.getNotificationList().getNotifications();
-
-        if (notifications.isEmpty()) {
-            JLabel emptyLabel = new JLabel("Aucune notification");
-            emptyLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            emptyLabel.setFont(emptyLabel.getFont().deriveFont(Font.ITALIC));
-
-            notificationsPanel.add(Box.createVerticalGlue());
-            notificationsPanel.add(emptyLabel);
-            notificationsPanel.add(Box.createVerticalGlue());
-        } else {
-            // Trier les notifications par date de création (plus récentes en premier)
-            List<Notification> sortedNotifications = new ArrayList<>(notifications);
-            Collections.sort(sortedNotifications, (n1, n2) ->
-                    n2.getCreationDate().compareTo(n1.getCreationDate()));
-
-            for (Notification notification : sortedNotifications) {
-                // Création d'un panel pour chaque notification
-                JPanel notificationPanel = createNotificationPanel(notification);
-                notificationsPanel.add(notificationPanel);
-
-                // Séparateur
-                notificationsPanel.add(Box.createRigidArea(new Dimension(0, 1)));
-                JSeparator separator = new JSeparator();
-                separator.setMaximumSize(new Dimension(Integer.MAX_VALUE, 1));
-                notificationsPanel.add(separator);
-                notificationsPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-            }
-        }
-
-        // Réactiver l'affichage après les modifications
-        notificationsPanel.setVisible(true);
-
-        // Mettre à jour l'interface
-        notificationsPanel.revalidate();
-
-        // Restaurer la position de défilement
-        SwingUtilities.invokeLater(() -> {
-            // Vérifier que la position n'est pas en dehors des limites
-            int maxX = Math.max(0, notificationsPanel.getWidth() - viewport.getWidth());
-            int maxY = Math.max(0, notificationsPanel.getHeight() - viewport.getHeight());
-            int x = Math.min(viewPosition.x, maxX);
-            int y = Math.min(viewPosition.y, maxY);
-            viewport.setViewPosition(new Point(x, y));
+        notificationListModel.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) { updateEmptyState(); }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) { updateEmptyState(); }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) { updateEmptyState(); }
         });
+        updateEmptyState();
+
+        this.add(notificationsPanel, BorderLayout.CENTER);
     }
 
     /**
-     * Crée un panel pour une notification
+     * Affiche la liste ou le message "liste vide"
      */
-    private JPanel createNotificationPanel(Notification notification) {
-        JPanel panel = new JPanel(new BorderLayout(10, 5));
-        panel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createEmptyBorder(5, 2, 5, 2),
-                BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(
-                                notification.isRead() ? new Color(220, 220, 220) : new Color(173, 216, 230),
-                                1, true),
-                        BorderFactory.createEmptyBorder(10, 10, 10, 10)
-                )
-        ));
-
-        // État de lecture (point bleu si non lu)
-        if (!notification.isRead()) {
-            JPanel readIndicator = new JPanel() {
-                @Override
-                protected void paintComponent(Graphics g) {
-                    super.paintComponent(g);
-                    g.setColor(new Color(30, 144, 255));
-                    g.fillOval(0, 5, 10, 10);
-                }
-            };
-            readIndicator.setPreferredSize(new Dimension(15, 20));
-            panel.add(readIndicator, BorderLayout.WEST);
-        }
-
-        // Contenu principal
-        JPanel contentPanel = new JPanel(new BorderLayout());
-        contentPanel.setOpaque(false);
-
-        // En-tête (expéditeur et date)
-        JPanel headerPanel = new JPanel(new BorderLayout());
-        headerPanel.setOpaque(false);
-
-        JLabel senderLabel = new JLabel("@" + notification.getSender().getUserTag() + " a publié un message");
-        senderLabel.setFont(senderLabel.getFont().deriveFont(Font.BOLD));
-        headerPanel.add(senderLabel, BorderLayout.WEST);
-
-        JLabel dateLabel = new JLabel(dateFormat.format(notification.getCreationDate()));
-        dateLabel.setForeground(Color.GRAY);
-        dateLabel.setFont(dateLabel.getFont().deriveFont(Font.ITALIC, 10));
-        headerPanel.add(dateLabel, BorderLayout.EAST);
-
-        contentPanel.add(headerPanel, BorderLayout.NORTH);
-
-        // Message
-        JTextArea messageArea = new JTextArea(notification.getMessage().getText());
-        messageArea.setEditable(false);
-        messageArea.setLineWrap(true);
-        messageArea.setWrapStyleWord(true);
-        messageArea.setFont(new Font("SansSerif", Font.PLAIN, 12));
-        messageArea.setBackground(new Color(0, 0, 0, 0));
-        messageArea.setBorder(BorderFactory.createEmptyBorder(5, 0, 0, 0));
-
-        contentPanel.add(messageArea, BorderLayout.CENTER);
-
-        panel.add(contentPanel, BorderLayout.CENTER);
+    private void updateEmptyState() {
+        ((CardLayout) notificationsPanel.getLayout()).show(notificationsPanel,
+                notificationListModel.getSize() == 0 ? EMPTY_CARD : LIST_CARD);
+    }
 
-        return panel;
+    /**
+     * Recharge l'ensemble des notifications depuis la liste du contrôleur
+     */
+    public void refreshNotifications() {
+        notificationListModel.setNotifications(this.controller.getNotificationList().getNotifications());
     }
 
     @Override
     public void notifyNotificationAdded(Notification addedNotification) {
-        SwingUtilities.invokeLater(this::refreshNotifications);
+        SwingUtilities.invokeLater(() -> notificationListModel.addNotification(addedNotification));
     }
 
     @Override
     public void notifyNotificationRemoved(Notification removedNotification) {
-        SwingUtilities.invokeLater(this::refreshNotifications);
+        SwingUtilities.invokeLater(() -> notificationListModel.removeNotification(removedNotification));
+    }
+
+    @Override
+    public void notifyNotificationsAdded(Collection<Notification> addedNotifications) {
+        List<Notification> notifications = new ArrayList<>(addedNotifications);
+        SwingUtilities.invokeLater(() -> notificationListModel.addNotifications(notifications));
+    }
+
+    @Override
+    public void notifyNotificationsRemoved(Collection<Notification> removedNotifications) {
+        List<Notification> notifications = new ArrayList<>(removedNotifications);
+        SwingUtilities.invokeLater(() -> notificationListModel.removeNotifications(notifications));
     }
 
     @Override
     public void notifyNotificationsRead() {
-        //arrive quand on clique sur marquer tout comme lu
-        SwingUtilities.invokeLater(this::refreshNotifications);
+        //arrive quand on clique sur marquer tout comme lu : seul l'état (couleurs) change
+        SwingUtilities.invokeLater(notificationsList::repaint);
     }
-}
\ No newline at end of file
+}
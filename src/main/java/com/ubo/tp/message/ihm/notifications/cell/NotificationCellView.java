@@ -0,0 +1,151 @@
+package main.java.com.ubo.tp.message.ihm.notifications.cell;
+
+import java.awt.*;
+import java.text.SimpleDateFormat;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+
+import main.java.com.ubo.tp.message.datamodel.notification.Notification;
+
+/**
+ * Rendu d'une cellule de notification dans la liste.
+ * <p>
+ * Un seul composant est créé pour toute la liste : il est reconfiguré pour
+ * chaque ligne à peindre (principe du "tampon" des {@link ListCellRenderer}).
+ */
+public class NotificationCellView extends JPanel implements ListCellRenderer<Notification> {
+
+    /**
+     * Largeur réservée à l'indicateur de lecture
+     */
+    private static final int INDICATOR_WIDTH = 15;
+
+    /**
+     * Espacement horizontal entre l'indicateur et le contenu
+     */
+    private static final int HORIZONTAL_GAP = 10;
+
+    /**
+     * Bordures des notifications lues et non lues
+     */
+    private static final Border READ_BORDER = createBorder(new Color(220, 220, 220));
+    private static final Border UNREAD_BORDER = createBorder(new Color(173, 216, 230));
+
+    /**
+     * Format de date
+     */
+    private final SimpleDateFormat dateFormat;
+
+    /**
+     * Composants réutilisés pour chaque ligne
+     */
+    private JPanel readIndicator;
+    private JLabel senderLabel;
+    private JLabel dateLabel;
+    private JTextArea messageArea;
+
+    /**
+     * Indique si la notification peinte est lue
+     */
+    private boolean isRead;
+
+    /**
+     * Constructeur
+     *
+     * @param dateFormat Format de date pour l'affichage
+     */
+    public NotificationCellView(SimpleDateFormat dateFormat) {
+        this.dateFormat = dateFormat;
+
+        this.initUI();
+    }
+
+    /**
+     * Crée la bordure d'une notification
+     */
+    private static Border createBorder(Color lineColor) {
+        return BorderFactory.createCompoundBorder(
+                BorderFactory.createEmptyBorder(5, 2, 5, 2),
+                BorderFactory.createCompoundBorder(
+                        BorderFactory.createLineBorder(lineColor, 1, true),
+                        BorderFactory.createEmptyBorder(10, 10, 10, 10)
+                )
+        );
+    }
+
+    /**
+     * Initialisation de l'interface utilisateur
+     */
+    private void initUI() {
+        this.setLayout(new BorderLayout(HORIZONTAL_GAP, 5));
+        this.setBackground(Color.WHITE);
+        this.setBorder(UNREAD_BORDER);
+
+        // État de lecture (point bleu si non lu) : la place est toujours réservée,
+        // la hauteur des lignes ne dépend donc pas de l'état de lecture
+        readIndicator = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                if (!isRead) {
+                    g.setColor(new Color(30, 144, 255));
+                    g.fillOval(0, 5, 10, 10);
+                }
+            }
+        };
+        readIndicator.setOpaque(false);
+        readIndicator.setPreferredSize(new Dimension(INDICATOR_WIDTH, 20));
+        this.add(readIndicator, BorderLayout.WEST);
+
+        // Contenu principal
+        JPanel contentPanel = new JPanel(new BorderLayout());
+        contentPanel.setOpaque(false);
+
+        // En-tête (expéditeur et date)
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setOpaque(false);
+
+        senderLabel = new JLabel(" ");
+        senderLabel.setFont(senderLabel.getFont().deriveFont(Font.BOLD));
+        headerPanel.add(senderLabel, BorderLayout.WEST);
+
+        dateLabel = new JLabel(" ");
+        dateLabel.setForeground(Color.GRAY);
+        dateLabel.setFont(dateLabel.getFont().deriveFont(Font.ITALIC, 10));
+        headerPanel.add(dateLabel, BorderLayout.EAST);
+
+        contentPanel.add(headerPanel, BorderLayout.NORTH);
+
+        // Message
+        messageArea = new JTextArea();
+        messageArea.setEditable(false);
+        messageArea.setLineWrap(true);
+        messageArea.setWrapStyleWord(true);
+        messageArea.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        messageArea.setOpaque(false);
+        messageArea.setBorder(BorderFactory.createEmptyBorder(5, 0, 0, 0));
+
+        contentPanel.add(messageArea, BorderLayout.CENTER);
+
+        this.add(contentPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends Notification> list, Notification notification,
+                                                  int index, boolean isSelected, boolean cellHasFocus) {
+        this.isRead = notification.isRead();
+        this.setBorder(isRead ? READ_BORDER : UNREAD_BORDER);
+
+        senderLabel.setText("@" + notification.getSender().getUserTag() + " a publié un message");
+        dateLabel.setText(dateFormat.format(notification.getCreationDate()));
+        messageArea.setText(notification.getMessage().getText());
+
+        // Largeur du texte imposée par celle de la liste (calcul de la hauteur du retour à la ligne)
+        Insets insets = this.getInsets();
+        int textWidth = Math.max(list.getWidth() - insets.left - insets.right - INDICATOR_WIDTH - HORIZONTAL_GAP, 50);
+        messageArea.setSize(textWidth, Short.MAX_VALUE);
+
+        return this;
+    }
+}
@@ -0,0 +1,182 @@
+package main.java.com.ubo.tp.message.ihm.search;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Chaîne de traitement des recherches à la frappe.
+ * <p>
+ * Les frappes successives sont regroupées (anti-rebond), la requête est
+ * exécutée sur un thread d'arrière-plan, toute requête dépassée est annulée,
+ * et seul le résultat de la dernière requête est publié sur l'EDT.
+ *
+ * @param <T> Type du résultat de la recherche
+ */
+public class SearchPipeline<T> {
+
+    /**
+     * Délai d'anti-rebond par défaut (en ms)
+     */
+    public static final int DEFAULT_DEBOUNCE_DELAY = 200;
+
+    /**
+     * Nom de la recherche (pour les traces)
+     */
+    private final String name;
+
+    /**
+     * Requête exécutée en arrière-plan
+     */
+    private final Function<String, T> query;
+
+    /**
+     * Publication du résultat (sur l'EDT)
+     */
+    private final Consumer<T> publisher;
+
+    /**
+     * Timer d'anti-rebond
+     */
+    private final Timer debounceTimer;
+
+    /**
+     * Thread d'exécution des requêtes
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Numéro de la dernière requête lancée
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Texte en attente d'anti-rebond
+     */
+    private volatile String pendingText = "";
+
+    /**
+     * Requête en cours d'exécution
+     */
+    private Future<?> runningQuery;
+
+    /**
+     * Durée de la dernière requête publiée (en ms)
+     */
+    private volatile long lastLatency;
+
+    /**
+     * Constructeur
+     *
+     * @param name Nom de la recherche (nom du thread de recherche)
+     * @param query Requête à exécuter en arrière-plan
+     * @param publisher Publication du résultat sur l'EDT
+     */
+    public SearchPipeline(String name, Function<String, T> query, Consumer<T> publisher) {
+        this(name, query, publisher, DEFAULT_DEBOUNCE_DELAY);
+    }
+
+    /**
+     * Constructeur
+     *
+     * @param name Nom de la recherche (nom du thread de recherche)
+     * @param query Requête à exécuter en arrière-plan
+     * @param publisher Publication du résultat sur l'EDT
+     * @param debounceDelay Délai d'anti-rebond (en ms)
+     */
+    public SearchPipeline(String name, Function<String, T> query, Consumer<T> publisher, int debounceDelay) {
+        this.name = name;
+        this.query = query;
+        this.publisher = publisher;
+
+        this.debounceTimer = new Timer(debounceDelay, e -> execute(pendingText));
+        this.debounceTimer.setRepeats(false);
+
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SearchPipeline-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Programme une recherche après le délai d'anti-rebond (chaque appel repousse
+     * la précédente).
+     *
+     * @param text Texte recherché
+     */
+    public void submit(String text) {
+        this.pendingText = text;
+        if (SwingUtilities.isEventDispatchThread()) {
+            debounceTimer.restart();
+        } else {
+            SwingUtilities.invokeLater(debounceTimer::restart);
+        }
+    }
+
+    /**
+     * Lance immédiatement une recherche (la recherche programmée est abandonnée).
+     *
+     * @param text Texte recherché
+     */
+    public void submitNow(String text) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            debounceTimer.stop();
+        } else {
+            SwingUtilities.invokeLater(debounceTimer::stop);
+        }
+        execute(text);
+    }
+
+    /**
+     * Exécute la requête en arrière-plan en annulant la précédente.
+     */
+    private synchronized void execute(String text) {
+        long querySequence = sequence.incrementAndGet();
+
+        if (runningQuery != null) {
+            runningQuery.cancel(true);
+        }
+
+        runningQuery = executor.submit(() -> {
+            // Requête dépassée avant même son démarrage
+            if (querySequence != sequence.get()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            T result = query.apply(text);
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Publication du seul résultat de la dernière requête
+            SwingUtilities.invokeLater(() -> {
+                if (querySequence == sequence.get()) {
+                    lastLatency = latency;
+                    publisher.accept(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Retourne la durée de la dernière requête publiée (en ms)
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Arrête la chaîne de traitement
+     */
+    public void shutdown() {
+        debounceTimer.stop();
+        executor.shutdownNow();
+    }
+}
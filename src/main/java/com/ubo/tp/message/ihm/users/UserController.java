@@ -117,8 +117,8 @@ public class UserController {
         // Mise à jour dans la base de données
         userList.modifiyUser(connectedUser);
 
-        // Écriture du fichier utilisateur
-        entityManager.writeUserFile(connectedUser);
+        // Écriture différée du fichier utilisateur
+        this.writeUserFile(connectedUser);
 
         return null; // Pas d'erreur
     }
@@ -151,12 +151,27 @@ public class UserController {
         // Mise à jour dans la base de données
         userList.modifiyUser(connectedUser);
 
-        // Écriture du fichier utilisateur
-        entityManager.writeUserFile(connectedUser);
+        // Écriture différée du fichier utilisateur
+        this.writeUserFile(connectedUser);
 
         return null; // Pas d'erreur
     }
 
+    /**
+     * Écriture différée du fichier de l'utilisateur (l'échec est signalé à la
+     * fin de l'écriture).
+     *
+     * @param user Utilisateur à enregistrer
+     */
+    private void writeUserFile(User user) {
+        entityManager.writeUserFile(user).whenComplete((result, error) -> {
+            if (error != null) {
+                System.err.println("Impossible d'enregistrer les abonnements de " + user.getUserTag() + " : "
+                        + error.getMessage());
+            }
+        });
+    }
+
     /**
      * Vérifie si l'utilisateur connecté suit un utilisateur
      *
@@ -0,0 +1,196 @@
+package main.java.com.ubo.tp.message.ihm.users;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.swing.table.AbstractTableModel;
+
+import main.java.com.ubo.tp.message.datamodel.user.User;
+
+/**
+ * Modèle (à une colonne) de la liste des utilisateurs affichés.
+ * <p>
+ * Les statistiques d'un utilisateur (abonnés, abonnements) ne sont calculées
+ * que lorsque sa ligne est peinte, puis conservées jusqu'à ce qu'un
+ * abonnement les modifie : seules les lignes de l'abonné et des utilisateurs
+ * suivis (ou plus suivis) sont alors invalidées. Le modèle doit être manipulé
+ * depuis l'EDT.
+ */
+public class UserListModel extends AbstractTableModel {
+
+    /**
+     * Contrôleur d'utilisateurs (calcul des statistiques)
+     */
+    private final UserController userController;
+
+    /**
+     * Utilisateurs affichés
+     */
+    private final List<User> users = new ArrayList<>();
+
+    /**
+     * Ligne de chaque utilisateur affiché, par identifiant
+     */
+    private final Map<UUID, Integer> rowsById = new HashMap<>();
+
+    /**
+     * Ligne de chaque utilisateur affiché, par tag
+     */
+    private final Map<String, Integer> rowsByTag = new HashMap<>();
+
+    /**
+     * Abonnements de chaque utilisateur lors de son dernier affichage, par
+     * identifiant (l'utilisateur modifié peut être la même instance)
+     */
+    private final Map<UUID, Set<String>> displayedFollows = new HashMap<>();
+
+    /**
+     * Statistiques déjà calculées, par identifiant d'utilisateur
+     */
+    private final Map<UUID, UserStats> statsCache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur
+     *
+     * @param userController Contrôleur d'utilisateurs
+     */
+    public UserListModel(UserController userController) {
+        this.userController = userController;
+    }
+
+    @Override
+    public int getRowCount() {
+        return users.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 1;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return User.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return users.get(rowIndex);
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        // Édition = clic sur le bouton suivre/ne plus suivre
+        return true;
+    }
+
+    /**
+     * Remplace l'ensemble des utilisateurs affichés
+     *
+     * @param newUsers Utilisateurs à afficher
+     */
+    public void setUsers(List<User> newUsers) {
+        users.clear();
+        rowsById.clear();
+        rowsByTag.clear();
+        displayedFollows.clear();
+        statsCache.clear();
+
+        users.addAll(newUsers);
+        for (int row = 0; row < users.size(); row++) {
+            User user = users.get(row);
+            rowsById.put(user.getUuid(), row);
+            rowsByTag.put(user.getUserTag(), row);
+            displayedFollows.put(user.getUuid(), new HashSet<>(user.getFollows()));
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Remplace la copie affichée d'un utilisateur modifié. Ses statistiques et
+     * celles des utilisateurs dont il s'est abonné (ou désabonné) sont
+     * recalculées.
+     *
+     * @param modifiedUser Utilisateur modifié
+     */
+    public void updateUser(User modifiedUser) {
+        Integer row = rowsById.get(modifiedUser.getUuid());
+        if (row == null) {
+            return;
+        }
+
+        // Abonnements ajoutés ou retirés depuis le dernier affichage
+        Set<String> newFollows = new HashSet<>(modifiedUser.getFollows());
+        Set<String> changedFollows = new HashSet<>(newFollows);
+        Set<String> oldFollows = displayedFollows.put(modifiedUser.getUuid(), newFollows);
+        if (oldFollows != null) {
+            changedFollows.addAll(oldFollows);
+            Set<String> unchangedFollows = new HashSet<>(oldFollows);
+            unchangedFollows.retainAll(newFollows);
+            changedFollows.removeAll(unchangedFollows);
+        }
+
+        users.set(row, modifiedUser);
+        statsCache.remove(modifiedUser.getUuid());
+        fireTableRowsUpdated(row, row);
+
+        for (String followedTag : changedFollows) {
+            Integer followedRow = rowsByTag.get(followedTag);
+            if (followedRow != null) {
+                statsCache.remove(users.get(followedRow).getUuid());
+                fireTableRowsUpdated(followedRow, followedRow);
+            }
+        }
+    }
+
+    /**
+     * Retourne les statistiques de l'utilisateur (calculées au premier appel)
+     *
+     * @param user Utilisateur affiché
+     */
+    public UserStats getStats(User user) {
+        return statsCache.computeIfAbsent(user.getUuid(),
+                uuid -> new UserStats(userController.getFollowersCount(user), userController.getFollowingCount(user)));
+    }
+
+    /**
+     * Statistiques d'un utilisateur
+     */
+    public static class UserStats {
+
+        /**
+         * Nombre d'abonnés
+         */
+        private final int followersCount;
+
+        /**
+         * Nombre d'abonnements
+         */
+        private final int followingCount;
+
+        /**
+         * Constructeur
+         *
+         * @param followersCount Nombre d'abonnés
+         * @param followingCount Nombre d'abonnements
+         */
+        public UserStats(int followersCount, int followingCount) {
+            this.followersCount = followersCount;
+            this.followingCount = followingCount;
+        }
+
+        public int getFollowersCount() {
+            return followersCount;
+        }
+
+        public int getFollowingCount() {
+            return followingCount;
+        }
+    }
+}
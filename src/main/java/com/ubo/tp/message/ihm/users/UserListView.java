@@ -7,17 +7,32 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
 
 import main.java.com.ubo.tp.message.core.session.ISession;
-import main.java.com.ubo.tp.message.datamodel.user.IUser;
-import main.java.com.ubo.tp.message.datamodel.user.IUserListObserver;
+import main.java.com.ubo.tp.message.core.session.ISessionObserver;
 import main.java.com.ubo.tp.message.datamodel.user.User;
+import main.java.com.ubo.tp.message.ihm.dispatch.ChangeSummary;
+import main.java.com.ubo.tp.message.ihm.dispatch.IChangeObserver;
+import main.java.com.ubo.tp.message.ihm.dispatch.UserUpdateDispatcher;
+import main.java.com.ubo.tp.message.ihm.search.SearchPipeline;
+import main.java.com.ubo.tp.message.ihm.users.cell.UserCellEditor;
 import main.java.com.ubo.tp.message.ihm.users.cell.UserCellView;
 
 /**
  * Composant d'affichage de la liste des utilisateurs
  */
-public class UserListView extends JPanel implements IUserListObserver {
+public class UserListView extends JPanel implements IChangeObserver<User>, ISessionObserver {
+
+    /**
+     * Nom de la carte affichant la liste
+     */
+    private static final String LIST_CARD = "list";
+
+    /**
+     * Nom de la carte affichée lorsque la liste est vide
+     */
+    private static final String EMPTY_CARD = "empty";
 
     /**
      * Contrôleur d'utilisateurs
@@ -30,7 +45,17 @@ public class UserListView extends JPanel implements IUserListObserver {
     private final ISession session;
 
     /**
-     * Panneau contenant la liste des utilisateurs
+     * Modèle de la liste des utilisateurs affichés
+     */
+    private final UserListModel userListModel;
+
+    /**
+     * Table (à une colonne) des utilisateurs : seules les lignes visibles sont peintes
+     */
+    private JTable usersTable;
+
+    /**
+     * Panneau alternant la liste et le message "liste vide"
      */
     private JPanel usersPanel;
 
@@ -44,16 +69,27 @@ public class UserListView extends JPanel implements IUserListObserver {
      */
     private JScrollPane scrollPane;
 
+    /**
+     * Recherche asynchrone (anti-rebond, hors EDT)
+     */
+    private final SearchPipeline<List<User>> searchPipeline;
+
     /**
      * Constructeur
      *
      * @param userController Contrôleur d'utilisateurs
      * @param session Session active
+     * @param userDispatcher Changements de la liste des utilisateurs (regroupés, sur l'EDT)
      */
-    public UserListView(UserController userController, ISession session, IUser user) {
+    public UserListView(UserController userController, ISession session, UserUpdateDispatcher userDispatcher) {
         this.userController = userController;
         this.session = session;
-        user.addObserver(this);
+        this.userListModel = new UserListModel(userController);
+        this.searchPipeline = new SearchPipeline<>("utilisateurs", userController::searchUsers, this::displayUsers);
+        userDispatcher.addObserver(this);
+
+        // Une seule inscription pour toute la liste (état des boutons suivre)
+        session.addObserver(this);
 
         // Initialisation de l'interface
         this.initUI();
@@ -83,13 +119,13 @@ public class UserListView extends JPanel implements IUserListObserver {
         // Écouteur pour la recherche en temps réel
         searchField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public void insertUpdate(DocumentEvent e) { searchUsers(); }
+            public void insertUpdate(DocumentEvent e) { searchPipeline.submit(searchField.getText().trim()); }
 
             @Override
-            public void removeUpdate(DocumentEvent e) { searchUsers(); }
+            public void removeUpdate(DocumentEvent e) { searchPipeline.submit(searchField.getText().trim()); }
 
             @Override
-            public void changedUpdate(DocumentEvent e) { searchUsers(); }
+            public void changedUpdate(DocumentEvent e) { searchPipeline.submit(searchField.getText().trim()); }
         });
 
         searchPanel.add(searchField, BorderLayout.CENTER);
@@ -103,40 +139,53 @@ public class UserListView extends JPanel implements IUserListObserver {
         // Ajout du panneau de recherche
         this.add(searchPanel, BorderLayout.NORTH);
 
-        // Création du panneau pour la liste des utilisateurs
-        usersPanel = new JPanel();
-        usersPanel.setLayout(new BoxLayout(usersPanel, BoxLayout.Y_AXIS));
-        usersPanel.setBackground(Color.WHITE);
+        // Table des utilisateurs, avec un rendu et un éditeur partagés par toutes les lignes
+        UserCellView cellRenderer = new UserCellView(userController, session);
+        usersTable = new JTable(userListModel);
+        usersTable.setTableHeader(null);
+        usersTable.setShowGrid(false);
+        usersTable.setIntercellSpacing(new Dimension(0, 0));
+        usersTable.setRowSelectionAllowed(false);
+        usersTable.setFocusable(false);
+        usersTable.setBackground(Color.WHITE);
+        usersTable.setDefaultRenderer(User.class, cellRenderer);
+        usersTable.setDefaultEditor(User.class, new UserCellEditor(userController, session));
+        usersTable.setRowHeight(cellRenderer.getPreferredSize().height);
 
         // Ajout d'un scroll pane
-        scrollPane = new JScrollPane(usersPanel);
+        scrollPane = new JScrollPane(usersTable);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        scrollPane.getViewport().setBackground(Color.WHITE);
+
+        // Message d'information lorsque la liste est vide
+        JLabel noUsersLabel = new JLabel("Aucun utilisateur à afficher", SwingConstants.CENTER);
+        noUsersLabel.setFont(noUsersLabel.getFont().deriveFont(Font.ITALIC));
 
-        this.add(scrollPane, BorderLayout.CENTER);
+        usersPanel = new JPanel(new CardLayout());
+        usersPanel.add(scrollPane, LIST_CARD);
+        usersPanel.add(noUsersLabel, EMPTY_CARD);
+
+        userListModel.addTableModelListener((TableModelEvent e) ->
+                ((CardLayout) usersPanel.getLayout()).show(usersPanel, userListModel.getRowCount() == 0 ? EMPTY_CARD : LIST_CARD));
+
+        this.add(usersPanel, BorderLayout.CENTER);
     }
 
     /**
      * Effectue une recherche et actualise la liste des utilisateurs
      */
     private void searchUsers() {
-        String query = searchField.getText().trim();
-        List<User> users = userController.searchUsers(query);
-        displayUsers(users);
+        searchPipeline.submitNow(searchField.getText().trim());
     }
 
     /**
      * Actualise la liste des utilisateurs
      */
     public void refreshUsers() {
-        // Utiliser la recherche si un terme est saisi, sinon afficher tous les utilisateurs
-        if (searchField != null && !searchField.getText().trim().isEmpty()) {
-            searchUsers();
-        } else {
-            List<User> users = userController.getAllUsers(null);
-            displayUsers(users);
-        }
+        // La recherche vide renvoie tous les utilisateurs
+        searchPipeline.submitNow(searchField != null ? searchField.getText().trim() : "");
     }
 
     /**
@@ -145,68 +194,45 @@ public class UserListView extends JPanel implements IUserListObserver {
      * @param users Liste des utilisateurs à afficher
      */
     private void displayUsers(List<User> users) {
-        // Sauvegarder la position du scroll
-        int verticalScrollValue = scrollPane.getVerticalScrollBar().getValue();
-
-        // Effacer le panneau actuel
-        usersPanel.removeAll();
-
-        // Vérifier s'il y a des utilisateurs
-        if (users.isEmpty()) {
-            // Ajout d'un message d'information
-            JLabel noUsersLabel = new JLabel("Aucun utilisateur à afficher");
-            noUsersLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            noUsersLabel.setFont(noUsersLabel.getFont().deriveFont(Font.ITALIC));
-            noUsersLabel.setBorder(new EmptyBorder(20, 0, 0, 0));
-
-            usersPanel.add(Box.createVerticalGlue());
-            usersPanel.add(noUsersLabel);
-            usersPanel.add(Box.createVerticalGlue());
-        } else {
-            // Ajouter chaque utilisateur
-            for (User user : users) {
-                UserCellView cellView = new UserCellView(user, userController, session);
-                usersPanel.add(cellView);
-
-                // Ajouter un séparateur
-                usersPanel.add(Box.createRigidArea(new Dimension(0, 1)));
-                JSeparator separator = new JSeparator();
-                separator.setMaximumSize(new Dimension(Integer.MAX_VALUE, 1));
-                usersPanel.add(separator);
-                usersPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-            }
+        if (usersTable.isEditing()) {
+            usersTable.getCellEditor().cancelCellEditing();
         }
 
-        // Ajouter un espace de remplissage en bas
-        usersPanel.add(Box.createVerticalGlue());
-
-        // Rafraîchir l'affichage
-        usersPanel.revalidate();
-        usersPanel.repaint();
+        // Les statistiques seront recalculées pour les seules lignes visibles
+        userListModel.setUsers(users);
+    }
 
-        // Restaurer la position du scroll
-        SwingUtilities.invokeLater(() -> scrollPane.getVerticalScrollBar().setValue(verticalScrollValue));
+    /**
+     * Recalcule l'affichage des lignes visibles (boutons suivre/ne plus suivre)
+     */
+    private void repaintUsers() {
+        SwingUtilities.invokeLater(() -> usersTable.repaint());
     }
 
-    // Implémentation des méthodes de l'interface ISessionObserver
+    // Implémentation des méthodes de l'interface IChangeObserver
 
     @Override
-    public void notifyUserAdded(User addedUser) {
-        refreshUsers();
+    public void notifyChanges(ChangeSummary<User> changes) {
+        if (changes.isRefresh() || !changes.getAdded().isEmpty() || !changes.getRemoved().isEmpty()) {
+            // Ajouts et suppressions : nouvelle recherche (tri et filtre)
+            refreshUsers();
+        } else {
+            // Remplacement des lignes concernées (et des lignes des utilisateurs suivis ou plus suivis)
+            for (User modifiedUser : changes.getModified()) {
+                userListModel.updateUser(modifiedUser);
+            }
+        }
     }
 
-    @Override
-    public void notifyUserDeleted(User deletedUser) {
-        refreshUsers();
-    }
+    // Implémentation des méthodes de l'interface ISessionObserver
 
     @Override
-    public void notifyRefreshUser() {
-        refreshUsers();
+    public void notifyLogin(User connectedUser) {
+        repaintUsers();
     }
 
     @Override
-    public void notifyUserModified(User modifiedUser) {
-        refreshUsers();
+    public void notifyLogout() {
+        repaintUsers();
     }
 }
@@ -0,0 +1,85 @@
+package main.java.com.ubo.tp.message.ihm.users.cell;
+
+import java.awt.Component;
+
+import javax.swing.AbstractCellEditor;
+import javax.swing.JOptionPane;
+import javax.swing.JTable;
+import javax.swing.table.TableCellEditor;
+
+import main.java.com.ubo.tp.message.core.session.ISession;
+import main.java.com.ubo.tp.message.datamodel.user.User;
+import main.java.com.ubo.tp.message.ihm.users.UserController;
+import main.java.com.ubo.tp.message.ihm.users.UserListModel;
+
+/**
+ * Éditeur de cellule d'utilisateur : rend le bouton suivre/ne plus suivre de
+ * la ligne cliquée actif.
+ */
+public class UserCellEditor extends AbstractCellEditor implements TableCellEditor {
+
+    /**
+     * Contrôleur d'utilisateurs
+     */
+    private final UserController userController;
+
+    /**
+     * Composant de la ligne en cours d'édition
+     */
+    private final UserCellView cellView;
+
+    /**
+     * Table en cours d'édition (parent des messages d'erreur)
+     */
+    private JTable table;
+
+    /**
+     * Constructeur
+     *
+     * @param userController Contrôleur d'utilisateurs
+     * @param session Session active
+     */
+    public UserCellEditor(UserController userController, ISession session) {
+        this.userController = userController;
+        this.cellView = new UserCellView(userController, session);
+        this.cellView.addFollowListener(e -> toggleFollow());
+    }
+
+    @Override
+    public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
+        this.table = table;
+        cellView.setUser((User) value, ((UserListModel) table.getModel()).getStats((User) value), table);
+        return cellView;
+    }
+
+    @Override
+    public Object getCellEditorValue() {
+        return cellView.getUser();
+    }
+
+    /**
+     * Bascule entre suivre et ne plus suivre l'utilisateur
+     */
+    private void toggleFollow() {
+        User user = cellView.getUser();
+
+        // Fin de l'édition avant la mise à jour du modèle
+        fireEditingStopped();
+
+        String error;
+        if (userController.isFollowing(user)) {
+            error = userController.unfollowUser(user);
+        } else {
+            error = userController.followUser(user);
+        }
+
+        if (error != null) {
+            JOptionPane.showMessageDialog(
+                    table,
+                    error,
+                    "Erreur",
+                    JOptionPane.ERROR_MESSAGE
+            );
+        }
+    }
+}
@@ -1,29 +1,28 @@
 package main.java.com.ubo.tp.message.ihm.users.cell;
 
 import java.awt.*;
-import java.io.File;
-import java.io.IOException;
+import java.awt.event.ActionListener;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
+import javax.swing.table.TableCellRenderer;
 
 import main.java.com.ubo.tp.message.core.session.ISession;
-import main.java.com.ubo.tp.message.core.session.ISessionObserver;
 import main.java.com.ubo.tp.message.datamodel.user.User;
+import main.java.com.ubo.tp.message.ihm.avatar.AvatarManager;
 import main.java.com.ubo.tp.message.ihm.users.UserController;
+import main.java.com.ubo.tp.message.ihm.users.UserListModel;
 
 /**
- * Composant représentant une cellule d'utilisateur dans la liste
+ * Composant représentant une cellule d'utilisateur dans la liste.
+ * <p>
+ * Un seul composant est utilisé pour peindre toutes les lignes (et un second
+ * pour la ligne en cours d'édition, voir {@link UserCellEditor}) : il est
+ * reconfiguré pour chaque utilisateur.
  */
-public class UserCellView extends JPanel implements ISessionObserver {
-
-    /**
-     * Utilisateur à afficher
-     */
-    private final User user;
+public class UserCellView extends JPanel implements TableCellRenderer {
 
     /**
      * Contrôleur d'utilisateurs
@@ -35,6 +34,19 @@ public class UserCellView extends JPanel implements ISessionObserver {
      */
     private final ISession session;
 
+    /**
+     * Utilisateur affiché
+     */
+    private User user;
+
+    /**
+     * Composants réutilisés pour chaque ligne
+     */
+    private JLabel avatarLabel;
+    private JLabel nameLabel;
+    private JLabel tagLabel;
+    private JLabel followingLabel;
+
     /**
      * Bouton pour suivre/ne plus suivre
      */
@@ -45,21 +57,21 @@ public class UserCellView extends JPanel implements ISessionObserver {
      */
     private JLabel followersLabel;
 
+    /**
+     * Police de l'avatar par défaut (initiale)
+     */
+    private Font initialFont;
+
     /**
      * Constructeur
      *
-     * @param user Utilisateur à afficher
      * @param userController Contrôleur d'utilisateurs
      * @param session Session active
      */
-    public UserCellView(User user, UserController userController, ISession session) {
-        this.user = user;
+    public UserCellView(UserController userController, ISession session) {
         this.userController = userController;
         this.session = session;
 
-        // S'abonner aux notifications de session
-        this.session.addObserver(this);
-
         this.initUI();
     }
 
@@ -68,7 +80,7 @@ public class UserCellView extends JPanel implements ISessionObserver {
      */
     private void initUI() {
         this.setLayout(new BorderLayout(10, 5));
-        this.setMaximumSize(new Dimension(Integer.MAX_VALUE, 100));
+        this.setBackground(Color.WHITE);
         this.setBorder(new CompoundBorder(
                 new EmptyBorder(5, 2, 5, 2),
                 new CompoundBorder(
@@ -82,32 +94,10 @@ public class UserCellView extends JPanel implements ISessionObserver {
         avatarPanel.setPreferredSize(new Dimension(60, 60));
         avatarPanel.setOpaque(false);
 
-        JLabel avatarLabel = new JLabel();
+        avatarLabel = new JLabel("?");
         avatarLabel.setHorizontalAlignment(JLabel.CENTER);
-
-        // Chargement de l'avatar s'il existe
-        if (user.getAvatarPath() != null && !user.getAvatarPath().isEmpty()) {
-            try {
-                File avatarFile = new File(user.getAvatarPath());
-                if (avatarFile.exists()) {
-                    ImageIcon avatarIcon = new ImageIcon(ImageIO.read(avatarFile));
-                    Image img = avatarIcon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
-                    avatarLabel.setIcon(new ImageIcon(img));
-                } else {
-                    // Avatar par défaut
-                    avatarLabel.setText(user.getName().substring(0, 1).toUpperCase());
-                    avatarLabel.setFont(avatarLabel.getFont().deriveFont(Font.BOLD, 24));
-                }
-            } catch (IOException e) {
-                // Avatar par défaut en cas d'erreur
-                avatarLabel.setText(user.getName().substring(0, 1).toUpperCase());
-                avatarLabel.setFont(avatarLabel.getFont().deriveFont(Font.BOLD, 24));
-            }
-        } else {
-            // Avatar par défaut
-            avatarLabel.setText(user.getName().substring(0, 1).toUpperCase());
-            avatarLabel.setFont(avatarLabel.getFont().deriveFont(Font.BOLD, 24));
-        }
+        initialFont = avatarLabel.getFont().deriveFont(Font.BOLD, 24);
+        avatarLabel.setFont(initialFont);
 
         avatarPanel.add(avatarLabel, BorderLayout.CENTER);
         this.add(avatarPanel, BorderLayout.WEST);
@@ -122,10 +112,11 @@ public class UserCellView extends JPanel implements ISessionObserver {
         namePanel.setOpaque(false);
         namePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        JLabel nameLabel = new JLabel(user.getName());
+        // Textes provisoires : la hauteur des lignes est calculée avant tout affichage
+        nameLabel = new JLabel(" ");
         nameLabel.setFont(nameLabel.getFont().deriveFont(Font.BOLD, 14));
 
-        JLabel tagLabel = new JLabel("@" + user.getUserTag());
+        tagLabel = new JLabel(" ");
         tagLabel.setForeground(new Color(100, 100, 100));
 
         namePanel.add(nameLabel);
@@ -138,14 +129,11 @@ public class UserCellView extends JPanel implements ISessionObserver {
         statsPanel.setOpaque(false);
         statsPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        int followersCount = userController.getFollowersCount(user);
-        followersLabel = new JLabel(followersCount + " followers");
-
-        int followingCount = userController.getFollowingCount(user);
+        followersLabel = new JLabel(" ");
 
          //Label pour le nombre d'utilisateurs suivis
 
-        JLabel followingLabel = new JLabel(followingCount + " abonnements");
+        followingLabel = new JLabel(" ");
 
         statsPanel.add(followersLabel);
         statsPanel.add(followingLabel);
@@ -157,86 +145,93 @@ public class UserCellView extends JPanel implements ISessionObserver {
         buttonPanel.setOpaque(false);
         buttonPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        followButton = new JButton();
-        updateFollowButton();
-
-        followButton.addActionListener(e -> toggleFollow());
+        followButton = new JButton("Ne plus suivre");
+        followButton.setPreferredSize(followButton.getPreferredSize());
 
         buttonPanel.add(followButton);
         infoPanel.add(buttonPanel);
 
         this.add(infoPanel, BorderLayout.CENTER);
+    }
 
-        // Mise à jour de l'état initial
-        updateUIState();
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        this.setUser((User) value, ((UserListModel) table.getModel()).getStats((User) value), table);
+        return this;
     }
 
     /**
-     * Met à jour l'état du bouton suivre/ne plus suivre
+     * Affiche un utilisateur
+     *
+     * @param user Utilisateur à afficher
+     * @param stats Statistiques de l'utilisateur
+     * @param table Table à repeindre lorsque l'avatar est chargé
      */
-    private void updateFollowButton() {
-        User currentUser = session.getConnectedUser();
-        boolean isConnected = currentUser != null;
-        boolean isSelf = isConnected && currentUser.equals(user);
-        boolean isFollowing = userController.isFollowing(user);
+    public void setUser(User user, UserListModel.UserStats stats, JTable table) {
+        this.user = user;
 
-        // Désactiver le bouton si on n'est pas connecté ou si c'est l'utilisateur lui-même
-        followButton.setEnabled(isConnected && !isSelf);
+        this.updateAvatar(table);
+        nameLabel.setText(user.getName());
+        tagLabel.setText("@" + user.getUserTag());
+        followersLabel.setText(stats.getFollowersCount() + " followers");
+        followingLabel.setText(stats.getFollowingCount() + " abonnements");
+        this.updateFollowButton();
+    }
 
-        if (!isConnected || isSelf) {
-            followButton.setText("Suivre");
-        } else {
-            followButton.setText(isFollowing ? "Ne plus suivre" : "Suivre");
-            followButton.setForeground(isFollowing ? new Color(150, 0, 0) : new Color(0, 100, 0));
-        }
+    /**
+     * Retourne l'utilisateur affiché
+     */
+    public User getUser() {
+        return user;
     }
 
     /**
-     * Bascule entre suivre et ne plus suivre l'utilisateur
+     * Ajoute un écouteur sur le bouton suivre/ne plus suivre
+     *
+     * @param listener Écouteur à ajouter
      */
-    private void toggleFollow() {
-        String error;
-        boolean isFollowing = userController.isFollowing(user);
+    public void addFollowListener(ActionListener listener) {
+        followButton.addActionListener(listener);
+    }
 
-        if (isFollowing) {
-            error = userController.unfollowUser(user);
-        } else {
-            error = userController.followUser(user);
-        }
+    /**
+     * Affiche l'avatar de l'utilisateur (ou son initiale par défaut)
+     *
+     * @param table Table à repeindre lorsque l'avatar est chargé
+     */
+    private void updateAvatar(JTable table) {
+        Icon avatarIcon = AvatarManager.getInstance().getAvatar(user.getAvatarPath(), 50, table::repaint);
 
-        if (error != null) {
-            JOptionPane.showMessageDialog(
-                    this,
-                    error,
-                    "Erreur",
-                    JOptionPane.ERROR_MESSAGE
-            );
+        if (avatarIcon != null) {
+            avatarLabel.setIcon(avatarIcon);
+            avatarLabel.setText(null);
         } else {
-            // Mise à jour de l'affichage
-            updateFollowButton();
-
-            // Mise à jour du nombre de followers
-            int followersCount = userController.getFollowersCount(user);
-            followersLabel.setText(followersCount + " followers");
+            // Avatar par défaut
+            avatarLabel.setIcon(null);
+            avatarLabel.setText(user.getName().isEmpty() ? "?" : user.getName().substring(0, 1).toUpperCase());
+            avatarLabel.setFont(initialFont);
         }
     }
 
     /**
-     * Met à jour l'état de l'interface
+     * Met à jour l'état du bouton suivre/ne plus suivre
      */
-    private void updateUIState() {
-        updateFollowButton();
-    }
-
-    // Implémentation des méthodes de l'interface ISessionObserver
+    private void updateFollowButton() {
+        User currentUser = session.getConnectedUser();
+        boolean isConnected = currentUser != null;
+        boolean isSelf = isConnected && currentUser.equals(user);
+        boolean isFollowing = userController.isFollowing(user);
 
-    @Override
-    public void notifyLogin(User connectedUser) {
-        updateUIState();
-    }
+        // Désactiver le bouton si on n'est pas connecté ou si c'est l'utilisateur lui-même
+        followButton.setEnabled(isConnected && !isSelf);
 
-    @Override
-    public void notifyLogout() {
-        updateUIState();
+        if (!isConnected || isSelf) {
+            followButton.setText("Suivre");
+            followButton.setForeground(UIManager.getColor("Button.foreground"));
+        } else {
+            followButton.setText(isFollowing ? "Ne plus suivre" : "Suivre");
+            followButton.setForeground(isFollowing ? new Color(150, 0, 0) : new Color(0, 100, 0));
+        }
     }
-}
\ No newline at end of file
+}